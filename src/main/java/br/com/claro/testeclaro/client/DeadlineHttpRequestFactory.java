@@ -0,0 +1,179 @@
+package br.com.claro.testeclaro.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Fábrica de requisições que aplica um tempo máximo total a cada requisição.
+ * <p>
+ * Os timeouts de conexão e de leitura do HttpClient limitam cada etapa
+ * isoladamente, então uma resposta enviada lentamente, em pequenos pacotes,
+ * poderia prender a thread indefinidamente. Aqui a requisição é abortada quando
+ * o prazo se esgota. O agendamento é cancelado quando a resposta é fechada ou a
+ * requisição falha, para que requisições concluídas não fiquem retidas no
+ * agendador até o prazo.
+ */
+public class DeadlineHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final long deadlineMillis;
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "http-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Abort agendado por {@link #postProcessHttpRequest}, chamado pela fábrica
+     * durante {@link #createRequest} na mesma thread.
+     */
+    private final ThreadLocal<ScheduledFuture<?>> abortAgendado = new ThreadLocal<>();
+
+    public DeadlineHttpRequestFactory(HttpClient httpClient, Duration deadline) {
+        super(httpClient);
+        this.deadlineMillis = deadline.toMillis();
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        try {
+            ClientHttpRequest request = super.createRequest(uri, httpMethod);
+            return new DeadlineRequest(request, abortAgendado.get());
+        } catch (IOException | RuntimeException e) {
+            cancelar(abortAgendado.get());
+            throw e;
+        } finally {
+            abortAgendado.remove();
+        }
+    }
+
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+        abortAgendado.set(scheduler.schedule(request::abort, deadlineMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Quantidade de aborts agendados para requisições ainda não concluídas.
+     */
+    int abortsPendentes() {
+        return scheduler.getQueue().size();
+    }
+
+    /**
+     * Encerra somente o agendador dos prazos: o HttpClient é compartilhado com
+     * outros componentes e encerrado pelo seu próprio bean.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private static void cancelar(ScheduledFuture<?> abort) {
+        if (abort != null) {
+            abort.cancel(false);
+        }
+    }
+
+    /**
+     * Requisição que cancela o abort agendado quando falha ou quando a resposta
+     * é fechada.
+     */
+    private static final class DeadlineRequest implements ClientHttpRequest {
+        private final ClientHttpRequest request;
+        private final ScheduledFuture<?> abort;
+
+        private DeadlineRequest(ClientHttpRequest request, ScheduledFuture<?> abort) {
+            this.request = request;
+            this.abort = abort;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                return new DeadlineResponse(request.execute(), abort);
+            } catch (IOException | RuntimeException e) {
+                cancelar(abort);
+                throw e;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final ScheduledFuture<?> abort;
+
+        private DeadlineResponse(ClientHttpResponse response, ScheduledFuture<?> abort) {
+            this.response = response;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                cancelar(abort);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package br.com.claro.testeclaro.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cliente HTTP da API ViaCEP. Usa o {@link RestTemplate} compartilhado, com pool
+ * de conexões, nas consultas bloqueantes e o {@link WebClient} nas consultas não
+ * bloqueantes, ambos configurados em
+ * {@link br.com.claro.testeclaro.config.ViaCepConfig}.
+ */
+@Component
+public class ViaCepClient {
+    private static final String VARIAVEL_CEP = "{cep}";
+
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final Duration deadline;
+    private final String prefixoUrl;
+    private final String sufixoUrl;
+
+    public ViaCepClient(RestTemplate viaCepRestTemplate, WebClient viaCepWebClient, ViaCepProperties properties) {
+        this.restTemplate = viaCepRestTemplate;
+        this.webClient = viaCepWebClient;
+        this.deadline = properties.getHttp().getDeadline();
+        String url = properties.getUrl();
+        int posicao = url.indexOf(VARIAVEL_CEP);
+        if (posicao < 0) {
+            throw new IllegalArgumentException("viacep.url precisa conter " + VARIAVEL_CEP + ": " + url);
+        }
+        this.prefixoUrl = url.substring(0, posicao);
+        this.sufixoUrl = url.substring(posicao + VARIAVEL_CEP.length());
+    }
+
+    /**
+     * Consulta o endereço de um CEP na API.
+     *
+     * @param cep CEP normalizado, somente com os 8 dígitos
+     * @return endereço encontrado, ou vazio caso a API informe que o CEP não
+     *         existe
+     */
+    public Optional<Endereco> findByCEP(String cep) {
+        Endereco endereco = restTemplate.getForObject(uri(cep), Endereco.class);
+        if (endereco != null && endereco.getCep() != null) {
+            return Optional.of(endereco);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Consulta o endereço de um CEP na API sem bloquear a thread chamadora.
+     *
+     * @param cep CEP normalizado, somente com os 8 dígitos
+     * @return endereço encontrado, ou um {@link Mono} vazio caso a API informe que
+     *         o CEP não existe
+     */
+    public Mono<Endereco> findByCEPAsync(String cep) {
+        return webClient.get()
+                .uri(uri(cep))
+                .retrieve()
+                .bodyToMono(Endereco.class)
+                .filter(endereco -> endereco.getCep() != null)
+                .timeout(deadline);
+    }
+
+    /**
+     * Se o erro é uma resposta 400 ou 404 do ViaCEP, que indica um CEP em formato
+     * inválido. Os demais erros 4xx, como 429 (limite de requisições), 401 ou 403,
+     * indicam uma falha do ViaCEP.
+     */
+    public static boolean isCepRecusado(Throwable erro) {
+        int status;
+        if (erro instanceof HttpClientErrorException) {
+            status = ((HttpClientErrorException) erro).getRawStatusCode();
+        } else if (erro instanceof WebClientResponseException) {
+            status = ((WebClientResponseException) erro).getRawStatusCode();
+        } else {
+            return false;
+        }
+        return status == 400 || status == 404;
+    }
+
+    /**
+     * Monta a URI da consulta sem passar pelo processamento de templates, já que o
+     * CEP normalizado contém somente dígitos e não precisa ser codificado.
+     */
+    URI uri(String cep) {
+        return URI.create(prefixoUrl + cep + sufixoUrl);
+    }
+
+}
@@ -0,0 +1,56 @@
+package br.com.claro.testeclaro.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableConfigurationProperties({EnrichmentProperties.class, StatisticsProperties.class})
+public class AsyncConfig {
+    private static final String JDBC = "jdbc";
+
+    /**
+     * Threads usadas pelos fluxos não bloqueantes para acessar a base de dados. O
+     * acesso via JPA continua bloqueante, então a quantidade de threads deve
+     * acompanhar o tamanho do pool de conexões.
+     * <p>
+     * As threads e a fila de tarefas são expostas nas métricas
+     * {@code executor.*} com a tag {@code name=jdbc}; threads ociosas são
+     * encerradas após 60 segundos, como no {@code boundedElastic} do Reactor.
+     *
+     * @param threads quantidade máxima de threads
+     * @return scheduler reservado para operações JDBC
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${contatos.async.jdbc-threads:10}") int threads,
+            MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE), threadFactory(JDBC));
+        executor.allowCoreThreadTimeOut(true);
+        ExecutorService monitorado = ExecutorServiceMetrics.monitor(meterRegistry, executor, JDBC);
+        return Schedulers.fromExecutorService(monitorado, JDBC);
+    }
+
+    private static ThreadFactory threadFactory(String nome) {
+        AtomicInteger contador = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, nome + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
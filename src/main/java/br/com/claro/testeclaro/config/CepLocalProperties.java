@@ -0,0 +1,49 @@
+package br.com.claro.testeclaro.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurações da base local de CEPs, definidas com o prefixo
+ * {@code cep.local} nos arquivos application-*.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "cep.local")
+public class CepLocalProperties {
+
+    /**
+     * Consulta os CEPs primeiro na base local, aberta na inicialização; o
+     * ViaCEP é consultado somente para os CEPs que não estão na base.
+     */
+    private boolean enabled = false;
+    /**
+     * Caminho do arquivo da base de CEPs, no formato definido em {@link #format}.
+     */
+    private String file;
+    /**
+     * Formato do arquivo da base de CEPs.
+     */
+    private Format format = Format.CSV;
+    /**
+     * Intervalo entre as verificações de alteração do arquivo. Um arquivo
+     * alterado é carregado novamente, sem reiniciar a aplicação.
+     */
+    private Duration reloadInterval = Duration.ofMinutes(1);
+
+    public enum Format {
+        /**
+         * CSV com as colunas cep, logradouro, bairro, localidade e uf, carregado
+         * no heap.
+         */
+        CSV,
+        /**
+         * Índice binário gerado pelo GeradorIndiceCep, mapeado em memória sem ser
+         * copiado para o heap.
+         */
+        INDEX
+    }
+
+}
@@ -0,0 +1,38 @@
+package br.com.claro.testeclaro.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+@EnableConfigurationProperties(ContatoCacheProperties.class)
+public class ContatoCacheConfig {
+
+    /**
+     * Cache dos contatos consultados por e-mail, chaveado pelo e-mail
+     * normalizado. Somente contatos existentes são mantidos no cache; os acertos,
+     * ausências e despejos ficam disponíveis nas métricas {@code cache.*} com a
+     * tag {@code cache=contatos}.
+     *
+     * @param properties    configurações do cache
+     * @param meterRegistry registro das métricas do cache
+     * @return cache limitado por tamanho, com expiração após a gravação
+     */
+    @Bean
+    public Cache<String, Contato> contatoCache(ContatoCacheProperties properties, MeterRegistry meterRegistry) {
+        Cache<String, Contato> cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "contatos");
+    }
+
+}
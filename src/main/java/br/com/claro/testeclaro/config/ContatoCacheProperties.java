@@ -0,0 +1,33 @@
+package br.com.claro.testeclaro.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurações do cache de contatos consultados por e-mail, definidas com o
+ * prefixo {@code contatos.cache} nos arquivos application-*.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "contatos.cache")
+public class ContatoCacheProperties {
+
+    /**
+     * Mantém em memória os contatos consultados por e-mail. Pode ser desabilitado
+     * quando o cache de segundo nível do Hibernate for usado em seu lugar.
+     */
+    private boolean enabled = true;
+    /**
+     * Quantidade máxima de contatos mantidos em memória.
+     */
+    private long maximumSize = 10_000;
+    /**
+     * Tempo de vida de um contato no cache, contado a partir da última gravação.
+     * Limita o tempo em que alterações feitas por outras instâncias da aplicação
+     * ficam invisíveis.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,54 @@
+package br.com.claro.testeclaro.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurações do preenchimento do endereço em segundo plano, definidas com o
+ * prefixo {@code contatos.enrichment} nos arquivos application-*.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "contatos.enrichment")
+public class EnrichmentProperties {
+
+    /**
+     * Salva o contato sem consultar o ViaCEP e preenche o endereço em segundo
+     * plano.
+     */
+    private boolean enabled = false;
+    /**
+     * Quantidade máxima de contatos aguardando o preenchimento em memória. Os
+     * contatos que não couberem na fila são recuperados da base de dados na
+     * próxima varredura.
+     */
+    private int queueCapacity = 1_000;
+    /**
+     * Quantidade de threads que consultam o ViaCEP e atualizam os contatos.
+     */
+    private int workers = 2;
+    /**
+     * Quantidade máxima de contatos atualizados em uma mesma gravação.
+     */
+    private int batchSize = 50;
+    /**
+     * Quantidade máxima de tentativas de preenchimento de um contato.
+     */
+    private int maxAttempts = 10;
+    /**
+     * Espera antes da segunda tentativa, dobrada a cada nova falha.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+    /**
+     * Espera máxima entre duas tentativas.
+     */
+    private Duration maxBackoff = Duration.ofHours(1);
+    /**
+     * Intervalo entre as varreduras da base de dados em busca de contatos
+     * pendentes.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+}
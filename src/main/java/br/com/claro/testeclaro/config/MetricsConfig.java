@@ -0,0 +1,27 @@
+package br.com.claro.testeclaro.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas da aplicação expostas em {@code /actuator/metrics} e
+ * {@code /actuator/prometheus}.
+ * <p>
+ * Os endpoints ({@code http.server.requests}), o repositório
+ * ({@code spring.data.repository.invocations}) e o pool de conexões
+ * ({@code hikaricp.*}) são instrumentados pelo Spring Boot; os métodos dos
+ * serviços anotados com {@link Timed} são medidos pelo {@link TimedAspect}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.com.claro.testeclaro.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurações das estatísticas de contatos, definidas com o prefixo
+ * {@code contatos.statistics} nos arquivos application-*.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "contatos.statistics")
+public class StatisticsProperties {
+
+    /**
+     * Mantém as estatísticas em memória, atualizadas a cada gravação e exclusão
+     * feita pela aplicação. Desabilitado, cada consulta das estatísticas agrupa
+     * os contatos na base de dados.
+     */
+    private boolean incremental = false;
+    /**
+     * Intervalo entre os recálculos das estatísticas em memória a partir da base
+     * de dados, que corrigem as alterações feitas por outras instâncias da
+     * aplicação ou diretamente na base de dados.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,180 @@
+package br.com.claro.testeclaro.config;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import br.com.claro.testeclaro.client.DeadlineHttpRequestFactory;
+import br.com.claro.testeclaro.model.Endereco;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties({ViaCepProperties.class, CepLocalProperties.class})
+public class ViaCepConfig {
+
+    /**
+     * Cache dos endereços consultados no ViaCEP, chaveado pelo CEP normalizado
+     * (somente dígitos). Um {@link Optional} vazio representa um CEP inexistente
+     * e expira em {@code viacep.cache.negative-ttl}, evitando que o mesmo CEP
+     * inválido seja consultado repetidamente na API.
+     *
+     * @param properties configurações do ViaCEP
+     * @return cache limitado por tamanho, com política de despejo W-TinyLFU
+     */
+    @Bean
+    public Cache<String, Optional<Endereco>> cepCache(ViaCepProperties properties) {
+        long ttl = properties.getCache().getTtl().toNanos();
+        long ttlNegativo = properties.getCache().getNegativeTtl().toNanos();
+
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfter(new Expiry<String, Optional<Endereco>>() {
+                    @Override
+                    public long expireAfterCreate(String cep, Optional<Endereco> endereco, long currentTime) {
+                        return endereco.isPresent() ? ttl : ttlNegativo;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String cep, Optional<Endereco> endereco, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(cep, endereco, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String cep, Optional<Endereco> endereco, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Threads que consultam novamente no ViaCEP, em segundo plano, os endereços
+     * da tabela {@code cep_cache} mais antigos que
+     * {@code viacep.persistent-cache.refresh-after}. A fila é limitada: com ela
+     * cheia a atualização é recusada e solicitada de novo na próxima consulta.
+     * Exposto nas métricas {@code executor.*} com a tag {@code name=cep-refresh}.
+     *
+     * @param properties configurações do ViaCEP
+     * @return executor das atualizações em segundo plano
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService cepRefreshExecutor(ViaCepProperties properties, MeterRegistry meterRegistry) {
+        ViaCepProperties.PersistentCache cache = properties.getPersistentCache();
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(cache.getRefreshThreads(), cache.getRefreshThreads(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(cache.getRefreshQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "cep-refresh-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "cep-refresh");
+    }
+
+    /**
+     * Cliente HTTP compartilhado por todas as consultas ao ViaCEP, com pool de
+     * conexões mantidas abertas (keep-alive) e timeouts de conexão, leitura e de
+     * espera por uma conexão do pool.
+     *
+     * @param properties configurações do ViaCEP
+     * @return cliente HTTP com pool de conexões
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient viaCepHttpClient(ViaCepProperties properties) {
+        ViaCepProperties.Http http = properties.getHttp();
+        long keepAlive = http.getKeepAlive().toMillis();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long duracao = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duracao > 0 ? Math.min(duracao, keepAlive) : keepAlive;
+        };
+
+        return HttpClients.custom()
+                .setMaxConnTotal(http.getMaxConnections())
+                .setMaxConnPerRoute(http.getMaxConnectionsPerHost())
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .disableCookieManagement()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) http.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) http.getReadTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) http.getPoolTimeout().toMillis())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Fábrica das requisições do {@link RestTemplate} do ViaCEP, com o tempo
+     * máximo total de cada requisição. Registrada como bean para que o Spring
+     * encerre o agendador dos prazos junto com a aplicação.
+     *
+     * @param viaCepHttpClient cliente HTTP compartilhado, encerrado pelo próprio
+     *                         bean
+     * @param properties       configurações do ViaCEP
+     * @return fábrica de requisições com tempo máximo total
+     */
+    @Bean
+    public DeadlineHttpRequestFactory viaCepRequestFactory(CloseableHttpClient viaCepHttpClient,
+                                                           ViaCepProperties properties) {
+        return new DeadlineHttpRequestFactory(viaCepHttpClient, properties.getHttp().getDeadline());
+    }
+
+    @Bean
+    public RestTemplate viaCepRestTemplate(DeadlineHttpRequestFactory viaCepRequestFactory) {
+        return new RestTemplate(viaCepRequestFactory);
+    }
+
+    /**
+     * Pool de conexões usado pelo {@link WebClient} do ViaCEP nas consultas não
+     * bloqueantes, com os mesmos limites do pool do cliente bloqueante.
+     *
+     * @param properties configurações do ViaCEP
+     * @return pool de conexões do Reactor Netty
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider viaCepConnectionProvider(ViaCepProperties properties) {
+        ViaCepProperties.Http http = properties.getHttp();
+        return ConnectionProvider.builder("viacep")
+                .maxConnections(http.getMaxConnectionsPerHost())
+                .pendingAcquireTimeout(http.getPoolTimeout())
+                .maxIdleTime(http.getKeepAlive())
+                .build();
+    }
+
+    @Bean
+    public WebClient viaCepWebClient(WebClient.Builder builder, ConnectionProvider viaCepConnectionProvider,
+                                     ViaCepProperties properties) {
+        ViaCepProperties.Http http = properties.getHttp();
+        HttpClient httpClient = HttpClient.create(viaCepConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout());
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+}
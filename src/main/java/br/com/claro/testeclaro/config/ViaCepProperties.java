@@ -0,0 +1,193 @@
+package br.com.claro.testeclaro.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurações de acesso à API ViaCEP, definidas com o prefixo {@code viacep}
+ * nos arquivos application-*.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "viacep")
+public class ViaCepProperties {
+
+    /**
+     * URL da consulta, onde {@code {cep}} é substituído pelo CEP normalizado.
+     */
+    private String url = "https://viacep.com.br/ws/{cep}/json";
+
+    private final Cache cache = new Cache();
+
+    private final Http http = new Http();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final PersistentCache persistentCache = new PersistentCache();
+
+    private final Warmup warmup = new Warmup();
+
+    /**
+     * Quando o ViaCEP está indisponível, salva o contato com o CEP informado e o
+     * endereço pendente de preenchimento, em vez de recusar a gravação.
+     */
+    private boolean degradedMode = true;
+
+    @Data
+    public static class Cache {
+        /**
+         * Quantidade máxima de CEPs mantidos em memória.
+         */
+        private long maximumSize = 10_000;
+        /**
+         * Tempo de vida de um endereço encontrado.
+         */
+        private Duration ttl = Duration.ofHours(24);
+        /**
+         * Tempo de vida de um CEP que a API informou como inexistente.
+         */
+        private Duration negativeTtl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class PersistentCache {
+        /**
+         * Grava os endereços consultados no ViaCEP na tabela {@code cep_cache},
+         * consultada quando o CEP não está no cache em memória, antes do ViaCEP.
+         */
+        private boolean enabled = false;
+        /**
+         * Idade a partir da qual um endereço gravado é consultado novamente no
+         * ViaCEP, em segundo plano; enquanto isso, as consultas recebem o
+         * endereço gravado.
+         */
+        private Duration refreshAfter = Duration.ofDays(30);
+        /**
+         * Quantidade de threads que atualizam os endereços em segundo plano.
+         */
+        private int refreshThreads = 2;
+        /**
+         * Quantidade máxima de atualizações aguardando uma thread. As excedentes
+         * são descartadas e solicitadas novamente na próxima consulta do CEP.
+         */
+        private int refreshQueueCapacity = 1_000;
+    }
+
+    @Data
+    public static class Warmup {
+        /**
+         * Consulta na inicialização os CEPs mais frequentes dos contatos
+         * cadastrados, antes de a aplicação ser informada como pronta para
+         * receber requisições.
+         */
+        private boolean enabled = false;
+        /**
+         * Quantidade máxima de CEPs consultados, dos mais frequentes para os
+         * menos frequentes.
+         */
+        private int maxCeps = 1_000;
+        /**
+         * Quantidade máxima de consultas simultâneas, que não deve ultrapassar
+         * {@code viacep.bulkhead.max-concurrent-calls}.
+         */
+        private int concurrency = 10;
+        /**
+         * Tempo máximo de espera pelas consultas. Após esse tempo a aplicação é
+         * informada como pronta e as consultas restantes continuam em segundo
+         * plano.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+        /**
+         * Quantidade de CEPs consultados entre dois registros do progresso do
+         * aquecimento no log.
+         */
+        private int progressEvery = 100;
+        /**
+         * Intervalo máximo entre dois registros do progresso do aquecimento no
+         * log, para que consultas lentas também sejam acompanhadas.
+         */
+        private Duration progressInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Http {
+        /**
+         * Quantidade máxima de conexões abertas no pool.
+         */
+        private int maxConnections = 50;
+        /**
+         * Quantidade máxima de conexões abertas para um mesmo host.
+         */
+        private int maxConnectionsPerHost = 20;
+        /**
+         * Tempo que uma conexão ociosa é mantida aberta para reaproveitamento,
+         * quando o servidor não informa o cabeçalho Keep-Alive.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /**
+         * Tempo máximo para estabelecer a conexão.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        /**
+         * Tempo máximo de espera entre dois pacotes da resposta.
+         */
+        private Duration readTimeout = Duration.ofSeconds(2);
+        /**
+         * Tempo máximo de espera por uma conexão livre no pool.
+         */
+        private Duration poolTimeout = Duration.ofMillis(500);
+        /**
+         * Tempo máximo total da consulta, após o qual a requisição é abortada.
+         */
+        private Duration deadline = Duration.ofSeconds(3);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * Percentual de falhas a partir do qual o circuito é aberto.
+         */
+        private float failureRateThreshold = 50;
+        /**
+         * Percentual de consultas lentas a partir do qual o circuito é aberto.
+         */
+        private float slowCallRateThreshold = 80;
+        /**
+         * Duração a partir da qual uma consulta é considerada lenta.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(1);
+        /**
+         * Quantidade de consultas consideradas no cálculo dos percentuais.
+         */
+        private int slidingWindowSize = 20;
+        /**
+         * Quantidade mínima de consultas antes de calcular os percentuais.
+         */
+        private int minimumNumberOfCalls = 10;
+        /**
+         * Tempo que o circuito permanece aberto antes de permitir novas tentativas.
+         */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        /**
+         * Quantidade de consultas de teste permitidas com o circuito meio aberto.
+         */
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Quantidade máxima de consultas simultâneas ao ViaCEP.
+         */
+        private int maxConcurrentCalls = 20;
+        /**
+         * Tempo máximo de espera por uma vaga quando o limite foi atingido.
+         */
+        private Duration maxWaitDuration = Duration.ZERO;
+    }
+
+}
@@ -0,0 +1,100 @@
+package br.com.claro.testeclaro.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.claro.testeclaro.client.ViaCepClient;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Circuit breaker e bulkhead aplicados às consultas ao ViaCEP, configurados com
+ * o prefixo {@code viacep.circuit-breaker} e {@code viacep.bulkhead}.
+ */
+@Configuration
+public class ViaCepResilienceConfig {
+    private static final String VIACEP = "viacep";
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(ViaCepProperties properties) {
+        ViaCepProperties.CircuitBreaker circuitBreaker = properties.getCircuitBreaker();
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                .slowCallRateThreshold(circuitBreaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(circuitBreaker.getSlowCallDuration())
+                .slidingWindowSize(circuitBreaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreaker.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreaker.getPermittedCallsInHalfOpenState())
+                .ignoreException(ViaCepResilienceConfig::isIgnorado)
+                .build());
+    }
+
+    /**
+     * Circuit breaker das consultas ao ViaCEP. Somente falhas do próprio serviço
+     * (erros 5xx, demais erros 4xx como 429, timeouts e falhas de conexão) e
+     * consultas lentas contam para a abertura do circuito; CEPs recusados (400 ou
+     * 404) e recusas do bulkhead não.
+     */
+    @Bean
+    public CircuitBreaker viaCepCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return circuitBreakerRegistry.circuitBreaker(VIACEP);
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(ViaCepProperties properties) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getBulkhead().getMaxWaitDuration())
+                .build());
+    }
+
+    /**
+     * Limita a quantidade de consultas simultâneas ao ViaCEP, para que uma
+     * lentidão do serviço não ocupe todas as threads da aplicação.
+     */
+    @Bean
+    public Bulkhead viaCepBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(VIACEP);
+    }
+
+    /**
+     * Expõe o estado do circuit breaker, as chamadas registradas, a ocupação do
+     * bulkhead e a contagem de transições de estado do circuito.
+     */
+    @Bean
+    public MeterBinder viaCepResilienceMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+                                               BulkheadRegistry bulkheadRegistry,
+                                               CircuitBreaker viaCepCircuitBreaker) {
+        return registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+            viaCepCircuitBreaker.getEventPublisher().onStateTransition(event -> Counter
+                    .builder("viacep.circuitbreaker.transitions")
+                    .description("Transições de estado do circuit breaker do ViaCEP")
+                    .tag("from", event.getStateTransition().getFromState().name().toLowerCase())
+                    .tag("to", event.getStateTransition().getToState().name().toLowerCase())
+                    .register(registry)
+                    .increment());
+        };
+    }
+
+    /**
+     * Recusas do bulkhead e CEPs recusados pelo ViaCEP não indicam
+     * indisponibilidade do ViaCEP; os demais erros 4xx, como o limite de
+     * requisições, são contados como falhas.
+     */
+    private static boolean isIgnorado(Throwable erro) {
+        return erro instanceof BulkheadFullException || ViaCepClient.isCepRecusado(erro);
+    }
+
+}
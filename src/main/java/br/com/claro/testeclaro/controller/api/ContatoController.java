@@ -1,11 +1,20 @@
 package br.com.claro.testeclaro.controller.api;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,14 +23,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.FormatoExportacao;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.ResultadoExclusao;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
 import br.com.claro.testeclaro.model.entity.Contato;
 import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.util.EtagUtils;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,40 +52,181 @@ public class ContatoController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Contato save(@RequestBody @Valid Contato contato) {
-        return service.save(contato)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao salvar contato"));
+    public Mono<Contato> save(@RequestBody @Valid Contato contato) {
+        return service.saveAsync(contato)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao salvar contato")));
     }
 
+    /**
+     * Importa contatos em lote, a partir de um array JSON, de um contato em JSON
+     * por linha (NDJSON) ou de um CSV com cabeçalho. O corpo é lido à medida que
+     * os contatos são gravados, e o resultado informa o que aconteceu com cada
+     * linha.
+     */
+    @PostMapping(value = "lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            FormatoImportacao.TEXT_CSV_VALUE})
+    public ResultadoImportacao importar(HttpServletRequest request) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(request.getContentType());
+        FormatoImportacao formato = FormatoImportacao.of(mediaType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Erro ao importar contatos, formato não suportado"));
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        return service.importar(request.getInputStream(), charset, formato);
+    }
+
+    /**
+     * Sem parâmetros, lista todos os contatos, como nas versões anteriores. Com
+     * {@code page}, {@code cursor}, {@code size} ou {@code sort}, retorna uma
+     * {@link Pagina} de contatos.
+     * <p>
+     * O ETag é calculado a partir dos contatos retornados, sem serializá-los:
+     * com o {@code If-None-Match} da listagem ou da página atual, a resposta é
+     * 304, sem corpo.
+     */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Contato> findAll() {
-        return service.findAll();
+    public ResponseEntity<Object> findAll(@RequestParam(value = "page", required = false) Integer page,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", required = false) Integer size,
+                                          @RequestParam(value = "sort", required = false) String sort,
+                                          WebRequest request) {
+        Object contatos;
+        String etag;
+        if (page == null && cursor == null && size == null && sort == null) {
+            List<Contato> lista = service.findAll();
+            contatos = lista;
+            etag = EtagUtils.etag(lista);
+        } else {
+            Pagina<Contato> pagina = service.findAll(page, cursor, size, sort);
+            contatos = pagina;
+            etag = EtagUtils.etag(pagina);
+        }
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(contatos);
+    }
+
+    /**
+     * Busca contatos pelo início do nome (sem diferenciar maiúsculas e
+     * minúsculas), pela cidade, pela UF ou pelo CEP. Os filtros informados são
+     * combinados, e a próxima página é obtida com os mesmos filtros e o
+     * {@code proximoCursor} retornado.
+     */
+    @GetMapping("busca")
+    public Pagina<Contato> buscar(@RequestParam(value = "nome", required = false) String nome,
+                                  @RequestParam(value = "cidade", required = false) String cidade,
+                                  @RequestParam(value = "uf", required = false) String uf,
+                                  @RequestParam(value = "cep", required = false) String cep,
+                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "size", required = false) Integer size) {
+        return service.buscar(new FiltroContatos(nome, cidade, uf, cep), cursor, size);
+    }
+
+    /**
+     * Quantidade de contatos por UF, por cidade e de cadastros por dia, calculada
+     * sem carregar os contatos.
+     */
+    @GetMapping("estatisticas")
+    public EstatisticasContatos estatisticas() {
+        return service.estatisticas();
     }
 
+    /**
+     * Exporta todos os contatos, escrevendo a resposta (com
+     * {@code Transfer-Encoding: chunked}) à medida que os contatos são lidos da
+     * base de dados. A resposta é escrita na própria thread da requisição, para
+     * que exportações longas não fiquem sujeitas ao timeout das requisições
+     * assíncronas.
+     *
+     * @param formato {@code ndjson} (padrão), um contato por linha, ou
+     *                {@code json}, um único array
+     */
+    @GetMapping("exportacao")
+    public void exportar(@RequestParam(value = "formato", defaultValue = "ndjson") String formato,
+                         HttpServletResponse response) throws IOException {
+        FormatoExportacao formatoExportacao;
+        try {
+            formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao exportar contatos, formato inválido");
+        }
+        response.setContentType(formatoExportacao.getMediaType().toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("contatos." + formatoExportacao.getExtensao())
+                .build()
+                .toString());
+        service.exportar(response.getOutputStream(), formatoExportacao);
+    }
+
+    /**
+     * Retorna o contato com o ETag e o {@code Last-Modified}; com o
+     * {@code If-None-Match} da versão atual, a resposta é 304, sem serializar o
+     * contato.
+     */
     @GetMapping("{email}")
     public ResponseEntity<Contato> findById(@PathVariable("email") String email) {
-        return ResponseEntity.ok(service.findById(email)
+        return comVersao(service.findById(email)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contato não encontrado")));
     }
 
     @DeleteMapping("{email}")
     public ResponseEntity<String> delete(@PathVariable("email") String email) {
-        service.delete(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contato não encontrado"));
+        if (!service.delete(email)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contato não encontrado");
+        }
         return ResponseEntity.ok("Contato " + email + " deletado com sucesso");
     }
 
+    /**
+     * Exclui em lote os contatos de um array JSON de e-mails, com um único
+     * DELETE. E-mails não cadastrados são ignorados.
+     */
+    @DeleteMapping(value = "lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResultadoExclusao deleteAll(@RequestBody List<String> emails) {
+        return service.deleteAll(emails);
+    }
+
+    /**
+     * Com o cabeçalho {@code If-Match}, o contato só é atualizado caso ainda
+     * esteja na versão informada; caso contrário, a resposta é 412.
+     */
     @PutMapping("{email}")
-    public ResponseEntity<Contato> update(@PathVariable("email") String email, @RequestBody Contato contato) {
-        return ResponseEntity.ok(service.update(email, contato)
+    public ResponseEntity<Contato> update(@PathVariable("email") String email, @RequestBody Contato contato,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Contato> atualizado = ifMatch == null
+                ? service.update(email, contato)
+                : service.update(email, contato, ifMatch);
+        return comVersao(atualizado
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contato não encontrado")));
     }
 
+    /**
+     * Com o cabeçalho {@code If-Match}, o contato só é atualizado caso ainda
+     * esteja na versão informada; caso contrário, a resposta é 412.
+     */
     @PatchMapping("{email}")
     public ResponseEntity<Contato> update(@PathVariable("email") String email,
-                                          @RequestBody Map<Object, Object> campos) {
-        return ResponseEntity.ok(service.patchUpdate(email, campos)
+                                          @RequestBody Map<Object, Object> campos,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Contato> atualizado = ifMatch == null
+                ? service.patchUpdate(email, campos)
+                : service.patchUpdate(email, campos, ifMatch);
+        return comVersao(atualizado
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contato não encontrado")));
     }
 
+    /**
+     * Resposta com o ETag e o {@code Last-Modified} do contato. Nas requisições
+     * GET, o Spring compara esses cabeçalhos com o {@code If-None-Match} e o
+     * {@code If-Modified-Since} e responde 304 sem escrever o corpo.
+     */
+    private static ResponseEntity<Contato> comVersao(Contato contato) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().eTag(EtagUtils.etag(contato));
+        if (contato.getDataAtualizacao() != null) {
+            resposta.lastModified(contato.getDataAtualizacao().getTime());
+        }
+        return resposta.body(contato);
+    }
+
 }
@@ -0,0 +1,17 @@
+package br.com.claro.testeclaro.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Indica que o endereço não pôde ser consultado porque o ViaCEP está
+ * indisponível: a consulta falhou, excedeu o tempo máximo ou não foi feita por
+ * causa do circuit breaker aberto ou do limite de consultas simultâneas.
+ */
+public class EnderecoIndisponivelException extends ResponseStatusException {
+
+    public EnderecoIndisponivelException(Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Erro ao buscar endereço, serviço de CEP indisponível", cause);
+    }
+
+}
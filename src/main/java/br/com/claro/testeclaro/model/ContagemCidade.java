@@ -0,0 +1,20 @@
+package br.com.claro.testeclaro.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade de contatos de uma cidade, calculada por um GROUP BY na base de
+ * dados ou mantida em memória pelas estatísticas incrementais.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContagemCidade {
+
+    private String uf;
+    private String cidade;
+    private long total;
+
+}
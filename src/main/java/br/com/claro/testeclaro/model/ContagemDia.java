@@ -0,0 +1,41 @@
+package br.com.claro.testeclaro.model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade de contatos cadastrados em um dia, pela {@code dataCadastro}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContagemDia {
+
+    private LocalDate dia;
+    private long total;
+
+    /**
+     * Construtor usado na consulta de agregação, que agrupa a data de cadastro
+     * truncada para o dia.
+     */
+    public ContagemDia(Date dia, long total) {
+        this(dia(dia), total);
+    }
+
+    /**
+     * Dia da data informada, no fuso horário da aplicação, o mesmo usado na
+     * gravação da data na base de dados.
+     */
+    public static LocalDate dia(Date data) {
+        if (data instanceof java.sql.Date) {
+            return ((java.sql.Date) data).toLocalDate();
+        }
+        return data.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+}
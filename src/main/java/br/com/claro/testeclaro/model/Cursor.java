@@ -0,0 +1,22 @@
+package br.com.claro.testeclaro.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Posição do último registro de uma página na paginação por cursor: a ordenação
+ * usada, o valor do campo ordenado e o e-mail, que desempata registros com o
+ * mesmo valor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cursor {
+
+    private String campo;
+    private boolean crescente;
+    private String valor;
+    private String email;
+
+}
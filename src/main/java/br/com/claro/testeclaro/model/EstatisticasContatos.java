@@ -0,0 +1,27 @@
+package br.com.claro.testeclaro.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade de contatos por UF, por cidade e de cadastros por dia. Os contatos
+ * com o endereço ainda não preenchido entram somente no total e em
+ * {@code semEndereco}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasContatos {
+
+    private long total;
+    private long semEndereco;
+    private Map<String, Long> porUf;
+    private List<ContagemCidade> porCidade;
+    private Map<LocalDate, Long> cadastrosPorDia;
+
+}
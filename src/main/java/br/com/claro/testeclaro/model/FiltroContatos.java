@@ -0,0 +1,33 @@
+package br.com.claro.testeclaro.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros da busca de contatos. Os filtros informados são combinados; os
+ * filtros em branco são ignorados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroContatos {
+
+    /**
+     * Início do nome, sem diferenciar maiúsculas e minúsculas.
+     */
+    private String nome;
+    private String cidade;
+    private String uf;
+    /**
+     * CEP com ou sem máscara.
+     */
+    private String cep;
+
+    public boolean isVazio() {
+        return nome == null && cidade == null && uf == null && cep == null;
+    }
+
+}
@@ -0,0 +1,35 @@
+package br.com.claro.testeclaro.model;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos da exportação de contatos.
+ */
+public enum FormatoExportacao {
+
+    /**
+     * Um contato em JSON por linha.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    /**
+     * Um único array JSON com todos os contatos.
+     */
+    JSON(MediaType.APPLICATION_JSON, "json");
+
+    private final MediaType mediaType;
+    private final String extensao;
+
+    FormatoExportacao(MediaType mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+}
@@ -0,0 +1,45 @@
+package br.com.claro.testeclaro.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos aceitos na importação de contatos em lote.
+ */
+public enum FormatoImportacao {
+
+    /**
+     * Um único array JSON com todos os contatos.
+     */
+    JSON(MediaType.APPLICATION_JSON),
+    /**
+     * Um contato em JSON por linha.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    /**
+     * Um contato por linha, precedido por uma linha de cabeçalho com os nomes dos
+     * campos.
+     */
+    CSV(new MediaType("text", "csv"));
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    FormatoImportacao(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<FormatoImportacao> of(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(formato -> formato.mediaType.isCompatibleWith(mediaType))
+                .findFirst();
+    }
+
+}
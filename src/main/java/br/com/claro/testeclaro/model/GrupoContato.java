@@ -0,0 +1,27 @@
+package br.com.claro.testeclaro.model;
+
+import java.util.Date;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Campos do contato usados no agrupamento das estatísticas, lidos sem carregar
+ * o contato quando ele é excluído.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrupoContato {
+
+    private String uf;
+    private String cidade;
+    private Date dataCadastro;
+
+    public static GrupoContato de(Contato contato) {
+        return new GrupoContato(contato.getUf(), contato.getCidade(), contato.getDataCadastro());
+    }
+
+}
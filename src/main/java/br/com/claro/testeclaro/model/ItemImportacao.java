@@ -0,0 +1,28 @@
+package br.com.claro.testeclaro.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da importação de um contato. A {@code linha} é a linha do arquivo
+ * (NDJSON e CSV) ou a posição do contato no array (JSON), a partir de 1.
+ */
+@Data
+@NoArgsConstructor
+public class ItemImportacao {
+
+    private long linha;
+    private String email;
+    private boolean importado;
+    private boolean enderecoPendente;
+    private List<String> erros = new ArrayList<>();
+
+    public ItemImportacao(long linha, String email) {
+        this.linha = linha;
+        this.email = email;
+    }
+
+}
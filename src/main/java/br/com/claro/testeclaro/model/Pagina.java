@@ -0,0 +1,24 @@
+package br.com.claro.testeclaro.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados de uma listagem. O {@code proximoCursor} deve ser
+ * informado na requisição seguinte para obter a próxima página, e é
+ * {@code null} na última página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Pagina<T> {
+
+    private List<T> conteudo;
+    private int tamanho;
+    private Integer pagina;
+    private String proximoCursor;
+
+}
@@ -0,0 +1,19 @@
+package br.com.claro.testeclaro.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da exclusão de contatos em lote: quantos e-mails distintos foram
+ * informados e quantos contatos existiam e foram excluídos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoExclusao {
+
+    private int solicitados;
+    private int excluidos;
+
+}
@@ -0,0 +1,29 @@
+package br.com.claro.testeclaro.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Relatório da importação de contatos em lote, com o resultado de cada linha.
+ */
+@Data
+public class ResultadoImportacao {
+
+    private int total;
+    private int importados;
+    private int erros;
+    private List<ItemImportacao> itens = new ArrayList<>();
+
+    public void adicionar(ItemImportacao item) {
+        itens.add(item);
+        total++;
+        if (item.isImportado()) {
+            importados++;
+        } else {
+            erros++;
+        }
+    }
+
+}
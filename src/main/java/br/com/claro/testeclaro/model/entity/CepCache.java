@@ -0,0 +1,72 @@
+package br.com.claro.testeclaro.model.entity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import br.com.claro.testeclaro.model.Endereco;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Endereço consultado no ViaCEP e gravado na base de dados, compartilhado entre
+ * as instâncias da aplicação como segundo nível do cache de CEPs.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "cep_cache")
+public class CepCache {
+    /**
+     * CEP normalizado, somente com os 8 dígitos.
+     */
+    @Id
+    @Column(name = "cep", nullable = false, length = 8)
+    private String cep;
+    @Column(name = "logradouro", length = 255)
+    private String logradouro;
+    @Column(name = "bairro", length = 100)
+    private String bairro;
+    @Column(name = "localidade", length = 100)
+    private String localidade;
+    @Column(name = "uf", length = 2)
+    private String uf;
+    /**
+     * Momento em que o endereço foi consultado no ViaCEP.
+     */
+    @Column(name = "data_consulta", nullable = false)
+    private Date dataConsulta;
+
+    public static CepCache de(String cep, Endereco endereco, Date dataConsulta) {
+        return CepCache.builder()
+                .cep(cep)
+                .logradouro(endereco.getLogradouro())
+                .bairro(endereco.getBairro())
+                .localidade(endereco.getLocalidade())
+                .uf(endereco.getUf())
+                .dataConsulta(dataConsulta)
+                .build();
+    }
+
+    /**
+     * @return um novo {@link Endereco}, com o CEP no formato devolvido pelo
+     *         ViaCEP ("79002-000")
+     */
+    public Endereco paraEndereco() {
+        Endereco endereco = new Endereco();
+        endereco.setCep(cep.substring(0, 5) + "-" + cep.substring(5));
+        endereco.setLogradouro(logradouro);
+        endereco.setBairro(bairro);
+        endereco.setLocalidade(localidade);
+        endereco.setUf(uf);
+        return endereco;
+    }
+
+}
@@ -2,29 +2,54 @@ package br.com.claro.testeclaro.model.entity;
 
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
+
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
+import br.com.claro.testeclaro.util.NomeUtils;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "contato")
-public class Contato {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contatos")
+@Table(name = "contato", indexes = {
+        @Index(name = "idx_contato_nome_email", columnList = "nome, email"),
+        @Index(name = "idx_contato_nome_busca", columnList = "nome_busca, email"),
+        @Index(name = "idx_contato_cidade", columnList = "cidade, email"),
+        @Index(name = "idx_contato_uf", columnList = "uf, email"),
+        @Index(name = "idx_contato_uf_nome_busca", columnList = "uf, nome_busca, email"),
+        @Index(name = "idx_contato_cep", columnList = "cep, email")
+})
+public class Contato implements Persistable<String> {
     @Id
     @NotNull(message = "Campo e-mail obrigatório!")
     @Email(message = "Campo e-mail está em um formato inválido")
@@ -34,6 +59,13 @@ public class Contato {
     @NotEmpty(message = "Campo nome obrigatório!")
     @Column(name = "nome", nullable = false, length = 150)
     private String nome;
+    /**
+     * Nome normalizado por {@link NomeUtils#normalize(String)}, preenchido a
+     * cada gravação, para a busca por prefixo do nome pelo índice da coluna.
+     */
+    @Column(name = "nome_busca", length = 150)
+    @JsonIgnore
+    private String nomeBusca;
     @NotEmpty(message = "Campo telefone obrigatório!")
     @Column(name = "telefone", nullable = false, length = 15)
     private String telefone;
@@ -49,5 +81,76 @@ public class Contato {
     @Column(name = "data_cadastro")
     @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss")
     private Date dataCadastro;
+    /**
+     * Momento da última gravação do contato, preenchido pelo Hibernate a cada
+     * inserção ou alteração. Usado no cabeçalho {@code Last-Modified}.
+     */
+    @Column(name = "data_atualizacao")
+    @UpdateTimestamp
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Date dataAtualizacao;
+    /**
+     * Versão do contato, incrementada a cada alteração. Garante que uma
+     * alteração baseada em dados desatualizados seja recusada e compõe o
+     * {@code ETag} do contato.
+     */
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private long versao;
+    /**
+     * Indica que o contato foi salvo sem os dados de endereço porque o ViaCEP
+     * estava indisponível no momento do cadastro.
+     */
+    @Column(name = "endereco_pendente", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean enderecoPendente;
+    /**
+     * Quantidade de tentativas de preenchimento do endereço pendente que falharam.
+     */
+    @Column(name = "tentativas_endereco", nullable = false)
+    @JsonIgnore
+    private int tentativasEndereco;
+    /**
+     * Momento a partir do qual o endereço pendente pode ser consultado novamente,
+     * ou {@code null} caso não haja nova tentativa prevista.
+     */
+    @Column(name = "proxima_tentativa_endereco")
+    @JsonIgnore
+    private Date proximaTentativaEndereco;
+    /**
+     * Indica que o contato foi lido ou gravado na base de dados. Como o e-mail é
+     * informado pelo cliente, é este campo, e não o ID, que define se o
+     * {@code save} do repositório insere o contato diretamente ou faz o
+     * {@code merge}, que consulta o contato antes de gravá-lo.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean persistido;
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return email;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persistido;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        persistido = true;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void preencherNomeBusca() {
+        nomeBusca = NomeUtils.normalize(nome);
+    }
 
 }
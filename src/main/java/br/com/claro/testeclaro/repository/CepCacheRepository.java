@@ -0,0 +1,24 @@
+package br.com.claro.testeclaro.repository;
+
+import br.com.claro.testeclaro.model.entity.CepCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CepCacheRepository extends JpaRepository<CepCache, String> {
+
+    /**
+     * Remove o endereço de um CEP que o ViaCEP passou a informar como
+     * inexistente, sem falhar caso ele já tenha sido removido.
+     *
+     * @return quantidade de CEPs removidos (0 ou 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from CepCache c where c.cep = :cep")
+    int deleteByCep(String cep);
+
+}
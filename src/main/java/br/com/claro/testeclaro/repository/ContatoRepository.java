@@ -1,10 +1,93 @@
 package br.com.claro.testeclaro.repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import br.com.claro.testeclaro.model.ContagemCidade;
+import br.com.claro.testeclaro.model.ContagemDia;
+import br.com.claro.testeclaro.model.GrupoContato;
 import br.com.claro.testeclaro.model.entity.Contato;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface ContatoRepository extends JpaRepository<Contato, String> {
+public interface ContatoRepository extends JpaRepository<Contato, String>, ContatoRepositoryCustom {
+
+    /**
+     * Paginação por OFFSET, sem a consulta de contagem do total de registros.
+     */
+    Slice<Contato> findAllBy(Pageable pageable);
+
+    /**
+     * Contatos com o endereço pendente cuja próxima tentativa de preenchimento já
+     * pode ser feita, dos mais antigos para os mais recentes.
+     */
+    List<Contato> findByEnderecoPendenteTrueAndProximaTentativaEnderecoLessThanEqualOrderByProximaTentativaEndereco(
+            Date agora, Pageable pageable);
+
+    /**
+     * E-mails informados que já estão cadastrados, sem carregar os contatos.
+     */
+    @Query("select c.email from Contato c where c.email in :emails")
+    List<String> findEmailsCadastrados(Collection<String> emails);
+
+
+    /**
+     * Quantidade de contatos por UF e cidade, agrupada pela base de dados. Os
+     * contatos sem endereço formam o grupo com UF e cidade nulas.
+     */
+    @Query("select new br.com.claro.testeclaro.model.ContagemCidade(c.uf, c.cidade, count(c)) "
+            + "from Contato c group by c.uf, c.cidade")
+    List<ContagemCidade> contarPorCidade();
+
+    /**
+     * Quantidade de contatos por dia de cadastro, agrupada pela base de dados.
+     */
+    @Query("select new br.com.claro.testeclaro.model.ContagemDia(cast(c.dataCadastro as date), count(c)) "
+            + "from Contato c where c.dataCadastro is not null group by cast(c.dataCadastro as date)")
+    List<ContagemDia> contarPorDia();
+
+    /**
+     * CEPs distintos dos contatos, sem máscara, do mais frequente para o menos
+     * frequente, agrupados pela base de dados. O CEP é gravado como foi
+     * informado no cadastro, então a máscara é removida antes de agrupar.
+     */
+    @Query("select function('replace', c.cep, '-', '') from Contato c where c.cep is not null "
+            + "group by function('replace', c.cep, '-', '') order by count(c) desc")
+    List<String> findCepsMaisFrequentes(Pageable pageable);
+
+    /**
+     * Campos usados nas estatísticas dos contatos informados, sem carregar os
+     * contatos.
+     */
+    @Query("select new br.com.claro.testeclaro.model.GrupoContato(c.uf, c.cidade, c.dataCadastro) "
+            + "from Contato c where c.email in :emails")
+    List<GrupoContato> findGrupos(Collection<String> emails);
+
+    /**
+     * Exclui o contato com um único DELETE, sem carregá-lo antes.
+     *
+     * @return quantidade de contatos excluídos (0 ou 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Contato c where c.email = :email")
+    int deleteByEmail(String email);
+
+    /**
+     * Exclui os contatos informados com um único DELETE, sem carregá-los antes.
+     *
+     * @return quantidade de contatos excluídos
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Contato c where c.email in :emails")
+    int deleteByEmailIn(Collection<String> emails);
 
 }
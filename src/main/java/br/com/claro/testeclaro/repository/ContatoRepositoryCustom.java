@@ -0,0 +1,27 @@
+package br.com.claro.testeclaro.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import br.com.claro.testeclaro.model.Cursor;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.entity.Contato;
+
+public interface ContatoRepositoryCustom {
+
+    List<Contato> findPage(String campo, boolean crescente, Cursor depoisDe, int limite);
+
+    List<Contato> search(FiltroContatos filtro, Cursor depoisDe, int limite);
+
+    Stream<Contato> streamAll(int fetchSize);
+
+    void insertAll(List<Contato> contatos);
+
+    Contato update(Contato contato);
+
+    int update(String email, Map<String, Object> campos, Long versao);
+
+    int[] updateEnderecos(List<Contato> contatos);
+
+}
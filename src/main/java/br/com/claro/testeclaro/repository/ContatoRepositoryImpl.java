@@ -0,0 +1,293 @@
+package br.com.claro.testeclaro.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.claro.testeclaro.model.Cursor;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.util.NomeUtils;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ContatoRepositoryImpl implements ContatoRepositoryCustom {
+    private static final String EMAIL = "email";
+    private static final String VERSAO = "versao";
+    private static final String NOME = "nome";
+    private static final String NOME_BUSCA = "nomeBusca";
+    private static final String UPDATE_ENDERECO = "update contato set endereco = ?, cidade = ?, uf = ?,"
+            + " endereco_pendente = ?, tentativas_endereco = ?, proxima_tentativa_endereco = ?, versao = versao + 1"
+            + " where email = ? and versao = ?";
+
+    private final EntityManager entityManager;
+
+    /**
+     * Paginação por cursor (keyset): em vez de descartar os registros anteriores
+     * com OFFSET, a consulta filtra os registros posteriores ao último registro
+     * da página anterior, usando o índice do campo ordenado. O custo de uma
+     * página é o mesmo em qualquer posição da listagem.
+     *
+     * @param campo     campo de texto usado na ordenação, desempatado pelo e-mail
+     * @param crescente direção da ordenação
+     * @param depoisDe  último registro da página anterior, ou {@code null} para a
+     *                  primeira página
+     * @param limite    quantidade máxima de registros
+     * @return contatos da página, somente para leitura
+     */
+    @Override
+    public List<Contato> findPage(String campo, boolean crescente, Cursor depoisDe, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Contato> query = cb.createQuery(Contato.class);
+        Root<Contato> contato = query.from(Contato.class);
+        Path<String> email = contato.get(EMAIL);
+        Path<String> ordenado = contato.get(campo);
+
+        if (depoisDe != null) {
+            Predicate depoisDoEmail = crescente
+                    ? cb.greaterThan(email, depoisDe.getEmail())
+                    : cb.lessThan(email, depoisDe.getEmail());
+            if (EMAIL.equals(campo)) {
+                query.where(depoisDoEmail);
+            } else {
+                Predicate depoisDoValor = crescente
+                        ? cb.greaterThan(ordenado, depoisDe.getValor())
+                        : cb.lessThan(ordenado, depoisDe.getValor());
+                query.where(cb.or(depoisDoValor, cb.and(cb.equal(ordenado, depoisDe.getValor()), depoisDoEmail)));
+            }
+        }
+
+        if (EMAIL.equals(campo)) {
+            query.orderBy(crescente ? cb.asc(email) : cb.desc(email));
+        } else {
+            query.orderBy(crescente ? cb.asc(ordenado) : cb.desc(ordenado),
+                    crescente ? cb.asc(email) : cb.desc(email));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    /**
+     * Percorre todos os contatos, ordenados pelo e-mail, com um cursor somente
+     * para frente: o driver JDBC busca {@code fetchSize} registros por vez e cada
+     * contato é desanexado do contexto de persistência assim que é lido, então a
+     * memória usada não depende da quantidade de registros. Deve ser consumido
+     * dentro de uma transação e fechado ao final.
+     *
+     * @param fetchSize quantidade de registros buscados por vez pelo driver
+     * @return contatos desanexados
+     */
+    @Override
+    public Stream<Contato> streamAll(int fetchSize) {
+        return entityManager.createQuery("select c from Contato c order by c.email", Contato.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    /**
+     * Insere novos contatos em uma única transação. Diferente do
+     * {@code saveAll}, não consulta a base de dados antes de cada inserção para
+     * saber se o contato já existe, então os INSERTs são agrupados pelo driver
+     * JDBC conforme {@code hibernate.jdbc.batch_size}. O contexto de persistência
+     * é esvaziado ao final, para que lotes seguintes não acumulem entidades em
+     * memória.
+     *
+     * @param contatos contatos que ainda não estão cadastrados
+     */
+    @Override
+    @Transactional
+    public void insertAll(List<Contato> contatos) {
+        for (Contato contato : contatos) {
+            entityManager.persist(contato);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Grava as alterações de um contato já cadastrado com um único UPDATE. O
+     * {@code save} de um contato desanexado usa o {@code merge}, que consulta o
+     * contato antes de alterá-lo; aqui o contato é reanexado à sessão sem
+     * consulta, e o UPDATE verifica a versão do contato.
+     *
+     * @param contato contato já cadastrado, lido fora desta transação
+     * @return o próprio contato, com a nova versão
+     */
+    @Override
+    @Transactional
+    public Contato update(Contato contato) {
+        entityManager.unwrap(Session.class).update(contato);
+        entityManager.flush();
+        return contato;
+    }
+
+    /**
+     * Altera somente os campos informados, com um UPDATE que não lê o contato
+     * antes e não regrava as demais colunas. Como o UPDATE não passa pelo
+     * contexto de persistência, a versão e o nome usado na busca são
+     * atualizados aqui.
+     *
+     * @param email  chave do contato
+     * @param campos valores por nome do atributo
+     * @param versao versão esperada do contato, ou {@code null} para alterar
+     *               qualquer versão
+     * @return quantidade de contatos alterados (0 ou 1)
+     */
+    @Override
+    @Transactional
+    public int update(String email, Map<String, Object> campos, Long versao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Contato> update = cb.createCriteriaUpdate(Contato.class);
+        Root<Contato> contato = update.from(Contato.class);
+        Path<Long> versaoAtual = contato.get(VERSAO);
+
+        campos.forEach(update::set);
+        if (campos.containsKey(NOME)) {
+            update.set(NOME_BUSCA, NomeUtils.normalize((String) campos.get(NOME)));
+        }
+        update.set(versaoAtual, cb.sum(versaoAtual, 1L));
+        Predicate doEmail = cb.equal(contato.get(EMAIL), email);
+        update.where(versao == null ? doEmail : cb.and(doEmail, cb.equal(versaoAtual, versao)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Grava os campos de endereço dos contatos em uma única transação, com um
+     * lote JDBC de UPDATEs condicionados à versão de cada contato. Um contato
+     * alterado ou excluído desde a leitura não é gravado, sem impedir a gravação
+     * dos demais. Como o UPDATE não passa pelo contexto de persistência, os
+     * contatos alterados são removidos do cache de segundo nível.
+     *
+     * @param contatos contatos lidos da base de dados, já com o endereço
+     * @return quantidade de linhas alteradas por contato, na mesma ordem (0 ou 1)
+     */
+    @Override
+    @Transactional
+    public int[] updateEnderecos(List<Contato> contatos) {
+        if (contatos.isEmpty()) {
+            return new int[0];
+        }
+        int[] alterados = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_ENDERECO)) {
+                for (Contato contato : contatos) {
+                    statement.setString(1, contato.getEndereco());
+                    statement.setString(2, contato.getCidade());
+                    statement.setString(3, contato.getUf());
+                    statement.setBoolean(4, contato.isEnderecoPendente());
+                    statement.setInt(5, contato.getTentativasEndereco());
+                    if (contato.getProximaTentativaEndereco() == null) {
+                        statement.setNull(6, Types.TIMESTAMP);
+                    } else {
+                        statement.setTimestamp(6, new Timestamp(contato.getProximaTentativaEndereco().getTime()));
+                    }
+                    statement.setString(7, contato.getEmail());
+                    statement.setLong(8, contato.getVersao());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (int i = 0; i < contatos.size(); i++) {
+            if (alterados[i] > 0) {
+                cache.evict(Contato.class, contatos.get(i).getEmail());
+            }
+        }
+        return alterados;
+    }
+
+    /**
+     * Busca os contatos pelos filtros informados, com paginação por cursor. Cada
+     * filtro usa o índice da sua coluna, que também ordena os contatos pelo
+     * e-mail. Com o filtro pelo nome, os contatos são ordenados pelo nome
+     * normalizado e desempatados pelo e-mail, na mesma ordem do índice.
+     * <p>
+     * A UF tem poucos valores distintos: sem a cidade ou o CEP, que são mais
+     * seletivos, a ordenação começa pela UF filtrada. O resultado é o mesmo, mas
+     * a base de dados reconhece a ordem dos índices {@code (uf, email)} e
+     * {@code (uf, nome_busca, email)} e lê somente a página, em vez de ordenar
+     * todos os contatos da UF.
+     *
+     * @param filtro   filtros já normalizados: nome em minúsculas, UF em
+     *                 maiúsculas e CEP sem máscara
+     * @param depoisDe último registro da página anterior, ou {@code null} para a
+     *                 primeira página
+     * @param limite   quantidade máxima de registros
+     * @return contatos da página, somente para leitura
+     */
+    @Override
+    public List<Contato> search(FiltroContatos filtro, Cursor depoisDe, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Contato> query = cb.createQuery(Contato.class);
+        Root<Contato> contato = query.from(Contato.class);
+        Path<String> email = contato.get(EMAIL);
+        Path<String> nomeBusca = contato.get(NOME_BUSCA);
+        boolean porNome = filtro.getNome() != null;
+
+        List<Predicate> filtros = new ArrayList<>();
+        if (porNome) {
+            filtros.add(cb.like(nomeBusca, escaparLike(filtro.getNome()) + "%", '\\'));
+        }
+        if (filtro.getCidade() != null) {
+            filtros.add(cb.equal(contato.get("cidade"), filtro.getCidade()));
+        }
+        if (filtro.getUf() != null) {
+            filtros.add(cb.equal(contato.get("uf"), filtro.getUf()));
+        }
+        if (filtro.getCep() != null) {
+            // o CEP é gravado como foi informado no cadastro, com ou sem máscara
+            String cep = filtro.getCep();
+            filtros.add(contato.get("cep").in(cep, cep.substring(0, 5) + "-" + cep.substring(5)));
+        }
+        if (depoisDe != null) {
+            Predicate depoisDoEmail = cb.greaterThan(email, depoisDe.getEmail());
+            filtros.add(porNome
+                    ? cb.or(cb.greaterThan(nomeBusca, depoisDe.getValor()),
+                            cb.and(cb.equal(nomeBusca, depoisDe.getValor()), depoisDoEmail))
+                    : depoisDoEmail);
+        }
+
+        query.where(filtros.toArray(new Predicate[0]));
+        List<Order> ordem = new ArrayList<>();
+        if (filtro.getUf() != null && filtro.getCidade() == null && filtro.getCep() == null) {
+            ordem.add(cb.asc(contato.get("uf")));
+        }
+        if (porNome) {
+            ordem.add(cb.asc(nomeBusca));
+        }
+        ordem.add(cb.asc(email));
+        query.orderBy(ordem);
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
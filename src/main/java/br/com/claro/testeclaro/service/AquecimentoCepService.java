@@ -0,0 +1,7 @@
+package br.com.claro.testeclaro.service;
+
+public interface AquecimentoCepService {
+
+    boolean aquecer();
+
+}
@@ -0,0 +1,24 @@
+package br.com.claro.testeclaro.service;
+
+import java.util.Optional;
+
+import br.com.claro.testeclaro.model.Endereco;
+
+/**
+ * Base de CEPs consultada sem sair da aplicação, antes do ViaCEP. As
+ * implementações são imutáveis: uma nova versão da base é carregada em outra
+ * instância e substitui a anterior.
+ */
+public interface BaseCepLocal {
+    /**
+     * @param cep os 8 dígitos do CEP, já normalizado
+     * @return um novo {@link Endereco} a cada chamada, ou vazio caso o CEP não
+     *         esteja na base
+     */
+    Optional<Endereco> buscar(String cep);
+
+    /**
+     * @return quantidade de CEPs na base
+     */
+    int tamanho();
+}
@@ -1,23 +1,54 @@
 package br.com.claro.testeclaro.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.FormatoExportacao;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.ResultadoExclusao;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
 import br.com.claro.testeclaro.model.entity.Contato;
+import reactor.core.publisher.Mono;
 
 public interface ContatoService {
 
 	Optional<Contato> save(Contato contato);
 
+	Mono<Contato> saveAsync(Contato contato);
+
+	ResultadoImportacao importar(InputStream in, Charset charset, FormatoImportacao formato) throws IOException;
+
 	List<Contato> findAll();
 
+	Pagina<Contato> findAll(Integer page, String cursor, Integer size, String sort);
+
+	Pagina<Contato> buscar(FiltroContatos filtro, String cursor, Integer size);
+
+	long exportar(OutputStream out, FormatoExportacao formato) throws IOException;
+
+	EstatisticasContatos estatisticas();
+
 	Optional<Contato> findById(String email);
 
-	Optional<Contato> delete(String email);
+	boolean delete(String email);
+
+	ResultadoExclusao deleteAll(Collection<String> emails);
 
 	Optional<Contato> update(String email, Contato contato);
 
+	Optional<Contato> update(String email, Contato contato, String ifMatch);
+
 	Optional<Contato> patchUpdate(String email, Map<Object, Object> campos);
 
+	Optional<Contato> patchUpdate(String email, Map<Object, Object> campos, String ifMatch);
+
 }
@@ -1,7 +1,10 @@
 package br.com.claro.testeclaro.service;
 
 import br.com.claro.testeclaro.model.Endereco;
+import reactor.core.publisher.Mono;
 
 public interface EnderecoService {
 	Endereco findByCEP(String cep);
+
+	Mono<Endereco> findByCEPAsync(String cep);
 }
@@ -0,0 +1,11 @@
+package br.com.claro.testeclaro.service;
+
+public interface EnriquecimentoEnderecoService {
+
+    boolean isHabilitado();
+
+    boolean agendar(String email);
+
+    int agendarPendentes();
+
+}
@@ -0,0 +1,16 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.GrupoContato;
+
+public interface EstatisticasContatosService {
+
+    EstatisticasContatos consultar();
+
+    boolean isIncremental();
+
+    void registrar(GrupoContato anterior, GrupoContato atual);
+
+    void reconciliar();
+
+}
@@ -0,0 +1,224 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.AquecimentoCepService;
+import br.com.claro.testeclaro.service.EnderecoService;
+import br.com.claro.testeclaro.util.CepUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Preenche o cache de CEPs na inicialização com os CEPs mais frequentes dos
+ * contatos cadastrados, para que as primeiras gravações após um deploy não
+ * aguardem o ViaCEP. Habilitado por {@code viacep.warmup.enabled}.
+ * <p>
+ * As consultas são feitas como um {@link ApplicationRunner}, depois de o
+ * servidor iniciar e antes de a aplicação ser informada como pronta
+ * ({@code /actuator/health/readiness}): a aplicação só recebe tráfego após
+ * todas as consultas terminarem ou após {@code viacep.warmup.timeout}; nesse
+ * caso, as consultas restantes continuam em segundo plano.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "viacep.warmup", name = "enabled", havingValue = "true")
+public class AquecimentoCepServiceImpl implements AquecimentoCepService, ApplicationRunner {
+    /**
+     * Consultas feitas no aquecimento, com a tag {@code outcome}.
+     */
+    static final String METRICA_CONSULTAS = "viacep.warmup.lookups";
+    /**
+     * Duração do aquecimento, com a tag {@code outcome} ({@code completed},
+     * {@code timeout} ou {@code failed}).
+     */
+    static final String METRICA_DURACAO = "viacep.warmup";
+
+    private final EnderecoService enderecoService;
+    private final ContatoRepository repository;
+    private final ViaCepProperties.Warmup properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter encontrados;
+    private final Counter naoEncontrados;
+    private final Counter falhas;
+    /**
+     * CEPs selecionados no último aquecimento.
+     */
+    private final AtomicInteger ceps = new AtomicInteger();
+
+    public AquecimentoCepServiceImpl(EnderecoService enderecoService, ContatoRepository repository,
+                                     ViaCepProperties properties, MeterRegistry meterRegistry) {
+        this.enderecoService = enderecoService;
+        this.repository = repository;
+        this.properties = properties.getWarmup();
+        this.meterRegistry = meterRegistry;
+        this.encontrados = contador(meterRegistry, EnderecoServiceImpl.ENCONTRADO);
+        this.naoEncontrados = contador(meterRegistry, EnderecoServiceImpl.NAO_ENCONTRADO);
+        this.falhas = contador(meterRegistry, EnderecoServiceImpl.ERRO);
+        Gauge.builder("viacep.warmup.ceps", ceps, AtomicInteger::get)
+                .description("CEPs selecionados para o aquecimento do cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        aquecer();
+    }
+
+    /**
+     * Consulta os {@code viacep.warmup.max-ceps} CEPs mais frequentes, no máximo
+     * {@code viacep.warmup.concurrency} por vez, e aguarda as consultas por até
+     * {@code viacep.warmup.timeout}. CEPs inexistentes e falhas do ViaCEP são
+     * apenas contados: o aquecimento nunca impede a inicialização. O progresso é
+     * registrado no log a cada {@code viacep.warmup.progress-every} CEPs e a cada
+     * {@code viacep.warmup.progress-interval}, inclusive depois do tempo máximo,
+     * enquanto houver consultas em segundo plano.
+     *
+     * @return {@code true} caso todas as consultas tenham terminado dentro do
+     *         tempo máximo
+     */
+    @Override
+    public boolean aquecer() {
+        long inicio = System.nanoTime();
+        Set<String> selecionados = new LinkedHashSet<>();
+        try {
+            for (String cep : repository.findCepsMaisFrequentes(PageRequest.of(0, properties.getMaxCeps()))) {
+                String cepNormalizado = CepUtils.normalize(cep);
+                if (cepNormalizado != null) {
+                    selecionados.add(cepNormalizado);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Aquecimento do cache de CEPs ignorado: falha ao consultar os contatos", e);
+            registrarDuracao("failed", inicio);
+            return false;
+        }
+        ceps.set(selecionados.size());
+        log.info("Aquecendo o cache de CEPs com {} CEPs ({} consultas simultâneas)", selecionados.size(),
+                properties.getConcurrency());
+
+        double encontradosAntes = encontrados.count();
+        double naoEncontradosAntes = naoEncontrados.count();
+        double falhasAntes = falhas.count();
+        Progresso progresso = new Progresso(selecionados.size(), properties.getProgressEvery());
+        Disposable relatorio = Flux.interval(properties.getProgressInterval())
+                .subscribe(tick -> progresso.registrar());
+        String resultado;
+        try {
+            Flux.fromIterable(selecionados)
+                    .flatMap(cep -> consultar(cep, progresso), properties.getConcurrency())
+                    .doFinally(sinal -> relatorio.dispose())
+                    .then()
+                    .toFuture()
+                    .get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            resultado = "completed";
+        } catch (TimeoutException e) {
+            resultado = "timeout";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado = "failed";
+        } catch (ExecutionException e) {
+            resultado = "failed";
+        }
+        long duracao = registrarDuracao(resultado, inicio);
+        log.info("Aquecimento do cache de CEPs encerrado em {} ms ({}): {} encontrados, {} inexistentes e {} falhas"
+                        + " de {} CEPs", duracao, resultado, (long) (encontrados.count() - encontradosAntes),
+                (long) (naoEncontrados.count() - naoEncontradosAntes), (long) (falhas.count() - falhasAntes),
+                selecionados.size());
+        return "completed".equals(resultado);
+    }
+
+    private Mono<Void> consultar(String cep, Progresso progresso) {
+        return enderecoService.findByCEPAsync(cep)
+                .doOnSuccess(endereco -> {
+                    encontrados.increment();
+                    progresso.aquecido();
+                })
+                .doOnError(ResponseStatusException.class, e -> {
+                    naoEncontrados.increment();
+                    progresso.aquecido();
+                })
+                .doOnError(e -> !(e instanceof ResponseStatusException), e -> {
+                    falhas.increment();
+                    progresso.falha();
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private long registrarDuracao(String resultado, long inicio) {
+        long duracao = System.nanoTime() - inicio;
+        Timer.builder(METRICA_DURACAO)
+                .description("Duração do aquecimento do cache de CEPs")
+                .tag("outcome", resultado)
+                .register(meterRegistry)
+                .record(duracao, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(duracao);
+    }
+
+    /**
+     * Progresso de um aquecimento: CEPs consultados, com ou sem endereço, e falhas
+     * do ViaCEP.
+     */
+    private static final class Progresso {
+        private final int total;
+        private final int intervalo;
+        private final AtomicInteger aquecidos = new AtomicInteger();
+        private final AtomicInteger falhas = new AtomicInteger();
+        private final AtomicInteger concluidos = new AtomicInteger();
+
+        private Progresso(int total, int intervalo) {
+            this.total = total;
+            this.intervalo = Math.max(intervalo, 1);
+        }
+
+        private void aquecido() {
+            aquecidos.incrementAndGet();
+            concluido();
+        }
+
+        private void falha() {
+            falhas.incrementAndGet();
+            concluido();
+        }
+
+        private void concluido() {
+            int quantidade = concluidos.incrementAndGet();
+            if (quantidade % intervalo == 0 && quantidade < total) {
+                registrar();
+            }
+        }
+
+        private void registrar() {
+            log.info("Aquecimento do cache de CEPs em andamento: {} de {} CEPs consultados ({} aquecidos e {} falhas)",
+                    concluidos.get(), total, aquecidos.get(), falhas.get());
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder(METRICA_CONSULTAS)
+                .description("Consultas de CEP feitas no aquecimento do cache")
+                .tag("outcome", resultado)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,172 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.BaseCepLocal;
+
+/**
+ * Base local de CEPs lida diretamente de um índice binário mapeado em memória
+ * ({@link FileChannel#map}), gerado pelo {@link GeradorIndiceCep}. Nada é
+ * copiado para o heap na abertura, e as páginas do arquivo ficam no cache do
+ * sistema operacional, compartilhadas entre as instâncias da aplicação no mesmo
+ * servidor.
+ * <p>
+ * Formato do índice (inteiros big-endian):
+ * <pre>
+ * cabeçalho   magic (4) | formato (4) | versão da base (8) | CEPs (4) | textos (4) | CRC32 do restante (8)
+ * CEPs        CEPs ordenados, 4 bytes cada
+ * registros   índices do logradouro, bairro, localidade e UF de cada CEP, 16 bytes cada
+ * offsets     início de cada texto no pool, mais o fim do último, 4 bytes cada
+ * pool        textos em UTF-8
+ * </pre>
+ */
+public final class BaseCepMapeada implements BaseCepLocal {
+    static final int MAGIC = 0x43455049;
+    static final int FORMATO = 1;
+    static final int TAMANHO_CABECALHO = 32;
+    static final int TAMANHO_REGISTRO = 16;
+
+    private final ByteBuffer buffer;
+    private final long versao;
+    private final int tamanho;
+    private final int inicioRegistros;
+    private final int inicioOffsets;
+    private final int inicioPool;
+
+    private BaseCepMapeada(ByteBuffer buffer, long versao, int tamanho, int textos) {
+        this.buffer = buffer;
+        this.versao = versao;
+        this.tamanho = tamanho;
+        this.inicioRegistros = TAMANHO_CABECALHO + tamanho * 4;
+        this.inicioOffsets = inicioRegistros + tamanho * TAMANHO_REGISTRO;
+        this.inicioPool = inicioOffsets + (textos + 1) * 4;
+    }
+
+    /**
+     * Mapeia o índice em memória, após conferir o formato, o tamanho e o
+     * checksum do arquivo.
+     *
+     * @param arquivo índice gerado pelo {@link GeradorIndiceCep}
+     * @return base com os CEPs do índice
+     * @throws IOException caso o arquivo não possa ser lido, não seja um índice
+     *                     de CEPs, seja de outro formato ou esteja corrompido
+     */
+    public static BaseCepMapeada abrir(Path arquivo) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (channel.size() < TAMANHO_CABECALHO || channel.size() > Integer.MAX_VALUE) {
+                throw invalido(arquivo, "tamanho inválido");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw invalido(arquivo, "o arquivo não é um índice de CEPs");
+        }
+        if (buffer.getInt(4) != FORMATO) {
+            throw invalido(arquivo, "formato " + buffer.getInt(4) + " não suportado");
+        }
+        int tamanho = buffer.getInt(16);
+        int textos = buffer.getInt(20);
+        long inicioPool = TAMANHO_CABECALHO + (4L + TAMANHO_REGISTRO) * tamanho + 4L * (textos + 1L);
+        if (tamanho < 0 || textos < 0 || inicioPool > buffer.capacity()) {
+            throw invalido(arquivo, "tamanho inválido");
+        }
+        BaseCepMapeada base = new BaseCepMapeada(buffer, buffer.getLong(8), tamanho, textos);
+        if (inicioPool + base.offset(textos) != buffer.capacity()) {
+            throw invalido(arquivo, "tamanho inválido");
+        }
+        if (checksum(buffer) != buffer.getLong(24)) {
+            throw invalido(arquivo, "checksum inválido");
+        }
+        return base;
+    }
+
+    @Override
+    public Optional<Endereco> buscar(String cep) {
+        int i = posicao(Integer.parseInt(cep));
+        if (i < 0) {
+            return Optional.empty();
+        }
+        int registro = inicioRegistros + i * TAMANHO_REGISTRO;
+        Endereco endereco = new Endereco();
+        endereco.setCep(cep.substring(0, 5) + "-" + cep.substring(5));
+        endereco.setLogradouro(texto(buffer.getInt(registro)));
+        endereco.setBairro(texto(buffer.getInt(registro + 4)));
+        endereco.setLocalidade(texto(buffer.getInt(registro + 8)));
+        endereco.setUf(texto(buffer.getInt(registro + 12)));
+        return Optional.of(endereco);
+    }
+
+    @Override
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return versão da base informada na geração do índice
+     */
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * CRC32 de tudo o que vem após o cabeçalho.
+     */
+    static long checksum(ByteBuffer buffer) {
+        ByteBuffer conteudo = buffer.duplicate();
+        ((Buffer) conteudo).position(TAMANHO_CABECALHO);
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        return crc.getValue();
+    }
+
+    /**
+     * Busca binária nos CEPs do arquivo, sem copiá-los.
+     */
+    private int posicao(int cep) {
+        int inicio = 0;
+        int fim = tamanho - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            int atual = buffer.getInt(TAMANHO_CABECALHO + meio * 4);
+            if (atual < cep) {
+                inicio = meio + 1;
+            } else if (atual > cep) {
+                fim = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
+    }
+
+    private int offset(int texto) {
+        return buffer.getInt(inicioOffsets + texto * 4);
+    }
+
+    private String texto(int texto) {
+        int inicio = offset(texto);
+        byte[] bytes = new byte[offset(texto + 1) - inicio];
+        // cópia própria do buffer, para que as consultas simultâneas não
+        // compartilhem a posição de leitura
+        ByteBuffer pool = buffer.duplicate();
+        ((Buffer) pool).position(inicioPool + inicio);
+        pool.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static IOException invalido(Path arquivo, String motivo) {
+        return new IOException("Índice de CEPs " + arquivo + " inválido: " + motivo);
+    }
+
+}
@@ -0,0 +1,192 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.BaseCepLocal;
+
+/**
+ * Base local de CEPs mantida no heap em arrays de tipos primitivos, sem um
+ * objeto por CEP: os CEPs ficam ordenados em um {@code int[]} e são consultados
+ * por busca binária, e o logradouro, o bairro, a localidade e a UF são índices
+ * em dicionários, então cada texto repetido (bairros, cidades, UFs) é mantido
+ * uma única vez.
+ */
+public final class BaseCepMemoria implements BaseCepLocal {
+    private final int[] ceps;
+    private final int[] logradouros;
+    private final int[] bairros;
+    private final int[] localidades;
+    private final byte[] ufs;
+    /**
+     * Dicionário do logradouro, do bairro e da localidade.
+     */
+    private final String[] textos;
+    private final String[] siglas;
+
+    private BaseCepMemoria(int[] ceps, int[] logradouros, int[] bairros, int[] localidades, byte[] ufs,
+                           String[] textos, String[] siglas) {
+        this.ceps = ceps;
+        this.logradouros = logradouros;
+        this.bairros = bairros;
+        this.localidades = localidades;
+        this.ufs = ufs;
+        this.textos = textos;
+        this.siglas = siglas;
+    }
+
+    /**
+     * Carrega a base a partir de um CSV no formato lido pelo {@link LeitorBaseCep}.
+     * Quando um CEP aparece mais de uma vez, vale a última linha.
+     *
+     * @param arquivo CSV da base de CEPs
+     * @return base com os CEPs do arquivo
+     * @throws IOException caso o arquivo não possa ser lido ou tenha uma linha
+     *                     inválida
+     */
+    public static BaseCepMemoria carregar(Path arquivo) throws IOException {
+        Construtor construtor = new Construtor();
+        try (LeitorBaseCep leitor = LeitorBaseCep.abrir(arquivo)) {
+            while (leitor.proximo()) {
+                construtor.adicionar(leitor);
+            }
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * @param cep os 8 dígitos do CEP, já normalizado
+     */
+    @Override
+    public Optional<Endereco> buscar(String cep) {
+        int i = Arrays.binarySearch(ceps, Integer.parseInt(cep));
+        if (i < 0) {
+            return Optional.empty();
+        }
+        Endereco endereco = new Endereco();
+        endereco.setCep(cep.substring(0, 5) + "-" + cep.substring(5));
+        endereco.setLogradouro(textos[logradouros[i]]);
+        endereco.setBairro(textos[bairros[i]]);
+        endereco.setLocalidade(textos[localidades[i]]);
+        endereco.setUf(siglas[ufs[i]]);
+        return Optional.of(endereco);
+    }
+
+    @Override
+    public int tamanho() {
+        return ceps.length;
+    }
+
+    // leitura posicional, na ordem dos CEPs, usada na geração do índice binário
+
+    int cep(int i) {
+        return ceps[i];
+    }
+
+    String logradouro(int i) {
+        return textos[logradouros[i]];
+    }
+
+    String bairro(int i) {
+        return textos[bairros[i]];
+    }
+
+    String localidade(int i) {
+        return textos[localidades[i]];
+    }
+
+    String uf(int i) {
+        return siglas[ufs[i]];
+    }
+
+    /**
+     * Acumula as linhas do arquivo na ordem em que são lidas; a ordenação por CEP
+     * é feita uma única vez, ao final.
+     */
+    private static final class Construtor {
+        private int tamanho;
+        private int[] ceps = new int[1024];
+        private int[] logradouros = new int[1024];
+        private int[] bairros = new int[1024];
+        private int[] localidades = new int[1024];
+        private byte[] ufs = new byte[1024];
+        private final Map<String, Integer> indiceTextos = new HashMap<>();
+        private final List<String> textos = new ArrayList<>();
+        private final Map<String, Integer> indiceSiglas = new HashMap<>();
+        private final List<String> siglas = new ArrayList<>();
+
+        void adicionar(LeitorBaseCep leitor) throws IOException {
+            if (tamanho == ceps.length) {
+                int capacidade = tamanho * 2;
+                ceps = Arrays.copyOf(ceps, capacidade);
+                logradouros = Arrays.copyOf(logradouros, capacidade);
+                bairros = Arrays.copyOf(bairros, capacidade);
+                localidades = Arrays.copyOf(localidades, capacidade);
+                ufs = Arrays.copyOf(ufs, capacidade);
+            }
+            int sigla = indice(leitor.getUf(), indiceSiglas, siglas);
+            if (sigla > Byte.MAX_VALUE) {
+                throw new IOException("Base de CEPs inválida: mais de " + Byte.MAX_VALUE + " UFs distintas");
+            }
+            ceps[tamanho] = leitor.getCep();
+            logradouros[tamanho] = indice(leitor.getLogradouro(), indiceTextos, textos);
+            bairros[tamanho] = indice(leitor.getBairro(), indiceTextos, textos);
+            localidades[tamanho] = indice(leitor.getLocalidade(), indiceTextos, textos);
+            ufs[tamanho] = (byte) sigla;
+            tamanho++;
+        }
+
+        BaseCepMemoria construir() {
+            // CEP (até 27 bits) nos bits altos e a linha nos baixos: a ordenação
+            // mantém as linhas de um mesmo CEP na ordem do arquivo
+            long[] ordem = new long[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                ordem[i] = (long) ceps[i] << 32 | i;
+            }
+            Arrays.sort(ordem);
+
+            int unicos = 0;
+            int[] linhas = new int[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                boolean repetido = i + 1 < tamanho && ordem[i + 1] >>> 32 == ordem[i] >>> 32;
+                if (!repetido) {
+                    linhas[unicos++] = (int) ordem[i];
+                }
+            }
+
+            int[] cepsOrdenados = new int[unicos];
+            int[] logradourosOrdenados = new int[unicos];
+            int[] bairrosOrdenados = new int[unicos];
+            int[] localidadesOrdenadas = new int[unicos];
+            byte[] ufsOrdenadas = new byte[unicos];
+            for (int i = 0; i < unicos; i++) {
+                int linha = linhas[i];
+                cepsOrdenados[i] = ceps[linha];
+                logradourosOrdenados[i] = logradouros[linha];
+                bairrosOrdenados[i] = bairros[linha];
+                localidadesOrdenadas[i] = localidades[linha];
+                ufsOrdenadas[i] = ufs[linha];
+            }
+            return new BaseCepMemoria(cepsOrdenados, logradourosOrdenados, bairrosOrdenados, localidadesOrdenadas,
+                    ufsOrdenadas, textos.toArray(new String[0]), siglas.toArray(new String[0]));
+        }
+
+        private static int indice(String texto, Map<String, Integer> indices, List<String> dicionario) {
+            Integer indice = indices.get(texto);
+            if (indice == null) {
+                indice = dicionario.size();
+                indices.put(texto, indice);
+                dicionario.add(texto);
+            }
+            return indice;
+        }
+    }
+
+}
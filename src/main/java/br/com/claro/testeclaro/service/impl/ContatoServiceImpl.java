@@ -1,28 +1,117 @@
 package br.com.claro.testeclaro.service.impl;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import br.com.claro.testeclaro.config.ContatoCacheProperties;
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.Cursor;
 import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.FormatoExportacao;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.GrupoContato;
+import br.com.claro.testeclaro.model.ItemImportacao;
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.ResultadoExclusao;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
 import br.com.claro.testeclaro.model.entity.Contato;
 import br.com.claro.testeclaro.repository.ContatoRepository;
 import br.com.claro.testeclaro.service.ContatoService;
 import br.com.claro.testeclaro.service.EnderecoService;
+import br.com.claro.testeclaro.service.EnriquecimentoEnderecoService;
+import br.com.claro.testeclaro.service.EstatisticasContatosService;
+import br.com.claro.testeclaro.util.CamposContato;
+import br.com.claro.testeclaro.util.CepUtils;
+import br.com.claro.testeclaro.util.CursorUtils;
+import br.com.claro.testeclaro.util.EmailUtils;
+import br.com.claro.testeclaro.util.EtagUtils;
+import br.com.claro.testeclaro.util.NomeUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @Service
 @RequiredArgsConstructor
 public class ContatoServiceImpl implements ContatoService {
+    private static final int TAMANHO_PADRAO_PAGINA = 20;
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+    private static final String EMAIL = "email";
+    private static final List<String> CAMPOS_ORDENACAO = Arrays.asList(EMAIL, "nome");
+    private static final CamposContato.Campo CEP = CamposContato.campo("cep");
+    private static final CamposContato.Campo DATA_CADASTRO = CamposContato.campo("dataCadastro");
+    private static final int FETCH_SIZE_EXPORTACAO = 1_000;
+    /**
+     * Quantidade de linhas da importação validadas, com os CEPs consultados e
+     * gravadas de uma só vez. Múltiplo de {@code hibernate.jdbc.batch_size}.
+     */
+    private static final int TAMANHO_LOTE_IMPORTACAO = 500;
+    /**
+     * Tempo de execução dos métodos do serviço, com as tags {@code class},
+     * {@code method} e {@code exception} do {@link Timed}.
+     */
+    static final String METRICA = "contatos.service";
+
     private final ContatoRepository repository;
     private final EnderecoService enderecoService;
+    private final Scheduler jdbcScheduler;
+    private final ViaCepProperties viaCepProperties;
+    private final EnriquecimentoEnderecoService enriquecimentoEnderecoService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Contato> contatoCache;
+    private final ContatoCacheProperties contatoCacheProperties;
+    private final EstatisticasContatosService estatisticasService;
 
     /**
      * Método chamado na
@@ -33,21 +122,273 @@ public class ContatoServiceImpl implements ContatoService {
      * @return Objeto contendo os dados do contato salvo
      */
     @Override
+    @Timed(METRICA)
     public Optional<Contato> save(Contato contato) {
+        return save(contato, null);
+    }
+
+    /**
+     * Salva o {@link Contato}, consultando o {@link EnderecoService} somente quando
+     * o CEP foi alterado em relação aos dados já salvos ou quando o endereço ainda
+     * não foi preenchido. Caso o ViaCEP esteja indisponível, o contato é salvo com
+     * o endereço pendente, conforme {@code viacep.degraded-mode}.
+     * <p>
+     * Com {@code contatos.enrichment.enabled}, um novo contato é salvo sem
+     * consultar o ViaCEP e o endereço é preenchido em segundo plano pelo
+     * {@link EnriquecimentoEnderecoService}.
+     *
+     * @param contato  Dados do contato que será salvo
+     * @param anterior Dados de endereço do contato já salvo na base de dados, ou
+     *                 {@code null} caso seja um novo contato
+     * @return Objeto contendo os dados do contato salvo
+     */
+    private Optional<Contato> save(Contato contato, Contato anterior) {
         if (StringUtils.isNotBlank(contato.getEmail())) {
-            Endereco endereco = enderecoService.findByCEP(contato.getCep());
-            contato.setEndereco(endereco.getLogradouro() + ", " + endereco.getBairro());
-            contato.setCidade(endereco.getLocalidade());
-            contato.setUf(endereco.getUf());
+            if (isEnderecoAtualizado(contato, anterior)) {
+                contato.setEndereco(anterior.getEndereco());
+                contato.setCidade(anterior.getCidade());
+                contato.setUf(anterior.getUf());
+                contato.setEnderecoPendente(false);
+            } else if (anterior == null && enriquecimentoEnderecoService.isHabilitado()) {
+                validarCep(contato.getCep());
+                limparEndereco(contato);
+            } else {
+                try {
+                    preencherEndereco(contato, enderecoService.findByCEP(contato.getCep()));
+                } catch (EnderecoIndisponivelException e) {
+                    marcarEnderecoPendente(contato, e);
+                }
+            }
 
             if (contato.getDataCadastro() == null) {
                 contato.setDataCadastro(new Date());
             }
         }
-        Contato salvo = repository.save(contato);
+        Contato salvo = gravar(contato, anterior);
+        if (salvo.isEnderecoPendente()) {
+            enriquecimentoEnderecoService.agendar(salvo.getEmail());
+        }
         return Optional.of(salvo);
     }
 
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para salvar
+     * o {@link Contato} preenchido sem bloquear a thread da requisição enquanto o
+     * endereço é consultado. A gravação na base de dados é feita no
+     * {@link Scheduler} reservado para operações JDBC. Com o preenchimento do
+     * endereço em segundo plano habilitado, o contato é somente gravado.
+     *
+     * @param contato Dados do contato preenchido no endpoint
+     * @return {@link Mono} com os dados do contato salvo
+     */
+    @Override
+    public Mono<Contato> saveAsync(Contato contato) {
+        return medir(salvarAsync(contato), "saveAsync");
+    }
+
+    private Mono<Contato> salvarAsync(Contato contato) {
+        if (StringUtils.isBlank(contato.getEmail())) {
+            return Mono.fromCallable(() -> repository.save(contato)).subscribeOn(jdbcScheduler);
+        }
+        if (enriquecimentoEnderecoService.isHabilitado()) {
+            return Mono.fromCallable(() -> save(contato, null).get()).subscribeOn(jdbcScheduler);
+        }
+        return enderecoService.findByCEPAsync(contato.getCep())
+                .map(endereco -> {
+                    preencherEndereco(contato, endereco);
+                    return contato;
+                })
+                .onErrorResume(EnderecoIndisponivelException.class, e -> {
+                    marcarEnderecoPendente(contato, e);
+                    return Mono.just(contato);
+                })
+                .publishOn(jdbcScheduler)
+                .map(preenchido -> {
+                    if (preenchido.getDataCadastro() == null) {
+                        preenchido.setDataCadastro(new Date());
+                    }
+                    Contato salvo = gravar(preenchido, null);
+                    if (salvo.isEnderecoPendente()) {
+                        enriquecimentoEnderecoService.agendar(salvo.getEmail());
+                    }
+                    return salvo;
+                });
+    }
+
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para
+     * importar contatos em lote.
+     * <p>
+     * As linhas são lidas e gravadas em lotes de
+     * {@value #TAMANHO_LOTE_IMPORTACAO}: cada lote é validado, os CEPs ainda não
+     * consultados na importação são consultados uma única vez, em paralelo, e os
+     * contatos válidos são inseridos em uma só transação. Um erro em uma linha não
+     * impede a importação das demais. Contatos já cadastrados ou repetidos no
+     * arquivo não são importados.
+     *
+     * @param in      arquivo com os contatos
+     * @param charset codificação do arquivo
+     * @param formato formato do arquivo
+     * @return resultado de cada linha importada
+     * @throws IOException             caso ocorra um erro ao ler o arquivo
+     * @throws ResponseStatusException caso o arquivo não esteja no formato
+     *                                 informado
+     */
+    @Override
+    @Timed(METRICA)
+    public ResultadoImportacao importar(InputStream in, Charset charset, FormatoImportacao formato) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        Map<String, ConsultaCep> consultas = new HashMap<>();
+        Set<String> emails = new HashSet<>();
+        try (LeitorImportacao leitor = LeitorImportacao.abrir(in, charset, formato, objectMapper)) {
+            List<LeitorImportacao.Linha> lote = new ArrayList<>(TAMANHO_LOTE_IMPORTACAO);
+            LeitorImportacao.Linha linha;
+            while ((linha = leitor.proxima()) != null) {
+                lote.add(linha);
+                if (lote.size() == TAMANHO_LOTE_IMPORTACAO) {
+                    importarLote(lote, consultas, emails, resultado);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                importarLote(lote, consultas, emails, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    private void importarLote(List<LeitorImportacao.Linha> lote, Map<String, ConsultaCep> consultas,
+                              Set<String> emails, ResultadoImportacao resultado) {
+        List<ItemImportacao> itens = new ArrayList<>(lote.size());
+        Map<ItemImportacao, Contato> validos = new IdentityHashMap<>();
+        for (LeitorImportacao.Linha linha : lote) {
+            Contato contato = linha.getContato();
+            ItemImportacao item = new ItemImportacao(linha.getNumero(), contato == null ? null : contato.getEmail());
+            itens.add(item);
+            if (contato == null) {
+                item.getErros().add(linha.getErro());
+                continue;
+            }
+            item.getErros().addAll(validator.validate(contato).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList()));
+            if (item.getErros().isEmpty() && !emails.add(contato.getEmail())) {
+                item.getErros().add("Contato repetido no arquivo");
+            }
+            if (item.getErros().isEmpty()) {
+                validos.put(item, contato);
+            }
+        }
+
+        if (!validos.isEmpty()) {
+            Set<String> cadastrados = new HashSet<>(repository.findEmailsCadastrados(
+                    validos.values().stream().map(Contato::getEmail).collect(Collectors.toList())));
+            validos.keySet().removeIf(item -> {
+                if (cadastrados.contains(item.getEmail())) {
+                    item.getErros().add("Contato já cadastrado");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        if (!enriquecimentoEnderecoService.isHabilitado()) {
+            consultarCeps(validos.values(), consultas);
+        }
+        validos.keySet().removeIf(item -> {
+            try {
+                preencherEnderecoImportacao(validos.get(item), consultas);
+                return false;
+            } catch (ResponseStatusException e) {
+                item.getErros().add(e.getReason());
+                return true;
+            }
+        });
+
+        inserir(validos);
+        for (ItemImportacao item : itens) {
+            resultado.adicionar(item);
+        }
+    }
+
+    /**
+     * Consulta, em paralelo, os CEPs do lote que ainda não foram consultados na
+     * importação. Metade das consultas simultâneas do bulkhead fica livre para os
+     * cadastros individuais.
+     */
+    private void consultarCeps(Iterable<Contato> contatos, Map<String, ConsultaCep> consultas) {
+        Set<String> ceps = new LinkedHashSet<>();
+        for (Contato contato : contatos) {
+            String cep = CepUtils.normalize(contato.getCep());
+            if (cep != null && !consultas.containsKey(cep)) {
+                ceps.add(cep);
+            }
+        }
+        int concorrencia = Math.max(1, viaCepProperties.getBulkhead().getMaxConcurrentCalls() / 2);
+        Flux.fromIterable(ceps)
+                .flatMap(cep -> enderecoService.findByCEPAsync(cep)
+                        .map(ConsultaCep::new)
+                        .onErrorResume(ResponseStatusException.class, e -> Mono.just(new ConsultaCep(e)))
+                        .map(consulta -> new AbstractMap.SimpleImmutableEntry<>(cep, consulta)), concorrencia)
+                .doOnNext(consulta -> consultas.put(consulta.getKey(), consulta.getValue()))
+                .blockLast();
+    }
+
+    private void preencherEnderecoImportacao(Contato contato, Map<String, ConsultaCep> consultas) {
+        contato.setDataCadastro(new Date());
+        validarCep(contato.getCep());
+        if (enriquecimentoEnderecoService.isHabilitado()) {
+            limparEndereco(contato);
+            return;
+        }
+        ConsultaCep consulta = consultas.get(CepUtils.normalize(contato.getCep()));
+        if (consulta == null) {
+            marcarEnderecoPendente(contato, new EnderecoIndisponivelException(null));
+        } else if (consulta.erro instanceof EnderecoIndisponivelException) {
+            marcarEnderecoPendente(contato, (EnderecoIndisponivelException) consulta.erro);
+        } else if (consulta.erro != null) {
+            throw consulta.erro;
+        } else {
+            preencherEndereco(contato, consulta.endereco);
+        }
+    }
+
+    /**
+     * Insere os contatos válidos do lote. Caso a inserção do lote falhe, por
+     * exemplo porque um dos contatos foi cadastrado durante a importação, os
+     * contatos são inseridos um a um para identificar as linhas com erro.
+     */
+    private void inserir(Map<ItemImportacao, Contato> validos) {
+        if (validos.isEmpty()) {
+            return;
+        }
+        try {
+            repository.insertAll(new ArrayList<>(validos.values()));
+        } catch (DataAccessException e) {
+            validos.entrySet().removeIf(valido -> {
+                try {
+                    repository.insertAll(Collections.singletonList(valido.getValue()));
+                    return false;
+                } catch (DataAccessException erro) {
+                    valido.getKey().getErros().add("Erro ao salvar contato");
+                    return true;
+                }
+            });
+        }
+        validos.forEach((item, contato) -> {
+            estatisticasService.registrar(null, GrupoContato.de(contato));
+            item.setImportado(true);
+            item.setEnderecoPendente(contato.isEnderecoPendente());
+            if (contato.isEnderecoPendente()) {
+                enriquecimentoEnderecoService.agendar(contato.getEmail());
+            }
+        });
+    }
+
     /**
      * Método chamado na
      * {@link br.com.claro.testeclaro.controller.api.ContatoController} para listar
@@ -56,14 +397,175 @@ public class ContatoServiceImpl implements ContatoService {
      * @return lista de contatos salvos
      */
     @Override
+    @Timed(METRICA)
     public List<Contato> findAll() {
         return repository.findAll();
     }
 
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para listar
+     * os contatos salvos em páginas.
+     * <p>
+     * Sem {@code page}, a listagem é paginada por cursor: a primeira página é
+     * obtida sem cursor e as seguintes informando o {@code proximoCursor} da
+     * página anterior, que também guarda a ordenação usada. Com {@code page}, a
+     * listagem é paginada por OFFSET, cujo custo cresce com o número da página.
+     *
+     * @param page   número da página, a partir de 0, na paginação por OFFSET
+     * @param cursor {@code proximoCursor} da página anterior
+     * @param size   quantidade de contatos por página, até
+     *               {@value #TAMANHO_MAXIMO_PAGINA}
+     * @param sort   campo de ordenação ({@code email} ou {@code nome}), seguido
+     *               opcionalmente de {@code ,asc} ou {@code ,desc}
+     * @return página de contatos
+     * @throws ResponseStatusException caso algum parâmetro seja inválido
+     */
+    @Override
+    @Timed(METRICA)
+    public Pagina<Contato> findAll(Integer page, String cursor, Integer size, String sort) {
+        int tamanho = tamanhoPagina(size);
+        if (page != null && (page < 0 || cursor != null)) {
+            throw paginacaoInvalida("informe uma página a partir de 0 ou o cursor");
+        }
+
+        Cursor depoisDe = cursor == null ? null : decodificarCursor(cursor);
+        Cursor ordenacao = depoisDe != null ? depoisDe : ordenacao(sort);
+        String campo = ordenacao.getCampo();
+        boolean crescente = ordenacao.isCrescente();
+
+        if (page != null) {
+            Sort.Direction direcao = crescente ? Sort.Direction.ASC : Sort.Direction.DESC;
+            Sort ordem = EMAIL.equals(campo) ? Sort.by(direcao, EMAIL) : Sort.by(direcao, campo, EMAIL);
+            Slice<Contato> contatos = repository.findAllBy(PageRequest.of(page, tamanho, ordem));
+            return new Pagina<>(contatos.getContent(), tamanho, page,
+                    contatos.hasNext() ? proximoCursor(contatos.getContent(), campo, crescente) : null);
+        }
+
+        List<Contato> contatos = repository.findPage(campo, crescente, depoisDe, tamanho + 1);
+        if (contatos.size() > tamanho) {
+            contatos = new ArrayList<>(contatos.subList(0, tamanho));
+            return new Pagina<>(contatos, tamanho, null, proximoCursor(contatos, campo, crescente));
+        }
+        return new Pagina<>(contatos, tamanho, null, null);
+    }
+
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para
+     * buscar contatos pelo início do nome, pela cidade, pela UF ou pelo CEP, sem
+     * percorrer a listagem completa. A busca é paginada por cursor: as páginas
+     * seguintes são obtidas informando os mesmos filtros e o
+     * {@code proximoCursor} da página anterior.
+     *
+     * @param filtro filtros da busca; ao menos um deve ser informado
+     * @param cursor {@code proximoCursor} da página anterior
+     * @param size   quantidade de contatos por página, até
+     *               {@value #TAMANHO_MAXIMO_PAGINA}
+     * @return página de contatos, ordenados pelo nome quando filtrados pelo nome,
+     *         ou pelo e-mail nos demais casos
+     * @throws ResponseStatusException caso nenhum filtro seja informado ou algum
+     *                                 parâmetro seja inválido
+     */
+    @Override
+    @Timed(METRICA)
+    public Pagina<Contato> buscar(FiltroContatos filtro, String cursor, Integer size) {
+        int tamanho = tamanhoPagina(size);
+        FiltroContatos normalizado = FiltroContatos.builder()
+                .nome(NomeUtils.normalize(filtro.getNome()))
+                .cidade(StringUtils.trimToNull(filtro.getCidade()))
+                .uf(StringUtils.upperCase(StringUtils.trimToNull(filtro.getUf()), Locale.ROOT))
+                .cep(CepUtils.normalize(filtro.getCep()))
+                .build();
+        if (StringUtils.isNotBlank(filtro.getCep()) && normalizado.getCep() == null) {
+            throw buscaInvalida("CEP inválido");
+        }
+        if (normalizado.isVazio()) {
+            throw buscaInvalida("informe ao menos um dos filtros nome, cidade, uf ou cep");
+        }
+
+        String campo = normalizado.getNome() != null ? "nome" : EMAIL;
+        Cursor depoisDe = cursor == null ? null : decodificarCursor(cursor);
+        if (depoisDe != null && !campo.equals(depoisDe.getCampo())) {
+            throw paginacaoInvalida("cursor inválido");
+        }
+
+        List<Contato> contatos = repository.search(normalizado, depoisDe, tamanho + 1);
+        if (contatos.size() > tamanho) {
+            contatos = new ArrayList<>(contatos.subList(0, tamanho));
+            Contato ultimo = contatos.get(tamanho - 1);
+            String valor = EMAIL.equals(campo) ? ultimo.getEmail() : ultimo.getNomeBusca();
+            return new Pagina<>(contatos, tamanho, null,
+                    CursorUtils.encode(new Cursor(campo, true, valor, ultimo.getEmail())));
+        }
+        return new Pagina<>(contatos, tamanho, null, null);
+    }
+
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para
+     * exportar todos os contatos, ordenados pelo e-mail.
+     * <p>
+     * Os contatos são lidos da base de dados e escritos na saída um a um, sem
+     * carregar a listagem em memória, então a exportação pode ter qualquer
+     * quantidade de registros.
+     *
+     * @param out     saída onde os contatos são escritos; não é fechada
+     * @param formato um contato por linha ou um único array JSON
+     * @return quantidade de contatos exportados
+     * @throws IOException caso ocorra um erro ao escrever na saída
+     */
+    @Override
+    @Timed(METRICA)
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream out, FormatoExportacao formato) throws IOException {
+        long quantidade = 0;
+        ObjectWriter writer = objectMapper.writerFor(Contato.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Contato> contatos = repository.streamAll(FETCH_SIZE_EXPORTACAO);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (formato == FormatoExportacao.JSON) {
+                generator.writeStartArray();
+            }
+            for (Contato contato : (Iterable<Contato>) contatos::iterator) {
+                writer.writeValue(generator, contato);
+                if (formato == FormatoExportacao.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                quantidade++;
+            }
+            if (formato == FormatoExportacao.JSON) {
+                generator.writeEndArray();
+            }
+        }
+        return quantidade;
+    }
+
+    /**
+     * Método chamado na
+     * {@link br.com.claro.testeclaro.controller.api.ContatoController} para obter
+     * a quantidade de contatos por UF, por cidade e de cadastros por dia, sem
+     * carregar os contatos.
+     *
+     * @return estatísticas dos contatos cadastrados
+     * @see EstatisticasContatosService
+     */
+    @Override
+    @Timed(METRICA)
+    public EstatisticasContatos estatisticas() {
+        return estatisticasService.consultar();
+    }
+
     /**
      * Método chamado na
      * {@link br.com.claro.testeclaro.controller.api.ContatoController} para obter
      * os dados do contato informado via e-mail (chave)
+     * <p>
+     * O contato é consultado primeiro no cache de contatos e somente em caso de
+     * ausência na base de dados. Cada chamada recebe uma cópia do contato em
+     * cache, que pode ser alterada sem afetar as demais.
      *
      * @param email chave do contato que está sendo buscado
      * @return Objeto contendo os dados do contato informado
@@ -71,26 +573,103 @@ public class ContatoServiceImpl implements ContatoService {
      *                                 na base de dados.
      */
     @Override
+    @Timed(METRICA)
     public Optional<Contato> findById(String email) {
-        return repository.findById(email);
+        if (!contatoCacheProperties.isEnabled() || StringUtils.isBlank(email)) {
+            return repository.findById(email);
+        }
+        Contato emCache = contatoCache.getIfPresent(EmailUtils.normalize(email));
+        // a chave é o e-mail normalizado, mas o H2 diferencia maiúsculas e minúsculas: o contato em cache só é
+        // retornado para o e-mail exatamente como está gravado, e as demais grafias são consultadas na base de dados
+        if (emCache != null && email.equals(emCache.getEmail())) {
+            return Optional.of(emCache.toBuilder().build());
+        }
+        Optional<Contato> contato = repository.findById(email);
+        // não substitui um contato gravado enquanto a consulta estava em andamento
+        contato.ifPresent(encontrado -> contatoCache.asMap()
+                .putIfAbsent(EmailUtils.normalize(encontrado.getEmail()), encontrado.toBuilder().build()));
+        return contato;
+    }
+
+    /**
+     * Estatísticas do cache de contatos (acertos, ausências e despejos).
+     *
+     * @return estatísticas acumuladas desde o início da aplicação
+     */
+    public CacheStats getCacheStats() {
+        return contatoCache.stats();
     }
 
     /**
      * Método chamado na
      * {@link br.com.claro.testeclaro.controller.api.ContatoController} para excluir
-     * um contato do banco de dados.
+     * um contato do banco de dados, com um único DELETE e sem carregar o contato.
+     * Com as estatísticas incrementais, a UF, a cidade e a data de cadastro do
+     * contato são lidas antes do DELETE.
      *
      * @param email chave do contato que será excluído
-     * @throws ResponseStatusException informando que o contato não foi encontrado
-     *                                 na base de dados.
-     * @return
+     * @return se o contato existia e foi excluído
      */
     @Override
-    public Optional<Contato> delete(String email) {
-        return repository.findById(email).map(contato -> {
-            repository.deleteById(contato.getEmail());
-            return contato;
-        });
+    @Timed(METRICA)
+    public boolean delete(String email) {
+        List<GrupoContato> grupos = gruposExcluidos(Collections.singleton(email));
+        int excluidos = repository.deleteByEmail(email);
+        invalidar(Collections.singleton(email));
+        registrarExclusao(grupos, excluidos);
+        return excluidos > 0;
+    }
+
+    /**
+     * Exclui os contatos informados com um único DELETE. E-mails repetidos ou em
+     * branco são ignorados, e e-mails não cadastrados apenas não entram na
+     * quantidade de excluídos.
+     *
+     * @param emails chaves dos contatos que serão excluídos
+     * @return quantidade de e-mails informados e de contatos excluídos
+     */
+    @Override
+    @Timed(METRICA)
+    public ResultadoExclusao deleteAll(Collection<String> emails) {
+        Set<String> distintos = emails.stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distintos.isEmpty()) {
+            return new ResultadoExclusao(0, 0);
+        }
+        List<GrupoContato> grupos = gruposExcluidos(distintos);
+        int excluidos = repository.deleteByEmailIn(distintos);
+        invalidar(distintos);
+        registrarExclusao(grupos, excluidos);
+        return new ResultadoExclusao(distintos.size(), excluidos);
+    }
+
+    /**
+     * Remove do cache os contatos excluídos. O DELETE de "Contato@teste.com"
+     * também exclui o contato "contato@teste.com" no MySQL, que não diferencia
+     * maiúsculas e minúsculas na chave, e ambos ficam no cache sob o e-mail
+     * normalizado.
+     */
+    private void invalidar(Collection<String> emails) {
+        contatoCache.invalidateAll(emails.stream()
+                .map(EmailUtils::normalize)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+
+    private List<GrupoContato> gruposExcluidos(Collection<String> emails) {
+        return estatisticasService.isIncremental() ? repository.findGrupos(emails) : Collections.emptyList();
+    }
+
+    /**
+     * Desconta os contatos excluídos das estatísticas. Caso outra requisição
+     * tenha alterado os mesmos contatos entre a leitura e o DELETE, as
+     * estatísticas são corrigidas no próximo recálculo.
+     */
+    private void registrarExclusao(List<GrupoContato> grupos, int excluidos) {
+        if (grupos.size() == excluidos) {
+            grupos.forEach(grupo -> estatisticasService.registrar(grupo, null));
+        }
     }
 
     /**
@@ -105,11 +684,31 @@ public class ContatoServiceImpl implements ContatoService {
      *                                 na base de dados.
      */
     @Override
+    @Timed(METRICA)
     public Optional<Contato> update(String email, Contato contato) {
-        Optional<Contato> contatoSalvo = findById(email);
+        return update(email, contato, null);
+    }
+
+    /**
+     * Atualiza o contato somente se o ETag atual corresponder ao cabeçalho
+     * {@code If-Match} informado.
+     *
+     * @param ifMatch valor do cabeçalho {@code If-Match}, ou {@code null} para
+     *                atualizar sem verificar a versão
+     * @throws ResponseStatusException 412 caso o contato tenha sido alterado
+     *                                 desde a leitura do ETag informado
+     * @see #update(String, Contato)
+     */
+    @Override
+    @Timed(METRICA)
+    public Optional<Contato> update(String email, Contato contato, String ifMatch) {
+        Optional<Contato> contatoSalvo = repository.findById(email);
         if (contatoSalvo.isPresent()) {
+            verificarVersao(contatoSalvo.get(), ifMatch);
             contato.setEmail(contatoSalvo.get().getEmail());
-            contatoSalvo = save(contato);
+            contato.setVersao(contatoSalvo.get().getVersao());
+            contato.setPersistido(true);
+            contatoSalvo = save(contato, contatoSalvo.get());
         }
         return contatoSalvo;
     }
@@ -120,24 +719,400 @@ public class ContatoServiceImpl implements ContatoService {
      * atualizar os dados de um contato informado via e-mail (chave)
      *
      * @param email  chave do contato que está sendo atualizado
-     * @param campos Map contendo quais campos serão atualizados
+     * @param campos Map contendo quais campos serão atualizados, dentre os
+     *               campos de {@link CamposContato}
      * @return Objeto contendo os dados salvos
      * @throws ResponseStatusException informando que o contato não foi encontrado
-     *                                 na base de dados.
+     *                                 na base de dados, ou que algum campo não
+     *                                 pode ser alterado ou tem um valor inválido.
      */
     @Override
+    @Timed(METRICA)
     public Optional<Contato> patchUpdate(String email, Map<Object, Object> campos) {
-        Optional<Contato> contatoSalvo = findById(email);
+        return patchUpdate(email, campos, null);
+    }
+
+    /**
+     * Atualiza os campos informados somente se o ETag atual corresponder ao
+     * cabeçalho {@code If-Match} informado.
+     * <p>
+     * O UPDATE altera somente as colunas dos campos informados. Sem o
+     * {@code If-Match} e sem alteração do CEP, o contato não é lido antes do
+     * UPDATE, somente depois, para retornar os dados atualizados. Com o
+     * {@code If-Match}, com um novo CEP ou com uma nova data de cadastro nas
+     * estatísticas incrementais, o contato é lido antes e o UPDATE só é feito
+     * caso o contato continue na versão lida.
+     *
+     * @param ifMatch valor do cabeçalho {@code If-Match}, ou {@code null} para
+     *                atualizar sem verificar a versão
+     * @throws ResponseStatusException 412 caso o contato tenha sido alterado
+     *                                 desde a leitura do ETag informado, ou 409
+     *                                 caso tenha sido alterado entre a leitura e
+     *                                 o UPDATE
+     * @see #patchUpdate(String, Map)
+     */
+    @Override
+    @Timed(METRICA)
+    public Optional<Contato> patchUpdate(String email, Map<Object, Object> campos, String ifMatch) {
+        Map<CamposContato.Campo, Object> valores = converterCampos(campos);
+        if (ifMatch == null && !valores.containsKey(CEP)
+                && !(valores.containsKey(DATA_CADASTRO) && estatisticasService.isIncremental())) {
+            return atualizarCampos(email, valores);
+        }
+        Optional<Contato> contatoSalvo = repository.findById(email);
         if (contatoSalvo.isPresent()) {
-            Optional<Contato> finalContatoSalvo = contatoSalvo;
-            campos.forEach((key, value) -> {
-                Field field = ReflectionUtils.findField(Contato.class, (String) key);
-                field.setAccessible(true);
-                ReflectionUtils.setField(field, finalContatoSalvo.get(), value);
-            });
-            contatoSalvo = save(finalContatoSalvo.get());
+            Contato contato = contatoSalvo.get();
+            verificarVersao(contato, ifMatch);
+            Contato anterior = copiarEndereco(contato);
+            GrupoContato grupo = GrupoContato.de(contato);
+            valores.forEach((campo, valor) -> campo.atribuir(contato, valor));
+            if (!gravarCampos(contato, atributos(valores), !isEnderecoAtualizado(contato, anterior), grupo)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Erro ao salvar contato, contato alterado por outra requisição");
+            }
         }
         return contatoSalvo;
     }
 
+    /**
+     * Altera os campos informados sem ler o contato antes, já que nenhum deles
+     * depende dos dados salvos. Caso o contato lido após o UPDATE ainda esteja
+     * sem endereço, o endereço é consultado e gravado em seguida.
+     */
+    private Optional<Contato> atualizarCampos(String email, Map<CamposContato.Campo, Object> valores) {
+        if (!valores.isEmpty()) {
+            Map<String, Object> alterados = atributos(valores);
+            alterados.put("dataAtualizacao", new Date());
+            if (repository.update(email, alterados, null) == 0) {
+                return Optional.empty();
+            }
+        }
+        Optional<Contato> atualizado = repository.findById(email);
+        atualizado.ifPresent(contato -> {
+            if (StringUtils.isAnyBlank(contato.getEndereco(), contato.getCidade(), contato.getUf())) {
+                gravarCampos(contato, new LinkedHashMap<>(), true, GrupoContato.de(contato));
+            } else {
+                armazenar(contato);
+            }
+        });
+        return atualizado;
+    }
+
+    /**
+     * Grava os campos alterados com um UPDATE condicionado à versão do contato
+     * e, se necessário, consulta o endereço e o grava junto com os demais campos.
+     *
+     * @param contato           contato lido da base de dados, já com os novos
+     *                          valores
+     * @param alterados         valores por nome do atributo
+     * @param consultarEndereco se o endereço deve ser consultado pelo CEP
+     * @param anterior          grupo do contato nas estatísticas, antes das
+     *                          alterações
+     * @return {@code false} caso o contato tenha sido alterado ou excluído desde
+     *         a leitura
+     */
+    private boolean gravarCampos(Contato contato, Map<String, Object> alterados, boolean consultarEndereco,
+                                 GrupoContato anterior) {
+        if (consultarEndereco) {
+            try {
+                preencherEndereco(contato, enderecoService.findByCEP(contato.getCep()));
+            } catch (EnderecoIndisponivelException e) {
+                marcarEnderecoPendente(contato, e);
+            }
+            alterados.putAll(endereco(contato));
+        }
+        contato.setDataAtualizacao(new Date());
+        alterados.put("dataAtualizacao", contato.getDataAtualizacao());
+        if (repository.update(contato.getEmail(), alterados, contato.getVersao()) == 0) {
+            return false;
+        }
+        contato.setVersao(contato.getVersao() + 1);
+        armazenar(contato);
+        estatisticasService.registrar(anterior, GrupoContato.de(contato));
+        if (contato.isEnderecoPendente()) {
+            enriquecimentoEnderecoService.agendar(contato.getEmail());
+        }
+        return true;
+    }
+
+    private static Map<String, Object> atributos(Map<CamposContato.Campo, Object> valores) {
+        Map<String, Object> atributos = new LinkedHashMap<>();
+        valores.forEach((campo, valor) -> atributos.put(campo.getNome(), valor));
+        return atributos;
+    }
+
+    private static Map<String, Object> endereco(Contato contato) {
+        Map<String, Object> endereco = new LinkedHashMap<>();
+        endereco.put("endereco", contato.getEndereco());
+        endereco.put("cidade", contato.getCidade());
+        endereco.put("uf", contato.getUf());
+        endereco.put("enderecoPendente", contato.isEnderecoPendente());
+        endereco.put("tentativasEndereco", contato.getTentativasEndereco());
+        endereco.put("proximaTentativaEndereco", contato.getProximaTentativaEndereco());
+        return endereco;
+    }
+
+    /**
+     * Converte os valores recebidos no PATCH para o tipo de cada campo e os
+     * valida com as mesmas regras do cadastro, antes de alterar o contato.
+     *
+     * @throws ResponseStatusException caso algum campo não exista, não possa ser
+     *                                 alterado ou tenha um valor inválido
+     */
+    private Map<CamposContato.Campo, Object> converterCampos(Map<Object, Object> campos) {
+        Map<CamposContato.Campo, Object> valores = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entrada : campos.entrySet()) {
+            String nome = String.valueOf(entrada.getKey());
+            CamposContato.Campo campo = CamposContato.campo(nome);
+            if (campo == null) {
+                throw atualizacaoInvalida("campo não permitido: " + nome);
+            }
+            Object valor;
+            try {
+                valor = campo.converter(entrada.getValue());
+            } catch (IllegalArgumentException e) {
+                throw atualizacaoInvalida("campo " + nome + " em formato inválido");
+            }
+            Set<ConstraintViolation<Contato>> violacoes = validator.validateValue(Contato.class, nome, valor);
+            if (!violacoes.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violacoes.iterator().next().getMessage());
+            }
+            valores.put(campo, valor);
+        }
+        return valores;
+    }
+
+    /**
+     * Verifica se o endereço já salvo pode ser reaproveitado, evitando uma nova
+     * consulta do CEP.
+     *
+     * @param contato  Dados do contato que será salvo
+     * @param anterior Dados de endereço do contato já salvo na base de dados
+     * @return {@code true} caso o CEP não tenha sido alterado e o endereço salvo
+     *         esteja preenchido
+     */
+    private boolean isEnderecoAtualizado(Contato contato, Contato anterior) {
+        if (anterior == null || StringUtils.isAnyBlank(anterior.getEndereco(), anterior.getCidade(), anterior.getUf())) {
+            return false;
+        }
+        String cep = CepUtils.normalize(contato.getCep());
+        return cep != null && cep.equals(CepUtils.normalize(anterior.getCep()));
+    }
+
+    static void preencherEndereco(Contato contato, Endereco endereco) {
+        contato.setEndereco(endereco.getLogradouro() + ", " + endereco.getBairro());
+        contato.setCidade(endereco.getLocalidade());
+        contato.setUf(endereco.getUf());
+        contato.setEnderecoPendente(false);
+        contato.setTentativasEndereco(0);
+        contato.setProximaTentativaEndereco(null);
+    }
+
+    /**
+     * Mantém o CEP informado e limpa os dados de endereço, que serão preenchidos
+     * quando o ViaCEP voltar a responder.
+     *
+     * @param contato Dados do contato que será salvo
+     * @param erro    erro da consulta, relançado caso o modo degradado esteja
+     *                desabilitado
+     */
+    private void marcarEnderecoPendente(Contato contato, EnderecoIndisponivelException erro) {
+        if (!viaCepProperties.isDegradedMode()) {
+            throw erro;
+        }
+        limparEndereco(contato);
+    }
+
+    private void limparEndereco(Contato contato) {
+        contato.setEndereco(null);
+        contato.setCidade(null);
+        contato.setUf(null);
+        contato.setEnderecoPendente(true);
+        contato.setTentativasEndereco(0);
+        contato.setProximaTentativaEndereco(new Date());
+    }
+
+    /**
+     * Valida o formato do CEP quando a consulta ao ViaCEP é adiada, para que um
+     * CEP inválido continue sendo recusado no cadastro.
+     */
+    private void validarCep(String cep) {
+        if (StringUtils.isBlank(cep)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar endereço, CEP precisa ser preenchido");
+        }
+        if (CepUtils.normalize(cep) == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar endereço, CEP Inválido");
+        }
+    }
+
+    private Cursor ordenacao(String sort) {
+        if (StringUtils.isBlank(sort)) {
+            return new Cursor(EMAIL, true, null, null);
+        }
+        String[] partes = sort.split(",", -1);
+        String campo = partes[0].trim();
+        String direcao = partes.length > 1 ? partes[1].trim() : "asc";
+        if (partes.length > 2 || !CAMPOS_ORDENACAO.contains(campo)
+                || !("asc".equalsIgnoreCase(direcao) || "desc".equalsIgnoreCase(direcao))) {
+            throw paginacaoInvalida("ordenação deve ser um dos campos " + CAMPOS_ORDENACAO + ", seguido de asc ou desc");
+        }
+        return new Cursor(campo, "asc".equalsIgnoreCase(direcao), null, null);
+    }
+
+    private Cursor decodificarCursor(String cursor) {
+        try {
+            Cursor decodificado = CursorUtils.decode(cursor);
+            if (CAMPOS_ORDENACAO.contains(decodificado.getCampo())) {
+                return decodificado;
+            }
+        } catch (IllegalArgumentException e) {
+            // tratado abaixo
+        }
+        throw paginacaoInvalida("cursor inválido");
+    }
+
+    private String proximoCursor(List<Contato> contatos, String campo, boolean crescente) {
+        Contato ultimo = contatos.get(contatos.size() - 1);
+        String valor = EMAIL.equals(campo) ? ultimo.getEmail() : ultimo.getNome();
+        return CursorUtils.encode(new Cursor(campo, crescente, valor, ultimo.getEmail()));
+    }
+
+    private int tamanhoPagina(Integer size) {
+        int tamanho = size == null ? TAMANHO_PADRAO_PAGINA : size;
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw paginacaoInvalida("o tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        return tamanho;
+    }
+
+    private ResponseStatusException buscaInvalida(String motivo) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar contatos, " + motivo);
+    }
+
+    private ResponseStatusException paginacaoInvalida(String motivo) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao listar contatos, " + motivo);
+    }
+
+    private ResponseStatusException atualizacaoInvalida(String motivo) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao atualizar contato, " + motivo);
+    }
+
+    private Contato copiarEndereco(Contato contato) {
+        return Contato.builder()
+                .cep(contato.getCep())
+                .endereco(contato.getEndereco())
+                .cidade(contato.getCidade())
+                .uf(contato.getUf())
+                .build();
+    }
+
+    /**
+     * @throws ResponseStatusException 412 caso o ETag do contato salvo não
+     *                                 corresponda ao {@code If-Match} informado
+     */
+    private void verificarVersao(Contato salvo, String ifMatch) {
+        if (ifMatch != null && !EtagUtils.corresponde(ifMatch, EtagUtils.etag(salvo))) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Erro ao atualizar contato, contato alterado por outra requisição");
+        }
+    }
+
+    /**
+     * Grava o contato e o atualiza no cache e nas estatísticas. Um novo contato é
+     * inserido sem consulta prévia e um contato já cadastrado é alterado com um
+     * único UPDATE. A versão do contato é verificada na gravação, então uma
+     * alteração feita por outra requisição desde a leitura do contato é recusada.
+     *
+     * @param anterior contato já salvo na base de dados, ou {@code null} caso seja
+     *                 um novo contato
+     * @throws ResponseStatusException 400 caso algum campo obrigatório não tenha
+     *                                 sido preenchido, ou 409 caso o contato
+     *                                 tenha sido alterado por outra requisição
+     */
+    private Contato gravar(Contato contato, Contato anterior) {
+        GrupoContato grupo = anterior == null ? null : GrupoContato.de(anterior);
+        Contato salvo;
+        try {
+            salvo = contato.isNew() ? inserir(contato) : repository.update(contato);
+        } catch (ConstraintViolationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Erro ao salvar contato, " + e.getConstraintViolations().iterator().next().getMessage(), e);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Erro ao salvar contato, contato alterado por outra requisição", e);
+        }
+        armazenar(salvo);
+        estatisticasService.registrar(grupo, GrupoContato.de(salvo));
+        return salvo;
+    }
+
+    /**
+     * Insere o contato. Caso o e-mail já esteja cadastrado, os dados do contato
+     * são substituídos, como no cadastro feito pelo {@code merge}, sem que cada
+     * novo contato pague a consulta prévia.
+     */
+    private Contato inserir(Contato contato) {
+        try {
+            return repository.save(contato);
+        } catch (DataIntegrityViolationException e) {
+            Contato salvo = repository.findById(contato.getEmail()).orElseThrow(() -> e);
+            contato.setVersao(salvo.getVersao());
+            contato.setPersistido(true);
+            Contato atualizado = repository.update(contato);
+            // o contato substituído deixa as estatísticas; o novo é registrado em gravar
+            estatisticasService.registrar(GrupoContato.de(salvo), null);
+            return atualizado;
+        }
+    }
+
+    /**
+     * Atualiza o contato no cache após a gravação, para que as consultas
+     * seguintes já retornem os dados salvos.
+     */
+    private void armazenar(Contato contato) {
+        if (contatoCacheProperties.isEnabled() && StringUtils.isNotBlank(contato.getEmail())) {
+            contatoCache.put(EmailUtils.normalize(contato.getEmail()), contato.toBuilder().build());
+        }
+    }
+
+    /**
+     * Mede o tempo até a conclusão do {@link Mono}, com as mesmas tags do
+     * {@link Timed}, que mediria somente a criação do {@link Mono}.
+     */
+    private Mono<Contato> medir(Mono<Contato> operacao, String metodo) {
+        return Mono.defer(() -> {
+            Timer.Sample amostra = Timer.start(meterRegistry);
+            return operacao
+                    .doOnSuccess(contato -> registrar(amostra, metodo, "none"))
+                    .doOnError(e -> registrar(amostra, metodo, e.getClass().getSimpleName()));
+        });
+    }
+
+    private void registrar(Timer.Sample amostra, String metodo, String excecao) {
+        amostra.stop(Timer.builder(METRICA)
+                .tag("class", ContatoServiceImpl.class.getName())
+                .tag("method", metodo)
+                .tag("exception", excecao)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Resultado da consulta de um CEP durante a importação: o endereço
+     * encontrado ou o erro da consulta.
+     */
+    private static final class ConsultaCep {
+        private final Endereco endereco;
+        private final ResponseStatusException erro;
+
+        private ConsultaCep(Endereco endereco) {
+            this.endereco = endereco;
+            this.erro = null;
+        }
+
+        private ConsultaCep(ResponseStatusException erro) {
+            this.endereco = null;
+            this.erro = erro;
+        }
+    }
+
 }
@@ -0,0 +1,183 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import br.com.claro.testeclaro.config.CepLocalProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.BaseCepLocal;
+import br.com.claro.testeclaro.service.EnderecoService;
+import br.com.claro.testeclaro.util.CepUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consulta os CEPs na base local ({@code cep.local.file}) e somente os CEPs que
+ * não estão na base no {@link EnderecoServiceImpl}, com o cache e a proteção das
+ * chamadas ao ViaCEP. Habilitado por {@code cep.local.enabled}, substitui o
+ * {@link EnderecoServiceImpl} nos demais serviços.
+ * <p>
+ * A base é carregada na inicialização e carregada novamente quando o arquivo é
+ * alterado, verificado a cada {@code cep.local.reload-interval}; as consultas
+ * continuam na base anterior até a nova estar completa.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "cep.local", name = "enabled", havingValue = "true")
+public class EnderecoLocalServiceImpl implements EnderecoService, SmartLifecycle {
+    /**
+     * Consultas feitas na base local, encontradas ou repassadas ao ViaCEP.
+     */
+    static final String METRICA_CONSULTAS = "cep.local.lookups";
+
+    private final EnderecoServiceImpl viaCep;
+    private final CepLocalProperties properties;
+    private final Path arquivo;
+    private final Counter encontrados;
+    private final Counter naoEncontrados;
+
+    private volatile BaseCepLocal base;
+    /**
+     * Data de alteração e tamanho do arquivo da base em uso.
+     */
+    private volatile String versaoArquivo;
+    private ScheduledExecutorService recarga;
+
+    public EnderecoLocalServiceImpl(EnderecoServiceImpl viaCep, CepLocalProperties properties,
+                                    MeterRegistry meterRegistry) {
+        if (properties.getFile() == null) {
+            throw new IllegalStateException("cep.local.file deve ser informado quando cep.local.enabled=true");
+        }
+        this.viaCep = viaCep;
+        this.properties = properties;
+        this.arquivo = Paths.get(properties.getFile());
+        this.encontrados = contador(meterRegistry, EnderecoServiceImpl.ENCONTRADO);
+        this.naoEncontrados = contador(meterRegistry, EnderecoServiceImpl.NAO_ENCONTRADO);
+        try {
+            recarregar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Gauge.builder("cep.local.size", this, servico -> servico.base.tamanho())
+                .description("CEPs na base local")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Endereco findByCEP(String cep) {
+        Optional<Endereco> endereco = buscarLocal(cep);
+        return endereco.isPresent() ? endereco.get() : viaCep.findByCEP(cep);
+    }
+
+    @Override
+    public Mono<Endereco> findByCEPAsync(String cep) {
+        return Mono.defer(() -> {
+            Optional<Endereco> endereco = buscarLocal(cep);
+            return endereco.isPresent() ? Mono.just(endereco.get()) : viaCep.findByCEPAsync(cep);
+        });
+    }
+
+    /**
+     * Carrega a base de CEPs do arquivo, no formato de {@code cep.local.format},
+     * e passa a usá-la nas consultas. Caso o arquivo não possa ser lido, a base
+     * anterior continua em uso.
+     *
+     * @return quantidade de CEPs na nova base
+     * @throws IOException caso o arquivo não possa ser lido ou seja inválido
+     */
+    public synchronized int recarregar() throws IOException {
+        String versao = versao();
+        BaseCepLocal nova = properties.getFormat() == CepLocalProperties.Format.INDEX
+                ? BaseCepMapeada.abrir(arquivo)
+                : BaseCepMemoria.carregar(arquivo);
+        base = nova;
+        versaoArquivo = versao;
+        return nova.tamanho();
+    }
+
+    /**
+     * @return base de CEPs em uso
+     */
+    public BaseCepLocal getBase() {
+        return base;
+    }
+
+    @Override
+    public void start() {
+        recarga = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cep-local-recarga");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = properties.getReloadInterval().toMillis();
+        recarga.scheduleWithFixedDelay(this::recarregarSeAlterado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (recarga != null) {
+            recarga.shutdownNow();
+            recarga = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recarga != null;
+    }
+
+    /**
+     * @return o endereço da base local, ou vazio caso o CEP não esteja na base ou
+     *         não esteja em formato válido (recusado em seguida pelo
+     *         {@link EnderecoServiceImpl})
+     */
+    private Optional<Endereco> buscarLocal(String cep) {
+        String cepNormalizado = CepUtils.normalize(cep);
+        if (cepNormalizado == null) {
+            return Optional.empty();
+        }
+        Optional<Endereco> endereco = base.buscar(cepNormalizado);
+        if (endereco.isPresent()) {
+            encontrados.increment();
+        } else {
+            naoEncontrados.increment();
+        }
+        return endereco;
+    }
+
+    private void recarregarSeAlterado() {
+        try {
+            if (!versao().equals(versaoArquivo)) {
+                recarregar();
+            }
+        } catch (IOException | RuntimeException e) {
+            // mantém a base atual até a próxima verificação
+        }
+    }
+
+    private String versao() throws IOException {
+        return Files.getLastModifiedTime(arquivo) + "/" + Files.size(arquivo);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder(METRICA_CONSULTAS)
+                .description("Consultas de CEP na base local")
+                .tag("outcome", resultado)
+                .register(meterRegistry);
+    }
+
+}
@@ -1,46 +1,399 @@
 package br.com.claro.testeclaro.service.impl;
 
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import br.com.claro.testeclaro.client.ViaCepClient;
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
 import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.CepCache;
+import br.com.claro.testeclaro.repository.CepCacheRepository;
 import br.com.claro.testeclaro.service.EnderecoService;
+import br.com.claro.testeclaro.util.CepUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.util.UriComponents;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @Service
+@RequiredArgsConstructor
 public class EnderecoServiceImpl implements EnderecoService {
+    /**
+     * Consultas de endereço feitas pela aplicação, atendidas pelo cache ou pelo
+     * ViaCEP.
+     */
+    static final String METRICA_CONSULTAS = "viacep.lookups";
+    /**
+     * Chamadas HTTP feitas ao ViaCEP, sem as consultas atendidas pelo cache e as
+     * recusadas pelo circuit breaker ou pelo bulkhead.
+     */
+    static final String METRICA_REQUISICOES = "viacep.requests";
+    static final String ENCONTRADO = "found";
+    static final String NAO_ENCONTRADO = "not_found";
+    static final String CEP_INVALIDO = "invalid_cep";
+    static final String ERRO = "upstream_error";
+
+    private final ViaCepClient viaCepClient;
+    private final Cache<String, Optional<Endereco>> cepCache;
+    private final CircuitBreaker viaCepCircuitBreaker;
+    private final Bulkhead viaCepBulkhead;
+    private final MeterRegistry meterRegistry;
+    private final CepCacheRepository cepCacheRepository;
+    private final ViaCepProperties properties;
+    private final Scheduler jdbcScheduler;
+    private final ExecutorService cepRefreshExecutor;
+
+    /**
+     * Consultas ao ViaCEP em andamento, por CEP normalizado. Chamadas simultâneas
+     * para o mesmo CEP aguardam a mesma consulta em vez de repeti-la.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Optional<Endereco>>> consultasEmAndamento =
+            new ConcurrentHashMap<>();
+    /**
+     * CEPs da tabela {@code cep_cache} com atualização em segundo plano já
+     * solicitada.
+     */
+    private final Set<String> atualizacoesEmAndamento = ConcurrentHashMap.newKeySet();
 
     /**
      * Método chamado na {@link ContatoServiceImpl} para atualizar os dados de endereço a partir de um cep informado.
+     * <p>
+     * A consulta é feita primeiro no cache de CEPs, depois na tabela {@code cep_cache} (com
+     * {@code viacep.persistent-cache.enabled}) e somente em caso de ausência é feita a chamada à API. CEPs
+     * inexistentes também são mantidos no cache por um curto período.
      *
      * @param cep cep informado no cadastro
      * @return Objeto do tipo {@link Endereco} com os dados obtidos através da API
+     * @throws EnderecoIndisponivelException caso o ViaCEP esteja indisponível
      */
     @Override
     public Endereco findByCEP(String cep) {
-        if (StringUtils.isNotBlank(cep)) {
-            RestTemplate template = new RestTemplate();
-            UriComponents uri = UriComponentsBuilder.newInstance()
-                    .scheme("https")
-                    .host("viacep.com.br")
-                    .path("ws/" + cep + "/json")
-                    .build();
-
-            ResponseEntity<Endereco> entity = template.getForEntity(uri.toUriString(), Endereco.class);
-            Endereco endereco = entity.getBody();
-
-            if (endereco != null && endereco.getCep() != null) {
-                return endereco;
-            } else {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar endereço, CEP Inválido");
+        return medir(() -> buscar(cep), METRICA_CONSULTAS).orElseThrow(this::cepInvalido);
+    }
+
+    /**
+     * Método chamado na {@link ContatoServiceImpl} para obter os dados de endereço de um cep informado sem bloquear a
+     * thread chamadora enquanto a API responde. Usa o mesmo cache de {@link #findByCEP(String)}.
+     *
+     * @param cep cep informado no cadastro
+     * @return {@link Mono} com os dados obtidos através da API, ou com erro caso o CEP seja inválido ou o ViaCEP
+     *         esteja indisponível
+     */
+    @Override
+    public Mono<Endereco> findByCEPAsync(String cep) {
+        return medir(Mono.defer(() -> buscarAsync(cep)), METRICA_CONSULTAS)
+                .flatMap(endereco -> endereco.map(Mono::just).orElseGet(() -> Mono.error(cepInvalido())));
+    }
+
+    /**
+     * Estatísticas do cache de CEPs (acertos, ausências e despejos).
+     *
+     * @return estatísticas acumuladas desde o início da aplicação
+     */
+    public CacheStats getCacheStats() {
+        return cepCache.stats();
+    }
+
+    /**
+     * Consulta o CEP no ViaCEP na thread chamadora, ou aguarda a consulta já em
+     * andamento para o mesmo CEP.
+     */
+    private Optional<Endereco> consultar(String cep) {
+        CompletableFuture<Optional<Endereco>> consulta = new CompletableFuture<>();
+        CompletableFuture<Optional<Endereco>> emAndamento = consultasEmAndamento.putIfAbsent(cep, consulta);
+        if (emAndamento != null) {
+            return aguardar(emAndamento);
+        }
+
+        try {
+            Optional<Endereco> endereco = cepCache.getIfPresent(cep);
+            if (endereco == null) {
+                endereco = buscarGravado(cep);
+                if (endereco == null) {
+                    endereco = consultarViaCep(cep);
+                    gravar(cep, endereco);
+                }
+                cepCache.put(cep, endereco);
             }
-        } else {
+            consulta.complete(endereco);
+            return endereco;
+        } catch (RuntimeException e) {
+            consulta.completeExceptionally(e);
+            throw e;
+        } finally {
+            consultasEmAndamento.remove(cep, consulta);
+        }
+    }
+
+    private Optional<Endereco> buscar(String cep) {
+        if (StringUtils.isBlank(cep)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar endereço, CEP precisa ser preenchido");
         }
+        String cepNormalizado = CepUtils.normalize(cep);
+        if (cepNormalizado == null) {
+            throw cepInvalido();
+        }
+
+        Optional<Endereco> endereco = cepCache.getIfPresent(cepNormalizado);
+        return endereco != null ? endereco : consultar(cepNormalizado);
+    }
+
+    private Mono<Optional<Endereco>> buscarAsync(String cep) {
+        if (StringUtils.isBlank(cep)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Erro ao buscar endereço, CEP precisa ser preenchido"));
+        }
+        String cepNormalizado = CepUtils.normalize(cep);
+        if (cepNormalizado == null) {
+            return Mono.error(cepInvalido());
+        }
+
+        Optional<Endereco> endereco = cepCache.getIfPresent(cepNormalizado);
+        return endereco != null ? Mono.just(endereco) : consultarAsync(cepNormalizado);
+    }
+
+    /**
+     * Consulta o CEP no ViaCEP sem bloquear, ou reaproveita a consulta já em
+     * andamento para o mesmo CEP, seja ela bloqueante ou não.
+     */
+    private Mono<Optional<Endereco>> consultarAsync(String cep) {
+        CompletableFuture<Optional<Endereco>> consulta = new CompletableFuture<>();
+        CompletableFuture<Optional<Endereco>> emAndamento = consultasEmAndamento.putIfAbsent(cep, consulta);
+        if (emAndamento != null) {
+            return aguardarAsync(emAndamento);
+        }
+
+        consulta.whenComplete((endereco, erro) -> consultasEmAndamento.remove(cep, consulta));
+        Optional<Endereco> emCache = cepCache.getIfPresent(cep);
+        if (emCache != null) {
+            consulta.complete(emCache);
+        } else {
+            buscarGravadoAsync(cep)
+                    .switchIfEmpty(Mono.defer(() -> consultarViaCepAsync(cep)))
+                    .doOnNext(endereco -> cepCache.put(cep, endereco))
+                    .subscribe(consulta::complete, consulta::completeExceptionally);
+        }
+        return aguardarAsync(consulta);
+    }
+
+    /**
+     * Chamada não bloqueante ao ViaCEP, protegida pelo circuit breaker e pelo
+     * bulkhead. O resultado é gravado na tabela {@code cep_cache} em uma thread
+     * JDBC, sem atrasar a resposta.
+     */
+    private Mono<Optional<Endereco>> consultarViaCepAsync(String cep) {
+        return medir(viaCepClient.findByCEPAsync(cep).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                METRICA_REQUISICOES)
+                .transformDeferred(BulkheadOperator.of(viaCepBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(viaCepCircuitBreaker))
+                .onErrorMap(this::converterErro)
+                .doOnNext(endereco -> {
+                    if (endereco.isPresent() && properties.getPersistentCache().isEnabled()) {
+                        jdbcScheduler.schedule(() -> gravar(cep, endereco));
+                    }
+                });
+    }
+
+    /**
+     * Endereço gravado na tabela {@code cep_cache}. Um endereço mais antigo que
+     * {@code viacep.persistent-cache.refresh-after} é devolvido mesmo assim e
+     * consultado novamente no ViaCEP em segundo plano.
+     *
+     * @return o endereço gravado, ou {@code null} caso a tabela não esteja
+     *         habilitada, o CEP não esteja gravado ou a base de dados não
+     *         responda, casos em que o CEP é consultado no ViaCEP
+     */
+    private Optional<Endereco> buscarGravado(String cep) {
+        ViaCepProperties.PersistentCache configuracao = properties.getPersistentCache();
+        if (!configuracao.isEnabled()) {
+            return null;
+        }
+        Optional<CepCache> gravado;
+        try {
+            gravado = cepCacheRepository.findById(cep);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (!gravado.isPresent()) {
+            return null;
+        }
+        long idade = System.currentTimeMillis() - gravado.get().getDataConsulta().getTime();
+        if (idade >= configuracao.getRefreshAfter().toMillis()) {
+            atualizarEmSegundoPlano(cep);
+        }
+        return Optional.of(gravado.get().paraEndereco());
+    }
+
+    private Mono<Optional<Endereco>> buscarGravadoAsync(String cep) {
+        if (!properties.getPersistentCache().isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> buscarGravado(cep)).subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Grava na tabela {@code cep_cache} um endereço encontrado no ViaCEP. Uma
+     * falha na gravação não interrompe a consulta: o CEP apenas deixa de ser
+     * compartilhado com as demais instâncias.
+     */
+    private void gravar(String cep, Optional<Endereco> endereco) {
+        if (!endereco.isPresent() || !properties.getPersistentCache().isEnabled()) {
+            return;
+        }
+        try {
+            cepCacheRepository.save(CepCache.de(cep, endereco.get(), new Date()));
+        } catch (RuntimeException e) {
+            // outra instância pode ter gravado o mesmo CEP ao mesmo tempo
+        }
+    }
+
+    /**
+     * Consulta o CEP no ViaCEP em segundo plano e atualiza a tabela e o cache em
+     * memória. Um CEP que o ViaCEP passou a informar como inexistente é removido
+     * da tabela; com o ViaCEP indisponível, o endereço gravado é mantido e a
+     * atualização é solicitada novamente na próxima consulta.
+     */
+    private void atualizarEmSegundoPlano(String cep) {
+        if (!atualizacoesEmAndamento.add(cep)) {
+            return;
+        }
+        try {
+            cepRefreshExecutor.execute(() -> {
+                try {
+                    Optional<Endereco> endereco = consultarViaCep(cep);
+                    if (endereco.isPresent()) {
+                        gravar(cep, endereco);
+                    } else {
+                        cepCacheRepository.deleteByCep(cep);
+                    }
+                    cepCache.put(cep, endereco);
+                } catch (RuntimeException e) {
+                    // mantém o endereço gravado até a próxima tentativa
+                } finally {
+                    atualizacoesEmAndamento.remove(cep);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            atualizacoesEmAndamento.remove(cep);
+        }
+    }
+
+    /**
+     * Chamada ao ViaCEP protegida pelo circuit breaker e pelo bulkhead.
+     */
+    private Optional<Endereco> consultarViaCep(String cep) {
+        try {
+            return viaCepCircuitBreaker.executeSupplier(Bulkhead.decorateSupplier(viaCepBulkhead,
+                    () -> medir(() -> viaCepClient.findByCEP(cep), METRICA_REQUISICOES)));
+        } catch (RuntimeException e) {
+            throw converterErro(e);
+        }
+    }
+
+    /**
+     * Respostas 400 e 404 do ViaCEP indicam um CEP em formato inválido; as demais
+     * falhas da chamada, inclusive os outros erros 4xx, são convertidas em
+     * {@link EnderecoIndisponivelException}.
+     */
+    private RuntimeException converterErro(Throwable erro) {
+        if (erro instanceof ResponseStatusException) {
+            return (ResponseStatusException) erro;
+        }
+        if (ViaCepClient.isCepRecusado(erro)) {
+            return cepInvalido();
+        }
+        return new EnderecoIndisponivelException(erro);
+    }
+
+    private Optional<Endereco> medir(Supplier<Optional<Endereco>> consulta, String metrica) {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = ERRO;
+        try {
+            Optional<Endereco> endereco = consulta.get();
+            resultado = resultado(endereco);
+            return endereco;
+        } catch (RuntimeException e) {
+            resultado = resultado(e);
+            throw e;
+        } finally {
+            amostra.stop(timer(metrica, resultado));
+        }
+    }
+
+    private Mono<Optional<Endereco>> medir(Mono<Optional<Endereco>> consulta, String metrica) {
+        return Mono.defer(() -> {
+            Timer.Sample amostra = Timer.start(meterRegistry);
+            return consulta
+                    .doOnSuccess(endereco -> amostra.stop(timer(metrica, resultado(endereco))))
+                    .doOnError(erro -> amostra.stop(timer(metrica, resultado(erro))));
+        });
+    }
+
+    private Timer timer(String metrica, String resultado) {
+        return Timer.builder(metrica)
+                .tag("outcome", resultado)
+                .register(meterRegistry);
+    }
+
+    private static String resultado(Optional<Endereco> endereco) {
+        return endereco != null && endereco.isPresent() ? ENCONTRADO : NAO_ENCONTRADO;
+    }
+
+    /**
+     * CEP em formato inválido, recusado pela aplicação ou pelo ViaCEP (400 ou
+     * 404), ou falha do ViaCEP.
+     */
+    private static String resultado(Throwable erro) {
+        if (erro instanceof ResponseStatusException) {
+            return ((ResponseStatusException) erro).getStatus().is4xxClientError() ? CEP_INVALIDO : ERRO;
+        }
+        if (ViaCepClient.isCepRecusado(erro)) {
+            return CEP_INVALIDO;
+        }
+        return ERRO;
+    }
+
+    private Optional<Endereco> aguardar(CompletableFuture<Optional<Endereco>> consulta) {
+        try {
+            return consulta.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cada chamador recebe um estágio próprio, para que o cancelamento de um deles
+     * não cancele a consulta compartilhada com os demais.
+     */
+    private Mono<Optional<Endereco>> aguardarAsync(CompletableFuture<Optional<Endereco>> consulta) {
+        return Mono.fromFuture(consulta.thenApply(endereco -> endereco));
+    }
+
+    private ResponseStatusException cepInvalido() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao buscar endereço, CEP Inválido");
     }
 
 }
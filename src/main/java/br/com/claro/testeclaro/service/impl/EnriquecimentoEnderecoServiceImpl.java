@@ -0,0 +1,250 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.com.claro.testeclaro.config.EnrichmentProperties;
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.GrupoContato;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.EnderecoService;
+import br.com.claro.testeclaro.service.EnriquecimentoEnderecoService;
+import br.com.claro.testeclaro.service.EstatisticasContatosService;
+import br.com.claro.testeclaro.util.EmailUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Preenche em segundo plano o endereço dos contatos salvos com
+ * {@link Contato#isEnderecoPendente()}.
+ * <p>
+ * Os contatos são recebidos em uma fila limitada e processados em lotes por um
+ * conjunto fixo de threads, que lê os contatos de cada lote com uma única
+ * consulta. O estado pendente fica na base de dados, então os contatos que não
+ * couberam na fila, que falharam, que foram alterados durante o preenchimento ou
+ * que estavam na fila quando a aplicação foi encerrada são recuperados pela
+ * varredura periódica, respeitando o intervalo entre tentativas.
+ */
+@Service
+@RequiredArgsConstructor
+public class EnriquecimentoEnderecoServiceImpl implements EnriquecimentoEnderecoService, SmartLifecycle {
+    private final ContatoRepository repository;
+    private final EnderecoService enderecoService;
+    private final EnrichmentProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Contato> contatoCache;
+    private final EstatisticasContatosService estatisticasService;
+
+    /**
+     * E-mails na fila ou em processamento, para que a varredura não agende
+     * novamente um contato que ainda não foi processado.
+     */
+    private final Set<String> agendados = ConcurrentHashMap.newKeySet();
+    private BlockingQueue<String> fila;
+    private ExecutorService workers;
+    private ScheduledExecutorService varredura;
+    private volatile boolean executando;
+
+    @Override
+    public boolean isHabilitado() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Coloca o contato na fila de preenchimento do endereço.
+     *
+     * @param email chave do contato com o endereço pendente
+     * @return {@code false} caso o preenchimento esteja desabilitado, a fila
+     *         esteja cheia ou o contato já esteja na fila; nesses casos o contato
+     *         continua pendente na base de dados
+     */
+    @Override
+    public boolean agendar(String email) {
+        if (!executando || !agendados.add(email)) {
+            return false;
+        }
+        if (!fila.offer(email)) {
+            agendados.remove(email);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Agenda os contatos pendentes cuja próxima tentativa já pode ser feita, até
+     * o limite de vagas da fila.
+     *
+     * @return quantidade de contatos agendados
+     */
+    @Override
+    public int agendarPendentes() {
+        if (!executando || fila.remainingCapacity() == 0) {
+            return 0;
+        }
+        List<Contato> pendentes = repository
+                .findByEnderecoPendenteTrueAndProximaTentativaEnderecoLessThanEqualOrderByProximaTentativaEndereco(
+                        new Date(), PageRequest.of(0, fila.remainingCapacity()));
+        int quantidade = 0;
+        for (Contato contato : pendentes) {
+            if (agendar(contato.getEmail())) {
+                quantidade++;
+            }
+        }
+        return quantidade;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        fila = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("contatos.enrichment.queue", this, servico -> servico.fila.size())
+                .description("Contatos na fila de preenchimento do endereço")
+                .register(meterRegistry);
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), threadFactory("enriquecimento-endereco"));
+        varredura = Executors.newSingleThreadScheduledExecutor(threadFactory("enriquecimento-varredura"));
+        executando = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::processar);
+        }
+        varredura.scheduleWithFixedDelay(this::varrer, 0, properties.getSweepInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!executando) {
+            return;
+        }
+        executando = false;
+        varredura.shutdownNow();
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fila.clear();
+        agendados.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    private void processar() {
+        while (executando) {
+            List<String> lote = new ArrayList<>(properties.getBatchSize());
+            try {
+                String email = fila.poll(1, TimeUnit.SECONDS);
+                if (email == null) {
+                    continue;
+                }
+                lote.add(email);
+                fila.drainTo(lote, properties.getBatchSize() - 1);
+                enriquecer(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // os contatos do lote continuam pendentes e voltam na próxima varredura
+            } finally {
+                agendados.removeAll(lote);
+            }
+        }
+    }
+
+    private void varrer() {
+        try {
+            agendarPendentes();
+        } catch (RuntimeException e) {
+            // tenta novamente na próxima varredura
+        }
+    }
+
+    /**
+     * Consulta o endereço de cada contato do lote e grava os endereços em uma
+     * única transação, com um lote de UPDATEs condicionados à versão lida. Um
+     * contato alterado ou excluído desde a leitura não é gravado e, se continuar
+     * pendente, volta na próxima varredura, sem impedir a gravação dos demais
+     * contatos do lote.
+     */
+    private void enriquecer(List<String> emails) {
+        List<Contato> preenchidos = new ArrayList<>(emails.size());
+        List<GrupoContato> grupos = new ArrayList<>(emails.size());
+        for (Contato contato : repository.findAllById(emails)) {
+            if (contato.isEnderecoPendente()) {
+                grupos.add(GrupoContato.de(contato));
+                preencher(contato);
+                preenchidos.add(contato);
+            }
+        }
+        int[] alterados = repository.updateEnderecos(preenchidos);
+        for (int i = 0; i < preenchidos.size(); i++) {
+            if (alterados[i] > 0) {
+                Contato contato = preenchidos.get(i);
+                contatoCache.invalidate(EmailUtils.normalize(contato.getEmail()));
+                estatisticasService.registrar(grupos.get(i), GrupoContato.de(contato));
+            }
+        }
+    }
+
+    private void preencher(Contato contato) {
+        try {
+            ContatoServiceImpl.preencherEndereco(contato, enderecoService.findByCEP(contato.getCep()));
+        } catch (EnderecoIndisponivelException e) {
+            registrarFalha(contato);
+        } catch (ResponseStatusException e) {
+            // CEP inexistente: o contato continua pendente, sem novas tentativas
+            contato.setTentativasEndereco(properties.getMaxAttempts());
+            contato.setProximaTentativaEndereco(null);
+        }
+    }
+
+    /**
+     * Agenda a próxima tentativa com espera exponencial, ou encerra as tentativas
+     * ao atingir {@code contatos.enrichment.max-attempts}.
+     */
+    private void registrarFalha(Contato contato) {
+        int tentativas = contato.getTentativasEndereco() + 1;
+        contato.setTentativasEndereco(tentativas);
+        if (tentativas >= properties.getMaxAttempts()) {
+            contato.setProximaTentativaEndereco(null);
+        } else {
+            long espera = Math.min(properties.getInitialBackoff().toMillis() << Math.min(tentativas - 1, 20),
+                    properties.getMaxBackoff().toMillis());
+            contato.setProximaTentativaEndereco(new Date(System.currentTimeMillis() + espera));
+        }
+    }
+
+    private static ThreadFactory threadFactory(String nome) {
+        AtomicInteger contador = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, nome + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,200 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import br.com.claro.testeclaro.config.StatisticsProperties;
+import br.com.claro.testeclaro.model.ContagemCidade;
+import br.com.claro.testeclaro.model.ContagemDia;
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.GrupoContato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.EstatisticasContatosService;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+/**
+ * Estatísticas dos contatos cadastrados, calculadas por consultas de agregação
+ * na base de dados, sem carregar os contatos.
+ * <p>
+ * Com {@code contatos.statistics.incremental}, as quantidades por cidade e por
+ * dia ficam em memória: são calculadas na inicialização, atualizadas a cada
+ * gravação ou exclusão feita pela aplicação e recalculadas periodicamente, então
+ * a consulta custa o número de grupos, e não o número de contatos. Alterações
+ * feitas por outras instâncias, diretamente na base de dados ou durante um
+ * recálculo só aparecem após o recálculo seguinte.
+ */
+@Service
+@RequiredArgsConstructor
+public class EstatisticasContatosServiceImpl implements EstatisticasContatosService, SmartLifecycle {
+    private static final Comparator<ContagemCidade> ORDEM_CIDADES = Comparator
+            .comparing(ContagemCidade::getUf)
+            .thenComparing(ContagemCidade::getCidade, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ContatoRepository repository;
+    private final StatisticsProperties properties;
+
+    /**
+     * Quantidades em memória, ou {@code null} enquanto não forem calculadas.
+     */
+    private volatile Agregado agregado;
+    private ScheduledExecutorService reconciliacao;
+
+    /**
+     * Estatísticas dos contatos, lidas da memória quando já calculadas ou
+     * agrupadas pela base de dados.
+     *
+     * @return quantidade de contatos por UF, por cidade e de cadastros por dia
+     */
+    @Override
+    public EstatisticasContatos consultar() {
+        Agregado atual = agregado;
+        if (atual != null) {
+            List<ContagemCidade> cidades = new ArrayList<>(atual.cidades.size());
+            atual.cidades.forEach((cidade, total) -> cidades.add(new ContagemCidade(cidade.uf, cidade.cidade, total)));
+            List<ContagemDia> dias = new ArrayList<>(atual.dias.size());
+            atual.dias.forEach((dia, total) -> dias.add(new ContagemDia(dia, total)));
+            return montar(cidades, dias);
+        }
+        return montar(repository.contarPorCidade(), repository.contarPorDia());
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return properties.isIncremental();
+    }
+
+    /**
+     * Atualiza as quantidades em memória após a gravação ou a exclusão de um
+     * contato.
+     *
+     * @param anterior grupo do contato antes da gravação, ou {@code null} caso o
+     *                 contato tenha sido incluído
+     * @param atual    grupo do contato após a gravação, ou {@code null} caso o
+     *                 contato tenha sido excluído
+     */
+    @Override
+    public void registrar(GrupoContato anterior, GrupoContato atual) {
+        Agregado atualizado = agregado;
+        if (atualizado == null) {
+            return;
+        }
+        if (anterior != null) {
+            atualizado.somar(anterior, -1);
+        }
+        if (atual != null) {
+            atualizado.somar(atual, 1);
+        }
+    }
+
+    /**
+     * Recalcula as quantidades em memória a partir da base de dados.
+     */
+    @Override
+    public void reconciliar() {
+        if (!properties.isIncremental()) {
+            return;
+        }
+        Agregado recalculado = new Agregado();
+        repository.contarPorCidade().forEach(contagem ->
+                recalculado.cidades.put(new Cidade(contagem.getUf(), contagem.getCidade()), contagem.getTotal()));
+        repository.contarPorDia().forEach(contagem -> recalculado.dias.put(contagem.getDia(), contagem.getTotal()));
+        agregado = recalculado;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isIncremental()) {
+            return;
+        }
+        reconciliacao = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "estatisticas-reconciliacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciliacao.scheduleWithFixedDelay(this::reconciliarPeriodicamente, 0,
+                properties.getReconcileInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (reconciliacao != null) {
+            reconciliacao.shutdownNow();
+            reconciliacao = null;
+        }
+        agregado = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reconciliacao != null;
+    }
+
+    private void reconciliarPeriodicamente() {
+        try {
+            reconciliar();
+        } catch (RuntimeException e) {
+            // mantém as quantidades atuais até o próximo recálculo
+        }
+    }
+
+    private static EstatisticasContatos montar(Collection<ContagemCidade> cidades, Collection<ContagemDia> dias) {
+        long total = 0;
+        long semEndereco = 0;
+        Map<String, Long> porUf = new TreeMap<>();
+        List<ContagemCidade> porCidade = new ArrayList<>(cidades.size());
+        for (ContagemCidade contagem : cidades) {
+            total += contagem.getTotal();
+            if (contagem.getUf() == null) {
+                semEndereco += contagem.getTotal();
+            } else {
+                porUf.merge(contagem.getUf(), contagem.getTotal(), Long::sum);
+                porCidade.add(contagem);
+            }
+        }
+        porCidade.sort(ORDEM_CIDADES);
+        Map<LocalDate, Long> cadastrosPorDia = new TreeMap<>();
+        dias.forEach(contagem -> cadastrosPorDia.put(contagem.getDia(), contagem.getTotal()));
+        return new EstatisticasContatos(total, semEndereco, porUf, porCidade, cadastrosPorDia);
+    }
+
+    @Value
+    private static class Cidade {
+        String uf;
+        String cidade;
+    }
+
+    /**
+     * Quantidades por cidade e por dia. Os grupos sem contatos são removidos,
+     * então o tamanho dos mapas acompanha o número de grupos existentes.
+     */
+    private static final class Agregado {
+        private final Map<Cidade, Long> cidades = new ConcurrentHashMap<>();
+        private final Map<LocalDate, Long> dias = new ConcurrentHashMap<>();
+
+        void somar(GrupoContato grupo, long quantidade) {
+            cidades.compute(new Cidade(grupo.getUf(), grupo.getCidade()), (cidade, total) -> soma(total, quantidade));
+            if (grupo.getDataCadastro() != null) {
+                dias.compute(ContagemDia.dia(grupo.getDataCadastro()), (dia, total) -> soma(total, quantidade));
+            }
+        }
+
+        private static Long soma(Long total, long quantidade) {
+            long soma = (total == null ? 0 : total) + quantidade;
+            return soma == 0 ? null : soma;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gera o índice binário da base local de CEPs, lido pela {@link BaseCepMapeada},
+ * a partir do CSV lido pela {@link BaseCepMemoria}:
+ * <pre>
+ * mvn compile -Pindice-cep -Dcep.csv=ceps.csv -Dcep.indice=ceps.idx [-Dcep.versao=20210901]
+ * </pre>
+ * O índice é gravado em um arquivo temporário no mesmo diretório e renomeado
+ * sobre o destino, então uma aplicação que esteja com o índice anterior mapeado
+ * em memória continua lendo o arquivo anterior até carregar o novo.
+ */
+public final class GeradorIndiceCep {
+
+    private GeradorIndiceCep() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Uso: GeradorIndiceCep <ceps.csv> <ceps.idx> [versão]");
+            System.exit(2);
+        }
+        // sem a versão, a data da geração (aaaammdd)
+        long versao = args.length == 3 && !args[2].trim().isEmpty()
+                ? Long.parseLong(args[2].trim())
+                : Long.parseLong(LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE));
+        long inicio = System.nanoTime();
+        BaseCepMemoria base = BaseCepMemoria.carregar(Paths.get(args[0]));
+        Path indice = Paths.get(args[1]);
+        gravar(base, indice, versao);
+        System.out.printf("%d CEPs gravados em %s (versão %d, %d bytes) em %d ms%n", base.tamanho(), indice, versao,
+                Files.size(indice), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Grava a base no formato descrito em {@link BaseCepMapeada}.
+     *
+     * @param base    base de CEPs carregada do CSV
+     * @param destino arquivo do índice, substituído caso exista
+     * @param versao  versão da base, gravada no cabeçalho do índice
+     * @throws IOException caso o índice não possa ser gravado
+     */
+    public static void gravar(BaseCepMemoria base, Path destino, long versao) throws IOException {
+        int tamanho = base.tamanho();
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> textos = new ArrayList<>();
+        int[] registros = new int[tamanho * 4];
+        for (int i = 0; i < tamanho; i++) {
+            registros[i * 4] = indice(base.logradouro(i), indices, textos);
+            registros[i * 4 + 1] = indice(base.bairro(i), indices, textos);
+            registros[i * 4 + 2] = indice(base.localidade(i), indices, textos);
+            registros[i * 4 + 3] = indice(base.uf(i), indices, textos);
+        }
+        int[] offsets = new int[textos.size() + 1];
+        ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        for (int i = 0; i < textos.size(); i++) {
+            byte[] bytes = textos.get(i).getBytes(StandardCharsets.UTF_8);
+            pool.write(bytes, 0, bytes.length);
+            offsets[i + 1] = pool.size();
+        }
+
+        long tamanhoArquivo = BaseCepMapeada.TAMANHO_CABECALHO
+                + (4L + BaseCepMapeada.TAMANHO_REGISTRO) * tamanho + 4L * offsets.length + pool.size();
+        if (tamanhoArquivo > Integer.MAX_VALUE) {
+            throw new IOException("Índice de CEPs maior que o limite de 2 GB");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanhoArquivo);
+        // position e rewind pela classe Buffer: compilados em um JDK 9 ou superior,
+        // os métodos de ByteBuffer não existem no Java 8
+        ((Buffer) buffer).position(BaseCepMapeada.TAMANHO_CABECALHO);
+        for (int i = 0; i < tamanho; i++) {
+            buffer.putInt(base.cep(i));
+        }
+        buffer.asIntBuffer().put(registros);
+        ((Buffer) buffer).position(buffer.position() + registros.length * 4);
+        buffer.asIntBuffer().put(offsets);
+        ((Buffer) buffer).position(buffer.position() + offsets.length * 4);
+        buffer.put(pool.toByteArray());
+
+        buffer.putInt(0, BaseCepMapeada.MAGIC);
+        buffer.putInt(4, BaseCepMapeada.FORMATO);
+        buffer.putLong(8, versao);
+        buffer.putInt(16, tamanho);
+        buffer.putInt(20, textos.size());
+        buffer.putLong(24, BaseCepMapeada.checksum(buffer));
+        ((Buffer) buffer).rewind();
+
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static int indice(String texto, Map<String, Integer> indices, List<String> textos) {
+        Integer indice = indices.get(texto);
+        if (indice == null) {
+            indice = textos.size();
+            indices.put(texto, indice);
+            textos.add(texto);
+        }
+        return indice;
+    }
+
+}
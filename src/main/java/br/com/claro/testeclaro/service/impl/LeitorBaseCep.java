@@ -0,0 +1,139 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.claro.testeclaro.util.CepUtils;
+
+/**
+ * Lê a base local de CEPs em CSV (UTF-8, separado por vírgulas), linha a linha.
+ * O cabeçalho deve ter as colunas {@code cep}, {@code logradouro},
+ * {@code bairro}, {@code localidade} e {@code uf}, em qualquer ordem; as demais
+ * colunas são ignoradas. Uma linha inválida interrompe a leitura, para que um
+ * arquivo incompleto não substitua a base carregada.
+ */
+final class LeitorBaseCep implements Closeable {
+    private static final List<String> CAMPOS = Arrays.asList("cep", "logradouro", "bairro", "localidade", "uf");
+    private static final int CEP = 0;
+    private static final int LOGRADOURO = 1;
+    private static final int BAIRRO = 2;
+    private static final int LOCALIDADE = 3;
+    private static final int UF = 4;
+
+    private final BufferedReader reader;
+    /**
+     * Posição na linha de cada um dos {@link #CAMPOS}.
+     */
+    private final int[] colunas = new int[CAMPOS.size()];
+    private final String[] valores = new String[CAMPOS.size()];
+    private long numero;
+    private int cep;
+
+    private LeitorBaseCep(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String linha = reader.readLine();
+        numero++;
+        List<String> cabecalho = linha == null
+                ? null
+                : LeitorImportacao.dividir(StringUtils.removeStart(linha, "\uFEFF"));
+        if (cabecalho == null) {
+            throw invalido("cabeçalho ausente ou inválido");
+        }
+        Arrays.fill(colunas, -1);
+        for (int i = 0; i < cabecalho.size(); i++) {
+            int campo = CAMPOS.indexOf(cabecalho.get(i).trim().toLowerCase());
+            if (campo >= 0) {
+                colunas[campo] = i;
+            }
+        }
+        for (int campo = 0; campo < colunas.length; campo++) {
+            if (colunas[campo] < 0) {
+                throw invalido("coluna " + CAMPOS.get(campo) + " ausente");
+            }
+        }
+    }
+
+    static LeitorBaseCep abrir(Path arquivo) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8);
+        try {
+            return new LeitorBaseCep(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Avança para o próximo CEP do arquivo, ignorando as linhas em branco.
+     *
+     * @return {@code false} ao final do arquivo
+     * @throws IOException caso a linha seja inválida
+     */
+    boolean proximo() throws IOException {
+        String linha;
+        do {
+            linha = reader.readLine();
+            numero++;
+        } while (linha != null && StringUtils.isBlank(linha));
+        if (linha == null) {
+            return false;
+        }
+        List<String> campos = LeitorImportacao.dividir(linha);
+        if (campos == null) {
+            throw invalido("aspas não fechadas");
+        }
+        for (int campo = 0; campo < colunas.length; campo++) {
+            if (colunas[campo] >= campos.size()) {
+                throw invalido("a linha deve ter ao menos " + (colunas[campo] + 1) + " campos");
+            }
+            valores[campo] = campos.get(colunas[campo]).trim();
+        }
+        String cepNormalizado = CepUtils.normalize(valores[CEP]);
+        if (cepNormalizado == null) {
+            throw invalido("CEP inválido: " + valores[CEP]);
+        }
+        cep = Integer.parseInt(cepNormalizado);
+        return true;
+    }
+
+    /**
+     * @return o CEP da linha atual como número (os 8 dígitos, sem a máscara)
+     */
+    int getCep() {
+        return cep;
+    }
+
+    String getLogradouro() {
+        return valores[LOGRADOURO];
+    }
+
+    String getBairro() {
+        return valores[BAIRRO];
+    }
+
+    String getLocalidade() {
+        return valores[LOCALIDADE];
+    }
+
+    String getUf() {
+        return valores[UF];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private IOException invalido(String motivo) {
+        return new IOException("Base de CEPs inválida na linha " + numero + ": " + motivo);
+    }
+
+}
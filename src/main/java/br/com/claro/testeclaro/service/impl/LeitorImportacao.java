@@ -0,0 +1,309 @@
+package br.com.claro.testeclaro.service.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Lê os contatos de uma importação em lote um a um, sem carregar o arquivo
+ * inteiro em memória. Um contato em formato inválido é devolvido como uma linha
+ * com erro, para que as demais linhas continuem sendo importadas.
+ */
+abstract class LeitorImportacao implements Closeable {
+    private static final List<String> CAMPOS_CSV = Arrays.asList("email", "nome", "telefone", "cep");
+
+    /**
+     * Linha lida do arquivo: o contato ou o motivo pelo qual não foi possível
+     * lê-lo.
+     */
+    static final class Linha {
+        private final long numero;
+        private final Contato contato;
+        private final String erro;
+
+        private Linha(long numero, Contato contato, String erro) {
+            this.numero = numero;
+            this.contato = contato;
+            this.erro = erro;
+        }
+
+        long getNumero() {
+            return numero;
+        }
+
+        Contato getContato() {
+            return contato;
+        }
+
+        String getErro() {
+            return erro;
+        }
+    }
+
+    static LeitorImportacao abrir(InputStream in, Charset charset, FormatoImportacao formato,
+                                  ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+        ObjectReader contatoReader = objectMapper.readerFor(Contato.class);
+        switch (formato) {
+            case JSON:
+                return new Json(objectMapper.getFactory().createParser(reader), objectMapper, contatoReader);
+            case NDJSON:
+                return new Ndjson(reader, contatoReader);
+            default:
+                return new Csv(reader);
+        }
+    }
+
+    /**
+     * @return a próxima linha, ou {@code null} ao final do arquivo
+     */
+    abstract Linha proxima() throws IOException;
+
+    static Linha contato(long numero, Contato contato) {
+        return new Linha(numero, contato, null);
+    }
+
+    static Linha erro(long numero, String erro) {
+        return new Linha(numero, null, erro);
+    }
+
+    static String formatoInvalido(JsonMappingException e) {
+        String campo = e.getPath().isEmpty() ? null : e.getPath().get(e.getPath().size() - 1).getFieldName();
+        return campo == null ? "Contato em formato inválido" : "Campo " + campo + " em formato inválido";
+    }
+
+    static ResponseStatusException arquivoInvalido(String motivo) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erro ao importar contatos, " + motivo);
+    }
+
+    private static final class Json extends LeitorImportacao {
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private final ObjectReader contatoReader;
+        private long posicao;
+        private boolean fim;
+
+        private Json(JsonParser parser, ObjectMapper objectMapper, ObjectReader contatoReader) throws IOException {
+            this.parser = parser;
+            this.objectMapper = objectMapper;
+            this.contatoReader = contatoReader;
+            try {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw arquivoInvalido("o corpo deve ser um array JSON");
+                }
+            } catch (JsonParseException e) {
+                throw arquivoInvalido("o corpo deve ser um array JSON");
+            }
+        }
+
+        @Override
+        Linha proxima() throws IOException {
+            if (fim) {
+                return null;
+            }
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY || token == null) {
+                    fim = true;
+                    return null;
+                }
+                posicao++;
+                JsonNode node = objectMapper.readTree(parser);
+                if (!node.isObject()) {
+                    return erro(posicao, "Contato em formato inválido");
+                }
+                try {
+                    return contato(posicao, contatoReader.treeToValue(node, Contato.class));
+                } catch (JsonMappingException e) {
+                    return erro(posicao, formatoInvalido(e));
+                }
+            } catch (JsonParseException e) {
+                // não é possível continuar a leitura após um erro de sintaxe
+                fim = true;
+                return erro(posicao, "JSON inválido, a importação foi interrompida nesta posição");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static final class Ndjson extends LeitorImportacao {
+        private final BufferedReader reader;
+        private final ObjectReader contatoReader;
+        private long numero;
+
+        private Ndjson(BufferedReader reader, ObjectReader contatoReader) {
+            this.reader = reader;
+            this.contatoReader = contatoReader;
+        }
+
+        @Override
+        Linha proxima() throws IOException {
+            String linha;
+            do {
+                linha = reader.readLine();
+                numero++;
+            } while (linha != null && StringUtils.isBlank(linha));
+            if (linha == null) {
+                return null;
+            }
+            try {
+                return contato(numero, contatoReader.readValue(linha));
+            } catch (JsonMappingException e) {
+                return erro(numero, formatoInvalido(e));
+            } catch (JsonProcessingException e) {
+                return erro(numero, "JSON inválido");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Divide uma linha de CSV separada por vírgulas, com campos opcionalmente
+     * entre aspas duplas ({@code ""} dentro de um campo entre aspas representa
+     * uma aspa). Também usado na leitura da base local de CEPs.
+     *
+     * @return os campos da linha, ou {@code null} caso uma aspa não tenha sido
+     *         fechada
+     */
+    static List<String> dividir(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreAspas) {
+            return null;
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * CSV separado por vírgulas, com campos opcionalmente entre aspas duplas
+     * ({@code ""} dentro de um campo entre aspas representa uma aspa). Campos
+     * com quebra de linha não são aceitos.
+     */
+    private static final class Csv extends LeitorImportacao {
+        private final BufferedReader reader;
+        private final List<String> cabecalho;
+        private long numero;
+
+        private Csv(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String linha = reader.readLine();
+            numero++;
+            if (linha == null) {
+                cabecalho = null;
+                return;
+            }
+            List<String> campos = dividir(StringUtils.removeStart(linha, "\uFEFF"));
+            if (campos == null) {
+                throw arquivoInvalido("cabeçalho do CSV inválido");
+            }
+            cabecalho = new ArrayList<>(campos.size());
+            for (String campo : campos) {
+                String nome = campo.trim().toLowerCase();
+                if (!CAMPOS_CSV.contains(nome)) {
+                    throw arquivoInvalido("coluna desconhecida no CSV: " + campo.trim());
+                }
+                if (cabecalho.contains(nome)) {
+                    throw arquivoInvalido("coluna repetida no CSV: " + campo.trim());
+                }
+                cabecalho.add(nome);
+            }
+        }
+
+        @Override
+        Linha proxima() throws IOException {
+            if (cabecalho == null) {
+                return null;
+            }
+            String linha;
+            do {
+                linha = reader.readLine();
+                numero++;
+            } while (linha != null && StringUtils.isBlank(linha));
+            if (linha == null) {
+                return null;
+            }
+            List<String> valores = dividir(linha);
+            if (valores == null) {
+                return erro(numero, "Linha do CSV com aspas não fechadas");
+            }
+            if (valores.size() != cabecalho.size()) {
+                return erro(numero, "Linha do CSV deve ter " + cabecalho.size() + " campos");
+            }
+            Contato contato = new Contato();
+            for (int i = 0; i < valores.size(); i++) {
+                String valor = StringUtils.trimToNull(valores.get(i));
+                switch (cabecalho.get(i)) {
+                    case "email":
+                        contato.setEmail(valor);
+                        break;
+                    case "nome":
+                        contato.setNome(valor);
+                        break;
+                    case "telefone":
+                        contato.setTelefone(valor);
+                        break;
+                    default:
+                        contato.setCep(valor);
+                }
+            }
+            return contato(numero, contato);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+}
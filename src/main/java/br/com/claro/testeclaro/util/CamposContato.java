@@ -0,0 +1,176 @@
+package br.com.claro.testeclaro.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+
+/**
+ * Campos do {@link Contato} que podem ser alterados no PATCH.
+ * <p>
+ * A tabela é montada uma única vez, na carga da classe: cada campo tem o setter
+ * do Lombok compilado em um {@link BiConsumer} com o
+ * {@link LambdaMetafactory}, então cada requisição só consulta a tabela e chama
+ * o setter, sem buscar o campo por reflexão. Os
+ * valores recebidos no JSON são convertidos para o tipo do campo; datas seguem
+ * o {@link JsonFormat} do campo, no fuso horário padrão do Jackson (UTC).
+ */
+public final class CamposContato {
+
+    /**
+     * O e-mail é a chave do contato e os campos de endereço são preenchidos a
+     * partir do CEP, então não podem ser alterados diretamente.
+     */
+    private static final List<String> ATUALIZAVEIS = Arrays.asList("nome", "telefone", "cep", "dataCadastro");
+    private static final Map<String, Campo> CAMPOS = criarCampos();
+
+    private CamposContato() {
+    }
+
+    /**
+     * @param nome nome do campo no JSON
+     * @return o campo, ou {@code null} caso não exista ou não possa ser alterado
+     */
+    public static Campo campo(String nome) {
+        return CAMPOS.get(nome);
+    }
+
+    /**
+     * Campo do contato com o conversor do valor recebido e o setter compilado.
+     */
+    public static final class Campo {
+        private final String nome;
+        private final Function<Object, Object> conversor;
+        private final BiConsumer<Contato, Object> setter;
+
+        private Campo(String nome, Function<Object, Object> conversor, BiConsumer<Contato, Object> setter) {
+            this.nome = nome;
+            this.conversor = conversor;
+            this.setter = setter;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * @param valor valor recebido no JSON
+         * @return o valor no tipo do campo
+         * @throws IllegalArgumentException caso o valor não possa ser convertido
+         */
+        public Object converter(Object valor) {
+            return valor == null ? null : conversor.apply(valor);
+        }
+
+        /**
+         * @param valor valor já convertido por {@link #converter(Object)}
+         */
+        public void atribuir(Contato contato, Object valor) {
+            setter.accept(contato, valor);
+        }
+    }
+
+    private static Map<String, Campo> criarCampos() {
+        Map<String, Campo> campos = new HashMap<>();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (PropertyDescriptor propriedade : Introspector.getBeanInfo(Contato.class).getPropertyDescriptors()) {
+                if (ATUALIZAVEIS.contains(propriedade.getName())) {
+                    campos.put(propriedade.getName(), new Campo(propriedade.getName(),
+                            conversor(propriedade), setter(lookup, propriedade)));
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException(e);
+        }
+        if (campos.size() != ATUALIZAVEIS.size()) {
+            throw new IllegalStateException("Campos atualizáveis sem setter em Contato: " + ATUALIZAVEIS);
+        }
+        return Collections.unmodifiableMap(campos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Contato, Object> setter(MethodHandles.Lookup lookup, PropertyDescriptor propriedade) {
+        try {
+            MethodHandle setter = lookup.unreflect(propriedade.getWriteMethod());
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setter, setter.type());
+            return (BiConsumer<Contato, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Não foi possível criar o setter do campo " + propriedade.getName(), e);
+        }
+    }
+
+    private static Function<Object, Object> conversor(PropertyDescriptor propriedade) {
+        Class<?> tipo = propriedade.getPropertyType();
+        if (tipo == String.class) {
+            return valor -> {
+                // String primeiro: é o caso comum e o teste mais barato
+                if (valor instanceof String) {
+                    return valor;
+                }
+                if (valor instanceof Number || valor instanceof Boolean) {
+                    return valor.toString();
+                }
+                throw new IllegalArgumentException(propriedade.getName());
+            };
+        }
+        if (tipo == Date.class) {
+            return conversorData(propriedade);
+        }
+        throw new IllegalStateException("Tipo não suportado no campo " + propriedade.getName() + ": " + tipo);
+    }
+
+    private static Function<Object, Object> conversorData(PropertyDescriptor propriedade) {
+        JsonFormat formato;
+        try {
+            formato = Contato.class.getDeclaredField(propriedade.getName()).getAnnotation(JsonFormat.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        if (formato == null || formato.pattern().isEmpty()) {
+            throw new IllegalStateException("Campo " + propriedade.getName() + " sem @JsonFormat");
+        }
+        ZoneId fusoHorario = JsonFormat.DEFAULT_TIMEZONE.equals(formato.timezone())
+                ? ZoneId.of("UTC")
+                : TimeZone.getTimeZone(formato.timezone()).toZoneId();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(formato.pattern());
+        return valor -> {
+            if (valor instanceof Number) {
+                return new Date(((Number) valor).longValue());
+            }
+            if (!(valor instanceof String)) {
+                throw new IllegalArgumentException(propriedade.getName());
+            }
+            try {
+                return Date.from(LocalDateTime.parse((String) valor, formatter).atZone(fusoHorario).toInstant());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(propriedade.getName(), e);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,31 @@
+package br.com.claro.testeclaro.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+public final class CepUtils {
+
+    private static final int TAMANHO_CEP = 8;
+
+    private CepUtils() {
+    }
+
+    /**
+     * Remove a máscara do CEP informado, para que "79002-000" e "79002000" sejam
+     * tratados como o mesmo CEP.
+     *
+     * @param cep cep informado no cadastro, com ou sem máscara
+     * @return os 8 dígitos do CEP, ou {@code null} caso o valor informado não seja
+     *         um CEP em formato válido
+     */
+    public static String normalize(String cep) {
+        if (StringUtils.isBlank(cep)) {
+            return null;
+        }
+        String digitos = StringUtils.remove(cep.trim(), '-');
+        if (digitos.length() != TAMANHO_CEP || !StringUtils.isNumeric(digitos)) {
+            return null;
+        }
+        return digitos;
+    }
+
+}
@@ -0,0 +1,63 @@
+package br.com.claro.testeclaro.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+import br.com.claro.testeclaro.model.Cursor;
+
+public final class CursorUtils {
+
+    private static final int VERSAO = 1;
+
+    private CursorUtils() {
+    }
+
+    /**
+     * Codifica o cursor em um texto opaco, seguro para uso na URL.
+     *
+     * @param cursor posição do último registro da página
+     * @return cursor codificado em Base64
+     */
+    public static String encode(Cursor cursor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSAO);
+            out.writeUTF(cursor.getCampo());
+            out.writeBoolean(cursor.isCrescente());
+            out.writeUTF(cursor.getValor());
+            out.writeUTF(cursor.getEmail());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodifica um cursor gerado por {@link #encode(Cursor)}.
+     *
+     * @param cursor cursor informado na requisição
+     * @return posição do último registro da página anterior
+     * @throws IllegalArgumentException caso o cursor não seja válido
+     */
+    public static Cursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSAO) {
+                throw new IllegalArgumentException("Versão do cursor não suportada");
+            }
+            Cursor decodificado = new Cursor(in.readUTF(), in.readBoolean(), in.readUTF(), in.readUTF());
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return decodificado;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+}
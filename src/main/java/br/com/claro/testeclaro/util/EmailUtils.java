@@ -0,0 +1,28 @@
+package br.com.claro.testeclaro.util;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+public final class EmailUtils {
+
+    private EmailUtils() {
+    }
+
+    /**
+     * Normaliza o e-mail informado para comparar chaves de contatos como o
+     * MySQL, para quem "Contato@Teste.com" e "contato@teste.com" são o mesmo
+     * contato.
+     *
+     * @param email e-mail informado na requisição
+     * @return o e-mail em minúsculas, ou {@code null} caso o valor informado
+     *         esteja em branco
+     */
+    public static String normalize(String email) {
+        if (StringUtils.isBlank(email)) {
+            return null;
+        }
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+}
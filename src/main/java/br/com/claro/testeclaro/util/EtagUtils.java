@@ -0,0 +1,90 @@
+package br.com.claro.testeclaro.util;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.entity.Contato;
+
+public final class EtagUtils {
+
+    private static final String QUALQUER = "*";
+    private static final String FRACO = "W/";
+
+    private EtagUtils() {
+    }
+
+    /**
+     * ETag forte do contato, formado pela versão e pela data da última gravação,
+     * para que um contato excluído e cadastrado novamente não repita o ETag do
+     * anterior.
+     */
+    public static String etag(Contato contato) {
+        return "\"" + contato.getVersao() + "-" + milissegundos(contato.getDataAtualizacao()) + "\"";
+    }
+
+    /**
+     * ETag forte de uma listagem, calculado a partir do e-mail, da versão e da
+     * data da última gravação de cada contato retornado, sem serializar os
+     * contatos. Qualquer inclusão, alteração ou exclusão de um contato da
+     * listagem altera o ETag.
+     */
+    public static String etag(List<Contato> contatos) {
+        return "\"" + resumir(contatos, null) + "\"";
+    }
+
+    /**
+     * ETag forte de uma página, calculado a partir dos contatos da página e do
+     * cursor da próxima página, sem consultar os demais contatos.
+     */
+    public static String etag(Pagina<Contato> pagina) {
+        return "\"" + resumir(pagina.getConteudo(), pagina.getProximoCursor()) + "\"";
+    }
+
+    /**
+     * Verifica o cabeçalho {@code If-Match} com a comparação forte: ETags fracos
+     * nunca correspondem.
+     *
+     * @param ifMatch valor do cabeçalho, com um ou mais ETags separados por
+     *                vírgula, ou {@code *}
+     * @param etag    ETag atual do recurso
+     * @return {@code true} caso algum dos ETags informados seja o atual
+     */
+    public static boolean corresponde(String ifMatch, String etag) {
+        for (String informado : StringUtils.split(ifMatch, ',')) {
+            String valor = informado.trim();
+            if (QUALQUER.equals(valor) || !valor.startsWith(FRACO) && valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String resumir(List<Contato> contatos, String proximoCursor) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Contato contato : contatos) {
+            digest.update((contato.getEmail() + ":" + contato.getVersao() + ":"
+                    + milissegundos(contato.getDataAtualizacao()) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if (proximoCursor != null) {
+            digest.update(proximoCursor.getBytes(StandardCharsets.UTF_8));
+        }
+        return new BigInteger(1, digest.digest()).toString(16);
+    }
+
+    private static long milissegundos(Date data) {
+        return data == null ? 0 : data.getTime();
+    }
+
+}
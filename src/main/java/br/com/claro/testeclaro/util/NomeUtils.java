@@ -0,0 +1,28 @@
+package br.com.claro.testeclaro.util;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+public final class NomeUtils {
+
+    private NomeUtils() {
+    }
+
+    /**
+     * Normaliza o nome para a busca por prefixo, para que "Maria", "maria" e
+     * "MARIA" encontrem os mesmos contatos usando o índice da coluna, sem aplicar
+     * funções à coluna na consulta.
+     *
+     * @param nome nome do contato ou prefixo informado na busca
+     * @return o nome sem espaços nas extremidades e em minúsculas, ou
+     *         {@code null} caso o valor informado esteja em branco
+     */
+    public static String normalize(String nome) {
+        if (StringUtils.isBlank(nome)) {
+            return null;
+        }
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
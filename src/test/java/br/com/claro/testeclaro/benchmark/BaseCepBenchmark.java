@@ -0,0 +1,197 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.client.ViaCepClient;
+import br.com.claro.testeclaro.config.ViaCepConfig;
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.BaseCepLocal;
+import br.com.claro.testeclaro.service.impl.BaseCepMapeada;
+import br.com.claro.testeclaro.service.impl.BaseCepMemoria;
+import br.com.claro.testeclaro.service.impl.GeradorIndiceCep;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tempo de carga, memória ocupada e latência das consultas da base local de
+ * CEPs no heap ({@link BaseCepMemoria}) e mapeada em memória
+ * ({@link BaseCepMapeada}), comparadas a um {@code HashMap<String, Endereco>} com
+ * um objeto por CEP e à consulta HTTP ao ViaCEP (stub local, sem atraso), sobre
+ * uma base com a ordem de grandeza da base de CEPs do Brasil.
+ */
+@Tag("benchmark")
+@DisplayName("Base local de CEPs: heap x índice mapeado x HashMap de endereços x HTTP")
+class BaseCepBenchmark {
+    private static final int CEPS = 1_000_000;
+    private static final int LOGRADOUROS = 400_000;
+    private static final int BAIRROS = 30_000;
+    private static final int LOCALIDADES = 5_570;
+    private static final String[] UFS = {"AC", "AL", "AM", "AP", "BA", "CE", "DF", "ES", "GO", "MA", "MG", "MS",
+            "MT", "PA", "PB", "PE", "PI", "PR", "RJ", "RN", "RO", "RR", "RS", "SC", "SE", "SP", "TO"};
+    private static final int THREADS = 8;
+    private static final int CONSULTAS = 2_000_000;
+    private static final int CONSULTAS_HTTP = 20_000;
+
+    private static Path arquivo;
+    private static Path indice;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        // sem o contexto do Spring o logback fica em DEBUG, o que distorce as medições
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        arquivo = Files.createTempFile("ceps", ".csv");
+        indice = Files.createTempFile("ceps", ".idx");
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.write("cep,logradouro,bairro,localidade,uf\n");
+            for (int i = 0; i < CEPS; i++) {
+                int localidade = i % LOCALIDADES;
+                writer.write(String.format("%s,Rua %d,Bairro %d,Cidade %d,%s%n", cep(i), i % LOGRADOUROS,
+                        i % BAIRROS, localidade, UFS[localidade % UFS.length]));
+            }
+        }
+        GeradorIndiceCep.gravar(BaseCepMemoria.carregar(arquivo), indice, 1);
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        Files.deleteIfExists(arquivo);
+        Files.deleteIfExists(indice);
+    }
+
+    @Test
+    @DisplayName("Carga, memória e consultas")
+    void compararBases() throws Exception {
+        System.out.printf("%d CEPs, CSV de %d MB, índice de %d MB%n", CEPS, Files.size(arquivo) >> 20,
+                Files.size(indice) >> 20);
+
+        long antes = heapUsado();
+        long inicio = System.nanoTime();
+        BaseCepLocal base = BaseCepMemoria.carregar(arquivo);
+        long cargaBase = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        long memoriaBase = heapUsado() - antes;
+
+        antes = heapUsado();
+        inicio = System.nanoTime();
+        BaseCepLocal mapeada = BaseCepMapeada.abrir(indice);
+        long cargaMapeada = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        long memoriaMapeada = heapUsado() - antes;
+
+        antes = heapUsado();
+        inicio = System.nanoTime();
+        Map<String, Endereco> mapa = carregarMapa();
+        long cargaMapa = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        long memoriaMapa = heapUsado() - antes;
+
+        // metade dos CEPs consultados não está na base
+        String[] ceps = new String[CEPS * 2];
+        for (int i = 0; i < ceps.length; i++) {
+            ceps[i] = cep(i);
+        }
+        Medidor.medir("aquecimento", THREADS, CONSULTAS / 4, i -> base.buscar(ceps[i % ceps.length]));
+        Medidor.medir("aquecimento", THREADS, CONSULTAS / 4, i -> mapeada.buscar(ceps[i % ceps.length]));
+        Medidor.medir("aquecimento", THREADS, CONSULTAS / 4, i -> mapa.get(ceps[i % ceps.length]));
+        Medidor consultasBase = Medidor.medir("BaseCepMemoria", THREADS, CONSULTAS,
+                i -> base.buscar(ceps[(int) (i * 7919L % ceps.length)]));
+        Medidor consultasMapeada = Medidor.medir("BaseCepMapeada", THREADS, CONSULTAS,
+                i -> mapeada.buscar(ceps[(int) (i * 7919L % ceps.length)]));
+        Medidor consultasMapa = Medidor.medir("HashMap<String, Endereco>", THREADS, CONSULTAS,
+                i -> Optional.ofNullable(mapa.get(ceps[(int) (i * 7919L % ceps.length)])));
+        Medidor consultasHttp = consultarViaCep();
+
+        System.out.printf("%-40s carga=%6d ms  heap=%6d MB%n", "BaseCepMemoria", cargaBase, memoriaBase >> 20);
+        System.out.printf("%-40s carga=%6d ms  heap=%6d MB%n", "BaseCepMapeada", cargaMapeada,
+                memoriaMapeada >> 20);
+        System.out.printf("%-40s carga=%6d ms  heap=%6d MB%n", "HashMap<String, Endereco>", cargaMapa,
+                memoriaMapa >> 20);
+        System.out.println(consultasBase);
+        System.out.println(consultasMapeada);
+        System.out.println(consultasMapa);
+        System.out.println(consultasHttp);
+        assertEquals(CEPS, base.tamanho());
+        assertEquals(CEPS, mapeada.tamanho());
+        assertEquals(CEPS, mapa.size());
+        assertEquals(0, consultasBase.erros());
+        assertEquals(0, consultasMapeada.erros());
+        assertEquals(0, consultasHttp.erros());
+    }
+
+    /**
+     * Consultas ao ViaCEP pelo {@link ViaCepClient}, com o pool de conexões, em
+     * um stub local que responde qualquer CEP: o menor custo possível de uma
+     * consulta que sai da aplicação.
+     */
+    private static Medidor consultarViaCep() throws Exception {
+        ViaCepStub viaCep = ViaCepStub.iniciar().qualquerCep();
+        ViaCepProperties properties = new ViaCepProperties();
+        properties.setUrl(viaCep.url());
+        properties.getHttp().setMaxConnectionsPerHost(THREADS);
+        ViaCepConfig config = new ViaCepConfig();
+        try (CloseableHttpClient httpClient = config.viaCepHttpClient(properties)) {
+            ViaCepClient viaCepClient = new ViaCepClient(config.viaCepRestTemplate(config.viaCepRequestFactory(httpClient, properties)),
+                    WebClient.builder().build(), properties);
+            Medidor.medir("aquecimento", THREADS, CONSULTAS_HTTP / 4, i -> viaCepClient.findByCEP(cep(i)));
+            return Medidor.medir("ViaCEP (HTTP local)", THREADS, CONSULTAS_HTTP, i -> viaCepClient.findByCEP(cep(i)));
+        } finally {
+            viaCep.parar();
+        }
+    }
+
+    /**
+     * Carga equivalente à anterior, com um {@link Endereco} por CEP e os textos
+     * lidos de cada linha.
+     */
+    private static Map<String, Endereco> carregarMapa() throws IOException {
+        Map<String, Endereco> mapa = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                String[] campos = linha.split(",");
+                Endereco endereco = new Endereco();
+                endereco.setCep(campos[0].substring(0, 5) + "-" + campos[0].substring(5));
+                endereco.setLogradouro(campos[1]);
+                endereco.setBairro(campos[2]);
+                endereco.setLocalidade(campos[3]);
+                endereco.setUf(campos[4]);
+                mapa.put(campos[0], endereco);
+            }
+        }
+        return mapa;
+    }
+
+    private static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * CEPs espalhados entre 01000000 e 99999999; os índices a partir de
+     * {@link #CEPS} geram CEPs que não estão na base.
+     */
+    private static String cep(int i) {
+        return String.format("%08d", 1_000_000 + i * 49L);
+    }
+
+}
@@ -0,0 +1,132 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste de carga do POST não bloqueante contra um ViaCEP lento, com poucas
+ * threads no Tomcat. O PUT, que ainda consulta o CEP de forma bloqueante, serve
+ * de comparação: cada requisição ocupa uma thread do Tomcat durante toda a
+ * consulta, enquanto o POST libera a thread até o ViaCEP responder.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + ContatoAsyncBenchmark.THREADS_TOMCAT,
+        "server.tomcat.threads.min-spare=" + ContatoAsyncBenchmark.THREADS_TOMCAT,
+        "viacep.http.max-connections=256",
+        "viacep.http.max-connections-per-host=256",
+        "viacep.http.read-timeout=5s",
+        "viacep.http.pool-timeout=5s",
+        "viacep.http.deadline=10s",
+        "viacep.bulkhead.max-concurrent-calls=256",
+        "viacep.circuit-breaker.slow-call-duration=10s",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@DisplayName("Carga do cadastro de contatos com ViaCEP lento")
+class ContatoAsyncBenchmark {
+    static final int THREADS_TOMCAT = 8;
+    private static final int THREADS_CLIENTE = 64;
+    private static final int REQUISICOES = 640;
+    private static final long ATRASO_VIACEP = 500;
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar().qualquerCep().atraso(ATRASO_VIACEP);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ContatoRepository repository;
+
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        httpClient = HttpClients.custom()
+                .setMaxConnTotal(THREADS_CLIENTE)
+                .setMaxConnPerRoute(THREADS_CLIENTE)
+                .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+    }
+
+    @Test
+    @DisplayName("POST não bloqueante x PUT bloqueante")
+    void compararPostEPut() throws Exception {
+        String url = "http://localhost:" + port + "/api/contatos";
+
+        List<Contato> existentes = new ArrayList<>();
+        for (int i = 0; i < REQUISICOES; i++) {
+            existentes.add(Contato.builder()
+                    .email("put" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep("79000000")
+                    .endereco("Rua 79000000, Centro")
+                    .cidade("Campo Grande")
+                    .uf("MS")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.saveAll(existentes);
+
+        // aquecimento
+        Medidor.medir("aquecimento", THREADS_CLIENTE, 200,
+                i -> restTemplate.postForEntity(url, contato("aquecimento" + i + "@teste.com", 30_000_000 + i), Contato.class));
+
+        Medidor post = Medidor.medir("POST (não bloqueante)", THREADS_CLIENTE, REQUISICOES,
+                i -> restTemplate.postForEntity(url, contato("post" + i + "@teste.com", 10_000_000 + i), Contato.class));
+        Medidor put = Medidor.medir("PUT (bloqueante)", THREADS_CLIENTE, REQUISICOES,
+                i -> restTemplate.put(url + "/put" + i + "@teste.com", contato(null, 20_000_000 + i)));
+
+        System.out.printf("Tomcat com %d threads, ViaCEP com %d ms de latência, %d clientes simultâneos%n",
+                THREADS_TOMCAT, ATRASO_VIACEP, THREADS_CLIENTE);
+        System.out.println(post);
+        System.out.println(put);
+        assertEquals(0, post.erros());
+    }
+
+    private static Contato contato(String email, int cep) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato de carga")
+                .telefone("(67) 99999-9999")
+                .cep(String.format("%08d", cep))
+                .build();
+    }
+
+}
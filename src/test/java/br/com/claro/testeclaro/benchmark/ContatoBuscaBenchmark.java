@@ -0,0 +1,182 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.util.NomeUtils;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara a busca de contatos com e sem os índices das colunas filtradas, em uma
+ * base H2 com um milhão de contatos. O índice escolhido pelo H2 para cada busca
+ * é impresso e conferido antes da medição; sem os índices, a busca percorre a
+ * tabela ou a chave primária até encontrar a página. Executar com
+ * {@code mvn test -Pbenchmark -Dtest=ContatoBuscaBenchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@DisplayName("Desempenho da busca de contatos com e sem índices")
+class ContatoBuscaBenchmark {
+    private static final int CONTATOS = 1_000_000;
+    private static final int LOTE = 10_000;
+    private static final int TAMANHO = 50;
+    private static final int EXECUCOES = 200;
+    private static final int EXECUCOES_SEM_INDICE = 10;
+    private static final String[] INDICES = {
+            "idx_contato_nome_busca on contato (nome_busca, email)",
+            "idx_contato_cidade on contato (cidade, email)",
+            "idx_contato_uf on contato (uf, email)",
+            "idx_contato_uf_nome_busca on contato (uf, nome_busca, email)",
+            "idx_contato_cep on contato (cep, email)"
+    };
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, IntFunction<FiltroContatos>> buscas = new LinkedHashMap<>();
+    /**
+     * Índice que deve ser escolhido pelo H2 para cada busca.
+     */
+    private final Map<String, String> indices = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        // o H2 fica muito lento em transações com centenas de milhares de INSERTs, então a base é preenchida em lotes
+        for (int inicio = 1; inicio <= CONTATOS; inicio += LOTE) {
+            jdbcTemplate.update("insert into contato (email, nome, nome_busca, telefone, cep, endereco, cidade, uf,"
+                    + " data_cadastro, versao, endereco_pendente, tentativas_endereco)"
+                    + " select 'busca' || x || '@teste.com', 'Contato ' || x, 'contato ' || x, '(67) 99999-9999',"
+                    + " lpad(mod(x * 7919, 100000000), 8, '0'), 'Rua 14 de Julho, Centro', 'Cidade ' || mod(x, 5000),"
+                    + " substring('ACALAMAPBACEDFESGOMAMGMSMTPAPBPEPIPRRJRNRORRRSSCSESPTO', 2 * mod(x, 27) + 1, 2),"
+                    + " current_timestamp, 0, false, 0 from system_range(?, ?)", inicio, inicio + LOTE - 1);
+        }
+
+        // o ANALYZE atualiza a seletividade das colunas, usada pelo H2 na escolha do índice
+        jdbcTemplate.execute("analyze");
+
+        // os filtros mudam a cada execução porque o H2 reaproveita o resultado de uma consulta repetida
+        buscas.put("nome", i -> FiltroContatos.builder().nome("CONTATO " + (10_000 + i)).build());
+        buscas.put("cidade", i -> FiltroContatos.builder().cidade("Cidade " + i).build());
+        buscas.put("uf", i -> FiltroContatos.builder().uf(i % 2 == 0 ? "ms" : "sp").build());
+        buscas.put("cep", i -> FiltroContatos.builder().cep(String.format("%08d", (1_000L + i) * 7919 % 100_000_000)).build());
+        buscas.put("nome + uf", i -> FiltroContatos.builder().nome("contato " + (1_000 + i)).uf("MS").build());
+        indices.put("nome", "IDX_CONTATO_NOME_BUSCA");
+        indices.put("cidade", "IDX_CONTATO_CIDADE");
+        indices.put("uf", "IDX_CONTATO_UF");
+        indices.put("cep", "IDX_CONTATO_CEP");
+        indices.put("nome + uf", "IDX_CONTATO_UF_NOME_BUSCA");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String indice : INDICES) {
+            jdbcTemplate.execute("create index if not exists " + indice);
+        }
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Busca pelo nome, cidade, UF e CEP com os índices x varredura da tabela")
+    void compararComESemIndices() throws Exception {
+        for (Map.Entry<String, IntFunction<FiltroContatos>> busca : buscas.entrySet()) {
+            FiltroContatos filtro = busca.getValue().apply(0);
+            assertFalse(contatoService.buscar(filtro, null, TAMANHO).getConteudo().isEmpty(), busca.getKey());
+            String plano = plano(filtro);
+            System.out.println(busca.getKey() + ": " + plano);
+            assertTrue(plano.startsWith("PUBLIC." + indices.get(busca.getKey()) + ":"), plano);
+            if (filtro.getUf() != null) {
+                // a página é lida na ordem do índice, sem ordenar todos os contatos da UF
+                assertTrue(plano.endsWith("index sorted"), plano);
+            }
+        }
+        Map<String, Medidor> comIndices = medir("com índices", EXECUCOES);
+
+        for (String indice : INDICES) {
+            jdbcTemplate.execute("drop index " + indice.substring(0, indice.indexOf(' ')));
+        }
+        for (Map.Entry<String, IntFunction<FiltroContatos>> busca : buscas.entrySet()) {
+            System.out.println(busca.getKey() + ": " + plano(busca.getValue().apply(0)));
+        }
+        Map<String, Medidor> semIndices = medir("sem índices", EXECUCOES_SEM_INDICE);
+
+        System.out.printf("%d contatos, páginas de %d%n", CONTATOS, TAMANHO);
+        for (String nome : buscas.keySet()) {
+            System.out.println(comIndices.get(nome));
+            System.out.println(semIndices.get(nome));
+            assertEquals(0, comIndices.get(nome).erros());
+            assertEquals(0, semIndices.get(nome).erros());
+        }
+    }
+
+    private Map<String, Medidor> medir(String descricao, int execucoes) throws Exception {
+        Map<String, Medidor> medidores = new LinkedHashMap<>();
+        for (Map.Entry<String, IntFunction<FiltroContatos>> busca : buscas.entrySet()) {
+            IntFunction<FiltroContatos> filtro = busca.getValue();
+            Medidor.medir("aquecimento", 1, execucoes,
+                    i -> contatoService.buscar(filtro.apply(execucoes + i), null, TAMANHO));
+            medidores.put(busca.getKey(), Medidor.medir(busca.getKey() + " " + descricao, 1, execucoes,
+                    i -> contatoService.buscar(filtro.apply(i), null, TAMANHO)));
+        }
+        return medidores;
+    }
+
+    /**
+     * Índice escolhido pelo H2 para o SQL equivalente ao gerado pela busca.
+     */
+    private String plano(FiltroContatos filtro) {
+        List<String> condicoes = new ArrayList<>();
+        if (filtro.getNome() != null) {
+            condicoes.add("nome_busca like '" + NomeUtils.normalize(filtro.getNome()) + "%'");
+        }
+        if (filtro.getCidade() != null) {
+            condicoes.add("cidade = '" + filtro.getCidade() + "'");
+        }
+        if (filtro.getUf() != null) {
+            condicoes.add("uf = '" + filtro.getUf().toUpperCase() + "'");
+        }
+        if (filtro.getCep() != null) {
+            String cep = filtro.getCep();
+            condicoes.add("cep in ('" + cep + "', '" + cep.substring(0, 5) + "-" + cep.substring(5) + "')");
+        }
+        List<String> ordem = new ArrayList<>();
+        if (filtro.getUf() != null && filtro.getCidade() == null && filtro.getCep() == null) {
+            ordem.add("uf");
+        }
+        if (filtro.getNome() != null) {
+            ordem.add("nome_busca");
+        }
+        ordem.add("email");
+        String sql = "explain select * from contato where " + String.join(" and ", condicoes)
+                + " order by " + String.join(", ", ordem) + " limit " + (TAMANHO + 1);
+        String plano = jdbcTemplate.queryForObject(sql, String.class);
+        Matcher indice = Pattern.compile("/\\* (.+?) \\*/", Pattern.DOTALL).matcher(plano);
+        if (!indice.find()) {
+            return "?";
+        }
+        return indice.group(1).replaceAll("\\s+", " ").trim() + (plano.contains("/* index sorted */") ? " index sorted" : "");
+    }
+
+}
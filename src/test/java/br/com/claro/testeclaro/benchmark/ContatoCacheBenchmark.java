@@ -0,0 +1,91 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.config.ContatoCacheProperties;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.support.Medidor;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Consultas concorrentes de contatos por e-mail com e sem o cache de contatos,
+ * sobre um conjunto de contatos que cabe no cache.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@DisplayName("Consulta de contatos por e-mail com e sem cache")
+class ContatoCacheBenchmark {
+    private static final int CONTATOS = 1_000;
+    private static final int THREADS = 32;
+    private static final int CONSULTAS = 200_000;
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Contato> contatoCache;
+    @Autowired
+    private ContatoCacheProperties contatoCacheProperties;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        contatoCache.invalidateAll();
+        List<Contato> contatos = new ArrayList<>(CONTATOS);
+        for (int i = 0; i < CONTATOS; i++) {
+            contatos.add(Contato.builder()
+                    .email("cache" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep("79002000")
+                    .endereco("Rua 14 de Julho, Centro")
+                    .cidade("Campo Grande")
+                    .uf("MS")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.saveAll(contatos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contatoCacheProperties.setEnabled(true);
+    }
+
+    @Test
+    @DisplayName("findById com cache x sem cache")
+    void compararComESemCache() throws Exception {
+        contatoCacheProperties.setEnabled(false);
+        Medidor.medir("aquecimento", THREADS, CONSULTAS / 10, this::consultar);
+        Medidor semCache = Medidor.medir("findById sem cache", THREADS, CONSULTAS, this::consultar);
+
+        contatoCacheProperties.setEnabled(true);
+        Medidor.medir("aquecimento", THREADS, CONSULTAS / 10, this::consultar);
+        Medidor comCache = Medidor.medir("findById com cache", THREADS, CONSULTAS, this::consultar);
+
+        System.out.printf("%d contatos, %d threads%n", CONTATOS, THREADS);
+        System.out.println(semCache);
+        System.out.println(comCache);
+        assertEquals(0, semCache.erros());
+        assertEquals(0, comCache.erros());
+    }
+
+    private void consultar(int i) {
+        // espalha as consultas entre os contatos, sem seguir a ordem de inserção
+        contatoService.findById("cache" + (i * 7919 % CONTATOS) + "@teste.com")
+                .orElseThrow(IllegalStateException::new);
+    }
+
+}
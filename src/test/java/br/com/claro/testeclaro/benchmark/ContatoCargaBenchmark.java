@@ -0,0 +1,232 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.TesteClaroApplication;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste de carga dos endpoints de contatos a uma taxa fixa de requisições, uma
+ * vez para cada configuração do pool de conexões, com vazão, percentis de
+ * latência e espera por uma conexão do pool ({@code hikaricp.connections.*}).
+ * <p>
+ * Por padrão a aplicação usa o H2 em memória no modo MySQL, com o perfil de
+ * desenvolvimento. Com {@code -Dcarga.url}, usa o perfil de produção, com as
+ * configurações de desempenho do datasource, contra uma base MySQL local:
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=ContatoCargaBenchmark
+ * mvn test -Pbenchmark -Dtest=ContatoCargaBenchmark -Dcarga.url=jdbc:mysql://localhost:3306/carga?rewriteBatchedStatements=true
+ *     -Dcarga.usuario=root -Dcarga.senha=development
+ * </pre>
+ * Os contatos criados são excluídos ao final, mas a base informada deve ser
+ * dedicada ao teste.
+ */
+@Tag("benchmark")
+@DisplayName("Carga dos endpoints de contatos por configuração do pool de conexões")
+class ContatoCargaBenchmark {
+    private static final int REQUISICOES_POR_SEGUNDO = 400;
+    private static final int SEGUNDOS = 15;
+    private static final int SEGUNDOS_AQUECIMENTO = 5;
+    private static final int THREADS_CLIENTE = 200;
+    private static final int CONTATOS = 2_000;
+    private static final String POOL = "contatos";
+
+    /**
+     * Configurações comparadas, aplicadas sobre as do perfil. O
+     * {@code contatos.async.jdbc-threads} acompanha o tamanho do pool.
+     */
+    private static final Map<String, String[]> CONFIGURACOES = new LinkedHashMap<>();
+
+    static {
+        CONFIGURACOES.put("pool 4", new String[]{
+                "spring.datasource.hikari.maximum-pool-size=4", "spring.datasource.hikari.minimum-idle=4"});
+        CONFIGURACOES.put("pool 10", new String[]{
+                "spring.datasource.hikari.maximum-pool-size=10", "spring.datasource.hikari.minimum-idle=10"});
+        CONFIGURACOES.put("pool 20", new String[]{
+                "spring.datasource.hikari.maximum-pool-size=20", "spring.datasource.hikari.minimum-idle=20"});
+    }
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar().qualquerCep();
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @Test
+    @DisplayName("GET, POST e PATCH a uma taxa fixa com pools de tamanhos diferentes")
+    void compararConfiguracoes() throws Exception {
+        String url = System.getProperty("carga.url");
+        System.out.printf("%s, %d req/s durante %d s (70%% GET por e-mail, 10%% listagem, 10%% POST, 10%% PATCH)%n",
+                url == null ? "H2 em memória (modo MySQL)" : url, REQUISICOES_POR_SEGUNDO, SEGUNDOS);
+        int execucao = 0;
+        for (Map.Entry<String, String[]> configuracao : CONFIGURACOES.entrySet()) {
+            List<String> argumentos = new ArrayList<>();
+            Collections.addAll(argumentos,
+                    "--server.port=0",
+                    "--viacep.url=" + viaCep.url(),
+                    // as consultas devem chegar à base de dados
+                    "--contatos.cache.enabled=false",
+                    "--spring.jpa.properties.hibernate.show_sql=false",
+                    "--management.metrics.distribution.percentiles.hikaricp.connections.acquire=0.5,0.99");
+            if (url == null) {
+                Collections.addAll(argumentos,
+                        "--spring.profiles.active=development",
+                        "--spring.datasource.url=jdbc:h2:mem:carga" + execucao++ + ";MODE=MySQL");
+            } else {
+                Collections.addAll(argumentos,
+                        "--spring.profiles.active=production",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + System.getProperty("carga.usuario", "root"),
+                        "--spring.datasource.password=" + System.getProperty("carga.senha", ""));
+            }
+            for (String propriedade : configuracao.getValue()) {
+                argumentos.add("--" + propriedade);
+            }
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TesteClaroApplication.class)
+                    .run(argumentos.toArray(new String[0]))) {
+                medir(configuracao.getKey(), context);
+            }
+        }
+    }
+
+    private void medir(String nome, ConfigurableApplicationContext context) throws Exception {
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/contatos";
+        ContatoRepository repository = context.getBean(ContatoRepository.class);
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        HikariDataSource dataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+        assertEquals(POOL, dataSource.getPoolName());
+
+        String prefixo = "carga" + System.currentTimeMillis() + "-";
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < CONTATOS; i++) {
+            contatos.add(Contato.builder()
+                    .email(prefixo + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep("79002000")
+                    .endereco("Rua 79002000, Centro")
+                    .cidade("Campo Grande")
+                    .uf("MS")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.saveAll(contatos);
+
+        List<String> criados = Collections.synchronizedList(new ArrayList<>());
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setMaxConnTotal(THREADS_CLIENTE)
+                .setMaxConnPerRoute(THREADS_CLIENTE)
+                .build()) {
+            RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+            Medidor.medirTaxa("aquecimento", REQUISICOES_POR_SEGUNDO, THREADS_CLIENTE,
+                    REQUISICOES_POR_SEGUNDO * SEGUNDOS_AQUECIMENTO,
+                    i -> requisicao(restTemplate, url, prefixo, "aquecimento", i, criados));
+
+            Timer espera = meterRegistry.get("hikaricp.connections.acquire").tag("pool", POOL).timer();
+            long esperasAntes = espera.count();
+            double esperaAntes = espera.totalTime(TimeUnit.MILLISECONDS);
+            double timeoutsAntes = meterRegistry.get("hikaricp.connections.timeout").tag("pool", POOL).counter()
+                    .count();
+            AtomicInteger pendentes = new AtomicInteger();
+            ScheduledExecutorService amostragem = Executors.newSingleThreadScheduledExecutor();
+            amostragem.scheduleAtFixedRate(() -> pendentes.accumulateAndGet(
+                    dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max),
+                    0, 5, TimeUnit.MILLISECONDS);
+
+            Medidor carga;
+            try {
+                carga = Medidor.medirTaxa(nome, REQUISICOES_POR_SEGUNDO, THREADS_CLIENTE,
+                        REQUISICOES_POR_SEGUNDO * SEGUNDOS,
+                        i -> requisicao(restTemplate, url, prefixo, "carga", i, criados));
+            } finally {
+                amostragem.shutdownNow();
+            }
+
+            long esperas = espera.count() - esperasAntes;
+            double esperaMedia = esperas == 0 ? 0 : (espera.totalTime(TimeUnit.MILLISECONDS) - esperaAntes) / esperas;
+            double esperaP99 = 0;
+            for (ValueAtPercentile percentil : espera.takeSnapshot().percentileValues()) {
+                if (percentil.percentile() == 0.99) {
+                    esperaP99 = percentil.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            double timeouts = meterRegistry.get("hikaricp.connections.timeout").tag("pool", POOL).counter().count()
+                    - timeoutsAntes;
+            System.out.printf("%-8s %7.1f req/s  p50=%7.2f ms  p95=%7.2f ms  p99=%7.2f ms  máx=%8.2f ms  erros=%d%n"
+                            + "         pool de %d conexões: espera média=%.3f ms  p99=%.3f ms  máx=%.3f ms"
+                            + "  threads aguardando (máx)=%d  timeouts=%.0f%n",
+                    nome, carga.vazao(), carga.percentilMillis(50), carga.percentilMillis(95),
+                    carga.percentilMillis(99), carga.percentilMillis(100), carga.erros(),
+                    dataSource.getMaximumPoolSize(), esperaMedia, esperaP99, espera.max(TimeUnit.MILLISECONDS),
+                    pendentes.get(), timeouts);
+        } finally {
+            for (Contato contato : contatos) {
+                criados.add(contato.getEmail());
+            }
+            for (int i = 0; i < criados.size(); i += 1_000) {
+                repository.deleteByEmailIn(criados.subList(i, Math.min(i + 1_000, criados.size())));
+            }
+        }
+    }
+
+    /**
+     * 70% GET de um contato, 10% listagem paginada, 10% POST de um novo
+     * contato e 10% PATCH do telefone de um contato.
+     */
+    private static void requisicao(RestTemplate restTemplate, String url, String prefixo, String fase, int i,
+                                   List<String> criados) {
+        String existente = url + "/" + prefixo + (i * 7919 % CONTATOS) + "@teste.com";
+        switch (i % 10) {
+            case 0:
+                String email = prefixo + fase + i + "@teste.com";
+                criados.add(email);
+                Contato contato = Contato.builder()
+                        .email(email)
+                        .nome("Contato " + i)
+                        .telefone("(67) 99999-9999")
+                        .cep(String.valueOf(79002000 + i % 100))
+                        .build();
+                restTemplate.postForEntity(url, contato, Contato.class);
+                break;
+            case 1:
+                restTemplate.patchForObject(existente,
+                        Collections.singletonMap("telefone", String.format("(67) 9%04d-%04d", i % 10_000, i % 10_000)),
+                        Contato.class);
+                break;
+            case 2:
+                restTemplate.getForEntity(url + "?page=" + (i / 10 % 50) + "&size=20", String.class);
+                break;
+            default:
+                restTemplate.getForEntity(existente, Contato.class);
+        }
+    }
+
+}
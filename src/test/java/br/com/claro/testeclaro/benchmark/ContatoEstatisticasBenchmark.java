@@ -0,0 +1,120 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.config.StatisticsProperties;
+import br.com.claro.testeclaro.model.ContagemDia;
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.service.EstatisticasContatosService;
+import br.com.claro.testeclaro.service.impl.EstatisticasContatosServiceImpl;
+import br.com.claro.testeclaro.support.Medidor;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara as formas de obter a quantidade de contatos por UF, por cidade e por
+ * dia de cadastro: carregar todos os contatos e agrupá-los na aplicação (o que
+ * os clientes fazem hoje com a listagem), agrupar na base de dados com GROUP BY
+ * e ler as quantidades mantidas em memória. Executar com
+ * {@code mvn test -Pbenchmark -Dtest=ContatoEstatisticasBenchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "contatos.statistics.incremental=true"
+})
+@DisplayName("Estatísticas de contatos: findAll x GROUP BY x quantidades em memória")
+class ContatoEstatisticasBenchmark {
+    private static final int CONTATOS = 200_000;
+    private static final int LOTE = 10_000;
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EstatisticasContatosService estatisticasService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        for (int inicio = 1; inicio <= CONTATOS; inicio += LOTE) {
+            jdbcTemplate.update("insert into contato (email, nome, nome_busca, telefone, cep, endereco, cidade, uf,"
+                    + " data_cadastro, versao, endereco_pendente, tentativas_endereco)"
+                    + " select 'estatisticas' || x || '@teste.com', 'Contato ' || x, 'contato ' || x,"
+                    + " '(67) 99999-9999', '79002000', 'Rua 14 de Julho, Centro', 'Cidade ' || mod(x, 5000),"
+                    + " substring('ACALAMAPBACEDFESGOMAMGMSMTPAPBPEPIPRRJRNRORRRSSCSESPTO', 2 * mod(mod(x, 5000), 27) + 1, 2),"
+                    + " dateadd('DAY', -mod(x, 365), current_timestamp), 0, false, 0 from system_range(?, ?)",
+                    inicio, inicio + LOTE - 1);
+        }
+        estatisticasService.reconciliar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+        estatisticasService.reconciliar();
+    }
+
+    @Test
+    @DisplayName("Tempo de cada forma de cálculo das estatísticas")
+    void compararEstatisticas() throws Exception {
+        EstatisticasContatosService banco = new EstatisticasContatosServiceImpl(repository, new StatisticsProperties());
+        assertEquals(banco.consultar(), estatisticasService.consultar());
+
+        // cada medição altera um contato antes, porque o H2 reaproveita o resultado de uma consulta repetida
+        // enquanto a tabela não é alterada
+        Medidor.medir("aquecimento", 1, 2, i -> agruparNaAplicacao(i));
+        Medidor.medir("aquecimento", 1, 20, i -> consultar(banco, i));
+        Medidor.medir("aquecimento", 1, 200, i -> consultar(estatisticasService, i));
+
+        Medidor findAll = Medidor.medir("findAll + agrupamento", 1, 5, this::agruparNaAplicacao);
+        Medidor groupBy = Medidor.medir("GROUP BY", 1, 50, i -> consultar(banco, i));
+        Medidor memoria = Medidor.medir("em memória", 1, 500, i -> consultar(estatisticasService, i));
+
+        System.out.printf("%d contatos, %d cidades, %d dias%n", CONTATOS,
+                estatisticasService.consultar().getPorCidade().size(),
+                estatisticasService.consultar().getCadastrosPorDia().size());
+        System.out.println(findAll);
+        System.out.println(groupBy);
+        System.out.println(memoria);
+        assertEquals(0, findAll.erros());
+        assertEquals(0, groupBy.erros());
+        assertEquals(0, memoria.erros());
+    }
+
+    private EstatisticasContatos consultar(EstatisticasContatosService servico, int i) {
+        alterar(i);
+        return servico.consultar();
+    }
+
+    private Map<LocalDate, Long> agruparNaAplicacao(int i) {
+        alterar(i);
+        Map<String, Long> porCidade = new TreeMap<>();
+        Map<LocalDate, Long> porDia = new TreeMap<>();
+        for (Contato contato : contatoService.findAll()) {
+            porCidade.merge(contato.getUf() + "/" + contato.getCidade(), 1L, Long::sum);
+            porDia.merge(ContagemDia.dia(contato.getDataCadastro()), 1L, Long::sum);
+        }
+        return porDia;
+    }
+
+    private void alterar(int i) {
+        jdbcTemplate.update("update contato set telefone = ? where email = ?",
+                "(67) 9" + String.format("%04d", i % 10_000) + "-0000", "estatisticas" + (i + 1) + "@teste.com");
+    }
+
+}
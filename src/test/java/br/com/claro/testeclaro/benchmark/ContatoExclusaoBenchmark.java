@@ -0,0 +1,127 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.support.Medidor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Idas ao banco de dados e vazão da exclusão de contatos: a exclusão anterior
+ * (findById seguido de deleteById, que carrega o contato novamente) x o DELETE
+ * direto pelo e-mail x o DELETE em lote.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Exclusão de contatos: findById + deleteById x DELETE pelo e-mail x DELETE em lote")
+class ContatoExclusaoBenchmark {
+    private static final int CONTATOS = 5_000;
+    private static final int THREADS = 8;
+    private static final int LOTE = 500;
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Comandos SQL e vazão por contato excluído")
+    void compararExclusoes() throws Exception {
+        inserir("aquecimento", CONTATOS / 5);
+        Medidor.medir("aquecimento", THREADS, CONTATOS / 5, i -> contatoService.delete(email("aquecimento", i)));
+
+        inserir("anterior", CONTATOS);
+        estatisticas.clear();
+        Medidor anterior = Medidor.medir("findById + deleteById", THREADS, CONTATOS,
+                i -> repository.findById(email("anterior", i)).ifPresent(c -> repository.deleteById(c.getEmail())));
+        long comandosAnterior = estatisticas.getPrepareStatementCount();
+
+        inserir("direto", CONTATOS);
+        estatisticas.clear();
+        Medidor direto = Medidor.medir("DELETE pelo e-mail", THREADS, CONTATOS,
+                i -> contatoService.delete(email("direto", i)));
+        long comandosDireto = estatisticas.getPrepareStatementCount();
+
+        inserir("lote", CONTATOS);
+        estatisticas.clear();
+        Medidor lote = Medidor.medir("DELETE em lote", THREADS, CONTATOS / LOTE,
+                i -> contatoService.deleteAll(emails("lote", i * LOTE, LOTE)));
+        long comandosLote = estatisticas.getPrepareStatementCount();
+
+        System.out.printf("%d contatos, %d threads, lotes de %d%n", CONTATOS, THREADS, LOTE);
+        imprimir(anterior, comandosAnterior);
+        imprimir(direto, comandosDireto);
+        imprimir(lote, comandosLote);
+        assertEquals(0, anterior.erros());
+        assertEquals(0, direto.erros());
+        assertEquals(0, lote.erros());
+        assertEquals(0, repository.count());
+    }
+
+    private void imprimir(Medidor medidor, long comandos) {
+        System.out.println(medidor);
+        System.out.printf("%-40s %10.3f comandos/contato %10.1f contatos/s%n", "",
+                comandos / (double) CONTATOS, CONTATOS / (medidor.duracaoMillis() / 1_000d));
+    }
+
+    private void inserir(String prefixo, int quantidade) {
+        List<Contato> contatos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            contatos.add(Contato.builder()
+                    .email(email(prefixo, i))
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep("79002000")
+                    .endereco("Rua 14 de Julho, Centro")
+                    .cidade("Campo Grande")
+                    .uf("MS")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.insertAll(contatos);
+    }
+
+    private static List<String> emails(String prefixo, int inicio, int quantidade) {
+        List<String> emails = new ArrayList<>(quantidade);
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            emails.add(email(prefixo, i));
+        }
+        return emails;
+    }
+
+    private static String email(String prefixo, int i) {
+        return prefixo + i + "@teste.com";
+    }
+
+}
@@ -0,0 +1,145 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara a vazão, em contatos por segundo, do cadastro individual (um POST,
+ * uma consulta ao ViaCEP e um INSERT por contato) com a importação em lote (um
+ * único POST em NDJSON, uma consulta por CEP distinto e INSERTs agrupados pelo
+ * driver JDBC). O cache de CEPs é esvaziado antes de cada medição. Executar com
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "viacep.http.max-connections=64",
+        "viacep.http.max-connections-per-host=64",
+        "viacep.bulkhead.max-concurrent-calls=64",
+        "viacep.circuit-breaker.slow-call-duration=10s",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@DisplayName("Desempenho da importação de contatos em lote")
+class ContatoImportacaoBenchmark {
+    private static final int CONTATOS = 10_000;
+    private static final int CEPS_DISTINTOS = 500;
+    private static final int THREADS_CLIENTE = 16;
+    private static final long ATRASO_VIACEP = 20;
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar().qualquerCep().atraso(ATRASO_VIACEP);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        httpClient = HttpClients.custom()
+                .setMaxConnTotal(THREADS_CLIENTE)
+                .setMaxConnPerRoute(THREADS_CLIENTE)
+                .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("POST individual x importação em lote")
+    void compararIndividualELote() throws Exception {
+        String url = "http://localhost:" + port + "/api/contatos";
+
+        // aquecimento
+        Medidor.medir("aquecimento", THREADS_CLIENTE, 500,
+                i -> restTemplate.postForEntity(url, contato("aquecimento", i), Contato.class));
+        importar(url, "aquecimento-lote", 2_000);
+        repository.deleteAllInBatch();
+        cepCache.invalidateAll();
+
+        Medidor individual = Medidor.medir("POST individual", THREADS_CLIENTE, CONTATOS,
+                i -> restTemplate.postForEntity(url, contato("individual", i), Contato.class));
+        cepCache.invalidateAll();
+        ResultadoImportacao[] resultado = new ResultadoImportacao[1];
+        Medidor lote = Medidor.medir("POST /lote (NDJSON)", 1, 1,
+                i -> resultado[0] = importar(url, "lote", CONTATOS));
+
+        System.out.printf("%d contatos, %d CEPs distintos, ViaCEP com %d ms de latência%n",
+                CONTATOS, CEPS_DISTINTOS, ATRASO_VIACEP);
+        System.out.printf("%-40s %10.1f contatos/s%n", "POST individual",
+                CONTATOS / (individual.duracaoMillis() / 1_000d));
+        System.out.printf("%-40s %10.1f contatos/s%n", "POST /lote (NDJSON)",
+                CONTATOS / (lote.duracaoMillis() / 1_000d));
+        assertEquals(0, individual.erros());
+        assertEquals(0, lote.erros());
+        assertEquals(CONTATOS, resultado[0].getImportados());
+    }
+
+    private ResultadoImportacao importar(String url, String prefixo, int quantidade) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            ndjson.append(String.format("{\"email\": \"%s%d@teste.com\", \"nome\": \"Contato de carga\","
+                    + " \"telefone\": \"(67) 99999-9999\", \"cep\": \"%s\"}\n", prefixo, i, cep(i)));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        return restTemplate.postForObject(url + "/lote", new HttpEntity<>(ndjson.toString(), headers),
+                ResultadoImportacao.class);
+    }
+
+    private static Contato contato(String prefixo, int indice) {
+        return Contato.builder()
+                .email(prefixo + indice + "@teste.com")
+                .nome("Contato de carga")
+                .telefone("(67) 99999-9999")
+                .cep(cep(indice))
+                .build();
+    }
+
+    private static String cep(int indice) {
+        return String.format("%08d", 10_000_000 + indice % CEPS_DISTINTOS);
+    }
+
+}
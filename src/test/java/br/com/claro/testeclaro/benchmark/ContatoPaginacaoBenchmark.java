@@ -0,0 +1,119 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.support.Medidor;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara a paginação por OFFSET com a paginação por cursor em páginas
+ * profundas de uma base H2 com muitos contatos. Com o cursor, a consulta começa
+ * diretamente na posição do índice, então o custo não depende da profundidade
+ * da página. O H2 em memória também localiza a posição do OFFSET pelo índice,
+ * então aqui as duas paginações ficam próximas; no MySQL (InnoDB), o OFFSET lê
+ * e descarta todos os registros anteriores à página. Executar com
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("development")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@DisplayName("Desempenho da listagem paginada de contatos")
+class ContatoPaginacaoBenchmark {
+    private static final int CONTATOS = 500_000;
+    private static final int TAMANHO = 50;
+    private static final int EXECUCOES = 200;
+    private static final int[] POSICOES = {0, 10_000, 100_000, 490_000};
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        Timestamp agora = new Timestamp(System.currentTimeMillis());
+        List<Object[]> linhas = new ArrayList<>(10_000);
+        for (int i = 0; i < CONTATOS; i++) {
+            linhas.add(new Object[]{String.format("contato%07d@teste.com", i), "Contato " + i, "(67) 99999-9999",
+                    "79002000", "Rua 14 de Julho, Centro", "Campo Grande", "MS", agora});
+            if (linhas.size() == 10_000) {
+                inserir(linhas);
+                linhas.clear();
+            }
+        }
+        inserir(linhas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("OFFSET x cursor em páginas profundas, ordenando pelo e-mail")
+    void compararOffsetECursor() throws Exception {
+        comparar(null);
+    }
+
+    @Test
+    @DisplayName("OFFSET x cursor em páginas profundas, ordenando pelo nome")
+    void compararOffsetECursorPorNome() throws Exception {
+        comparar("nome");
+    }
+
+    private void comparar(String sort) throws Exception {
+        // aquecimento
+        for (int posicao : POSICOES) {
+            int pagina = posicao / TAMANHO;
+            String cursor = cursorNaPosicao(pagina, sort);
+            Medidor.medir("aquecimento", 1, EXECUCOES, i -> contatoService.findAll(pagina, null, TAMANHO, sort));
+            Medidor.medir("aquecimento", 1, EXECUCOES, i -> contatoService.findAll(null, cursor, TAMANHO, sort));
+        }
+
+        for (int posicao : POSICOES) {
+            int pagina = posicao / TAMANHO;
+            String cursor = cursorNaPosicao(pagina, sort);
+            Medidor offset = Medidor.medir("OFFSET " + posicao + " " + sort, 1, EXECUCOES,
+                    i -> contatoService.findAll(pagina, null, TAMANHO, sort));
+            Medidor keyset = Medidor.medir("cursor " + posicao + " " + sort, 1, EXECUCOES,
+                    i -> contatoService.findAll(null, cursor, TAMANHO, sort));
+
+            System.out.println(offset);
+            System.out.println(keyset);
+            assertEquals(0, offset.erros());
+            assertEquals(0, keyset.erros());
+        }
+    }
+
+    /**
+     * Cursor que leva à mesma página que {@code page=pagina}.
+     */
+    private String cursorNaPosicao(int pagina, String sort) {
+        if (pagina == 0) {
+            return null;
+        }
+        Pagina<Contato> anterior = contatoService.findAll(pagina - 1, null, TAMANHO, sort);
+        return anterior.getProximoCursor();
+    }
+
+    private void inserir(List<Object[]> linhas) {
+        jdbcTemplate.batchUpdate("insert into contato (email, nome, telefone, cep, endereco, cidade, uf, data_cadastro,"
+                + " versao, endereco_pendente, tentativas_endereco) values (?, ?, ?, ?, ?, ?, ?, ?, 0, false, 0)", linhas);
+    }
+
+}
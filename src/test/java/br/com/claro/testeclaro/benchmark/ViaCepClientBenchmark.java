@@ -0,0 +1,83 @@
+package br.com.claro.testeclaro.benchmark;
+
+import br.com.claro.testeclaro.client.ViaCepClient;
+import br.com.claro.testeclaro.config.ViaCepConfig;
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.support.Medidor;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara a consulta ao ViaCEP criando um {@link RestTemplate} por chamada (como
+ * era feito no EnderecoServiceImpl) com o {@link ViaCepClient}, que reaproveita
+ * as conexões do pool. Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Desempenho do cliente ViaCEP")
+class ViaCepClientBenchmark {
+    private static final int THREADS = 16;
+    private static final int EXECUCOES = 20_000;
+    private static final String CEP = "79002000";
+
+    private static ViaCepStub viaCep;
+    private static CloseableHttpClient httpClient;
+    private static ViaCepClient viaCepClient;
+    private static ViaCepProperties properties;
+
+    @BeforeAll
+    static void setUp() {
+        // sem o contexto do Spring o logback fica em DEBUG, o que distorce as medições
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        viaCep = ViaCepStub.iniciar()
+                .endereco(CEP, "Rua 14 de Julho", "Centro", "Campo Grande", "MS")
+                .atraso(1);
+        properties = new ViaCepProperties();
+        properties.setUrl(viaCep.url());
+        properties.getHttp().setMaxConnectionsPerHost(THREADS);
+
+        ViaCepConfig config = new ViaCepConfig();
+        httpClient = config.viaCepHttpClient(properties);
+        viaCepClient = new ViaCepClient(config.viaCepRestTemplate(config.viaCepRequestFactory(httpClient, properties)),
+                WebClient.builder().build(), properties);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        httpClient.close();
+        viaCep.parar();
+    }
+
+    @Test
+    @DisplayName("RestTemplate por chamada x cliente com pool de conexões")
+    void compararClientes() throws Exception {
+        // aquecimento
+        Medidor.medir("aquecimento", THREADS, 2_000, i -> viaCepClient.findByCEP(CEP));
+        Medidor.medir("aquecimento", THREADS, 2_000, i -> consultaPorChamada());
+
+        Medidor porChamada = Medidor.medir("RestTemplate por chamada", THREADS, EXECUCOES, i -> consultaPorChamada());
+        Medidor comPool = Medidor.medir("ViaCepClient (pool)", THREADS, EXECUCOES, i -> viaCepClient.findByCEP(CEP));
+
+        System.out.println(porChamada);
+        System.out.println(comPool);
+        assertEquals(0, comPool.erros());
+    }
+
+    private static void consultaPorChamada() {
+        RestTemplate template = new RestTemplate();
+        String uri = UriComponentsBuilder.fromUriString(properties.getUrl())
+                .buildAndExpand(CEP)
+                .toUriString();
+        template.getForEntity(uri, Endereco.class);
+    }
+
+}
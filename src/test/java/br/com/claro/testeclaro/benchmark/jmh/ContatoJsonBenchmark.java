@@ -0,0 +1,64 @@
+package br.com.claro.testeclaro.benchmark.jmh;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização e desserialização do {@link Contato} em JSON, incluindo a data
+ * de cadastro no formato {@code dd/MM/yyyy HH:mm:ss}, com o {@link ObjectMapper}
+ * configurado como o do Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContatoJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Contato contato;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(Contato.class);
+        reader = objectMapper.readerFor(Contato.class);
+        contato = Contato.builder()
+                .email("contato@teste.com")
+                .nome("Contato de Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .endereco("Rua 14 de Julho, Centro")
+                .cidade("Campo Grande")
+                .uf("MS")
+                .dataCadastro(new Date())
+                .build();
+        json = writer.writeValueAsBytes(contato);
+        if (!new String(json, StandardCharsets.UTF_8).contains("\"dataCadastro\":\"")) {
+            throw new IllegalStateException("dataCadastro deveria ser serializada com o @JsonFormat");
+        }
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return writer.writeValueAsBytes(contato);
+    }
+
+    @Benchmark
+    public Contato desserializar() throws IOException {
+        return reader.readValue(json);
+    }
+
+}
@@ -0,0 +1,106 @@
+package br.com.claro.testeclaro.benchmark.jmh;
+
+import br.com.claro.testeclaro.TesteClaroApplication;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.service.EnderecoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code save} e {@code findById} do {@link ContatoService} contra o H2 em
+ * memória do perfil de desenvolvimento, com um {@link EnderecoService} que
+ * responde sem consultar o ViaCEP. Mede o custo da aplicação e do JPA, sem a
+ * latência da rede.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-Dspring.profiles.active=development"})
+public class ContatoServiceBenchmark {
+    private static final String EMAIL_CADASTRADO = "cadastrado@teste.com";
+
+    private ConfigurableApplicationContext context;
+    private ContatoService contatoService;
+    private ContatoRepository repository;
+    private long sequencia;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = new SpringApplicationBuilder(TesteClaroApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.show_sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("enderecoServiceStub",
+                        EnderecoService.class, EnderecoStub::new, definicao -> definicao.setPrimary(true)))
+                .run();
+        contatoService = context.getBean(ContatoService.class);
+        repository = context.getBean(ContatoRepository.class);
+        contatoService.save(contato(EMAIL_CADASTRADO));
+    }
+
+    @Setup(Level.Iteration)
+    public void limpar() {
+        repository.deleteAllInBatch();
+        contatoService.save(contato(EMAIL_CADASTRADO));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Contato> save() {
+        return contatoService.save(contato("contato" + sequencia++ + "@teste.com"));
+    }
+
+    @Benchmark
+    public Optional<Contato> findById() {
+        return contatoService.findById(EMAIL_CADASTRADO);
+    }
+
+    private static Contato contato(String email) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato de Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build();
+    }
+
+    private static final class EnderecoStub implements EnderecoService {
+        private final Endereco endereco = new Endereco();
+
+        private EnderecoStub() {
+            endereco.setCep("79002-000");
+            endereco.setLogradouro("Rua 14 de Julho");
+            endereco.setBairro("Centro");
+            endereco.setLocalidade("Campo Grande");
+            endereco.setUf("MS");
+        }
+
+        @Override
+        public Endereco findByCEP(String cep) {
+            return endereco;
+        }
+
+        @Override
+        public Mono<Endereco> findByCEPAsync(String cep) {
+            return Mono.just(endereco);
+        }
+    }
+
+}
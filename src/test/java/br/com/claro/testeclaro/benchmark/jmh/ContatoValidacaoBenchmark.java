@@ -0,0 +1,62 @@
+package br.com.claro.testeclaro.benchmark.jmh;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation do {@link Contato}, com um contato válido e com um e-mail
+ * inválido, recusado pelo par {@code @Email} e {@code @Pattern}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContatoValidacaoBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Contato valido;
+    private Contato emailInvalido;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valido = contato("contato@teste.com");
+        emailInvalido = contato("contato.invalido");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Contato>> contatoValido() {
+        return validator.validate(valido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Contato>> emailInvalido() {
+        return validator.validate(emailInvalido);
+    }
+
+    private static Contato contato(String email) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato de Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build();
+    }
+
+}
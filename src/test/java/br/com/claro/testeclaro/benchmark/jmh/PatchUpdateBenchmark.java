@@ -0,0 +1,72 @@
+package br.com.claro.testeclaro.benchmark.jmh;
+
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.util.CamposContato;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a atribuição dos campos do PATCH por reflexão, buscando o campo a
+ * cada requisição, com a tabela de setters pré-compilados de
+ * {@link CamposContato}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchUpdateBenchmark {
+
+    private Map<Object, Object> campos;
+    private Map<Object, Object> camposComData;
+    private Contato contato;
+
+    @Setup
+    public void setUp() {
+        campos = new LinkedHashMap<>();
+        campos.put("nome", "Contato atualizado");
+        campos.put("telefone", "(67) 99999-9999");
+        campos.put("cep", "79050-190");
+        camposComData = new LinkedHashMap<>(campos);
+        camposComData.put("dataCadastro", "25/12/2020 10:30:00");
+        contato = new Contato();
+    }
+
+    /**
+     * Implementação anterior do {@code patchUpdate}, sem conversão de tipos.
+     */
+    @Benchmark
+    public Contato reflexao() {
+        campos.forEach((key, value) -> {
+            Field field = ReflectionUtils.findField(Contato.class, (String) key);
+            field.setAccessible(true);
+            ReflectionUtils.setField(field, contato, value);
+        });
+        return contato;
+    }
+
+    @Benchmark
+    public Contato tabelaDeSetters() {
+        return atribuir(campos);
+    }
+
+    @Benchmark
+    public Contato tabelaDeSettersComData() {
+        return atribuir(camposComData);
+    }
+
+    private Contato atribuir(Map<Object, Object> valores) {
+        valores.forEach((key, value) -> {
+            CamposContato.Campo campo = CamposContato.campo((String) key);
+            campo.atribuir(contato, campo.converter(value));
+        });
+        return contato;
+    }
+
+}
@@ -0,0 +1,118 @@
+package br.com.claro.testeclaro.client;
+
+import br.com.claro.testeclaro.config.ViaCepConfig;
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.*;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testando classe ViaCepClient")
+class ViaCepClientTest {
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco("79002000", "Rua 14 de Julho", "Centro", "Campo Grande", "MS");
+
+    private CloseableHttpClient httpClient;
+    private DeadlineHttpRequestFactory requestFactory;
+    private ViaCepClient viaCepClient;
+
+    @BeforeEach
+    void setUp() {
+        viaCep.reset();
+        viaCep.atraso(0);
+        ViaCepProperties properties = new ViaCepProperties();
+        properties.setUrl(viaCep.url());
+        properties.getHttp().setReadTimeout(Duration.ofSeconds(5));
+        properties.getHttp().setDeadline(Duration.ofMillis(300));
+
+        ViaCepConfig config = new ViaCepConfig();
+        httpClient = config.viaCepHttpClient(properties);
+        requestFactory = config.viaCepRequestFactory(httpClient, properties);
+        viaCepClient = new ViaCepClient(config.viaCepRestTemplate(requestFactory), WebClient.builder().build(),
+                properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        requestFactory.destroy();
+        httpClient.close();
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @Test
+    @DisplayName("Deve montar a URI a partir da URL configurada")
+    void uri() {
+        assertEquals(viaCep.url().replace("{cep}", "79002000"), viaCepClient.uri("79002000").toString());
+    }
+
+    @Test
+    @DisplayName("Deve retornar o endereço de um CEP existente")
+    void findByCEP() {
+        Optional<Endereco> endereco = viaCepClient.findByCEP("79002000");
+        assertTrue(endereco.isPresent());
+        assertEquals("Campo Grande", endereco.get().getLocalidade());
+    }
+
+    @Test
+    @DisplayName("Deve retornar vazio para um CEP inexistente")
+    void findByCEPInexistente() {
+        assertFalse(viaCepClient.findByCEP("00000000").isPresent());
+    }
+
+    @Test
+    @DisplayName("Deve retornar o endereço de um CEP existente sem bloquear")
+    void findByCEPAsync() {
+        Endereco endereco = viaCepClient.findByCEPAsync("79002000").block();
+        assertNotNull(endereco);
+        assertEquals("MS", endereco.getUf());
+        assertNull(viaCepClient.findByCEPAsync("00000000").block());
+    }
+
+    @Test
+    @DisplayName("Deve abortar a consulta quando o tempo máximo total se esgota")
+    void deadline() {
+        viaCep.atraso(2_000);
+        long inicio = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> viaCepClient.findByCEP("79002000"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 1_500);
+    }
+
+    @Test
+    @DisplayName("As consultas concluídas não devem manter o abort agendado até o tempo máximo")
+    void deadlineCanceladoAoConcluir() {
+        assertTrue(viaCepClient.findByCEP("79002000").isPresent());
+        assertFalse(viaCepClient.findByCEP("00000000").isPresent());
+
+        assertEquals(0, requestFactory.abortsPendentes());
+    }
+
+    @Test
+    @DisplayName("Encerrar a fábrica de requisições não deve fechar o cliente HTTP compartilhado")
+    void destroyMantemClienteHttp() {
+        requestFactory.destroy();
+
+        ViaCepProperties properties = new ViaCepProperties();
+        properties.setUrl(viaCep.url());
+        ViaCepConfig config = new ViaCepConfig();
+        DeadlineHttpRequestFactory outraFactory = config.viaCepRequestFactory(httpClient, properties);
+        try {
+            ViaCepClient outroClient = new ViaCepClient(config.viaCepRestTemplate(outraFactory),
+                    WebClient.builder().build(), properties);
+            assertTrue(outroClient.findByCEP("79002000").isPresent());
+        } finally {
+            outraFactory.destroy();
+        }
+    }
+
+}
@@ -1,7 +1,17 @@
 package br.com.claro.testeclaro.controller.api;
 
+import br.com.claro.testeclaro.model.ContagemCidade;
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.FormatoExportacao;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.ItemImportacao;
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.ResultadoExclusao;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
 import br.com.claro.testeclaro.model.entity.Contato;
 import br.com.claro.testeclaro.service.ContatoService;
+import br.com.claro.testeclaro.util.EtagUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
@@ -10,13 +20,20 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
 import javax.print.attribute.standard.Media;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -87,13 +104,17 @@ public class ContatoControllerTest {
                 .cep("79050190")
                 .build();
 
-        Mockito.when(contatoService.save(inputContato)).thenReturn(Optional.of(returnContato));
+        Mockito.when(contatoService.saveAsync(inputContato)).thenReturn(Mono.just(returnContato));
         String jsonInput = mapToJson(inputContato);
 
-        mockMvc.perform(MockMvcRequestBuilders.post(URI_DEFAULT)
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(URI_DEFAULT)
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .content(jsonInput))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isCreated())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", Matchers.is(validEmail)))
@@ -101,6 +122,36 @@ public class ContatoControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @Order(2)
+    @DisplayName("Deve importar contatos em lote a partir de um CSV")
+    void importar() throws Exception {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        ItemImportacao item = new ItemImportacao(2, validEmail);
+        item.setImportado(true);
+        resultado.adicionar(item);
+        Mockito.when(contatoService.importar(Mockito.any(), Mockito.eq(StandardCharsets.ISO_8859_1),
+                Mockito.eq(FormatoImportacao.CSV))).thenReturn(resultado);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URI_DEFAULT + "/lote")
+                        .contentType("text/csv;charset=ISO-8859-1")
+                        .content("email,nome,telefone,cep\n" + validEmail + ",Eduardo,(67) 99246-6935,79050190\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.importados", Matchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.itens[0].email", Matchers.is(validEmail)))
+                .andDo(print());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Deve retornar 415 ao importar contatos em um formato não suportado")
+    void importarFormatoNaoSuportado() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(URI_DEFAULT + "/lote")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(validEmail))
+                .andExpect(MockMvcResultMatchers.status().isUnsupportedMediaType());
+    }
+
     @Test
     @Order(3)
     @DisplayName("Deve listar todos os contatos ao fazer a requisição GET")
@@ -115,6 +166,117 @@ public class ContatoControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @Order(3)
+    @DisplayName("Deve listar uma página de contatos ao fazer a requisição GET com parâmetros de paginação")
+    void findPage() throws Exception {
+        Mockito.when(contatoService.findAll(null, "abc", 1, null))
+                .thenReturn(new Pagina<>(Arrays.asList(returnContato), 1, null, "def"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT).param("cursor", "abc").param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conteudo.size()", Matchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conteudo[0].email", Matchers.is(validEmail)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.proximoCursor", Matchers.is("def")))
+                .andDo(print());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Deve retornar 304 sem serializar os contatos quando a listagem não foi alterada")
+    void findAllNaoModificado() throws Exception {
+        List<Contato> contatos = Arrays.asList(returnContato);
+        Mockito.when(contatoService.findAll()).thenReturn(contatos);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT)
+                        .header(HttpHeaders.IF_NONE_MATCH, EtagUtils.etag(contatos)))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, EtagUtils.etag(contatos)))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("O ETag de uma página deve considerar somente os contatos da página")
+    void findPageNaoModificada() throws Exception {
+        Pagina<Contato> pagina = new Pagina<>(Arrays.asList(returnContato), 1, null, "def");
+        Mockito.when(contatoService.findAll(null, "abc", 1, null)).thenReturn(pagina);
+
+        String etag = EtagUtils.etag(pagina);
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT).param("cursor", "abc").param("size", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        returnContato.setVersao(returnContato.getVersao() + 1);
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT).param("cursor", "abc").param("size", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+        Mockito.verify(contatoService, Mockito.never()).findAll();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Deve buscar os contatos pelos filtros informados ao fazer a requisição GET de busca")
+    void buscar() throws Exception {
+        FiltroContatos filtro = new FiltroContatos("edu", null, "MS", null);
+        returnContato.setNomeBusca("eduardo leite ranzzani");
+        Mockito.when(contatoService.buscar(filtro, null, 10))
+                .thenReturn(new Pagina<>(Arrays.asList(returnContato), 10, null, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT + "/busca")
+                        .param("nome", "edu").param("uf", "MS").param("size", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conteudo.size()", Matchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conteudo[0].email", Matchers.is(validEmail)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conteudo[0].nomeBusca").doesNotExist())
+                .andDo(print());
+        Mockito.verify(contatoService, Mockito.never()).findById(Mockito.anyString());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Deve retornar as estatísticas dos contatos ao fazer a requisição GET de estatísticas")
+    void estatisticas() throws Exception {
+        Mockito.when(contatoService.estatisticas()).thenReturn(new EstatisticasContatos(3, 1,
+                Collections.singletonMap("MS", 2L),
+                Arrays.asList(new ContagemCidade("MS", "Campo Grande", 2)),
+                Collections.singletonMap(LocalDate.of(2021, 9, 1), 3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT + "/estatisticas"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total", Matchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.semEndereco", Matchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.porUf.MS", Matchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.porCidade[0].cidade", Matchers.is("Campo Grande")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.cadastrosPorDia['2021-09-01']", Matchers.is(3)))
+                .andDo(print());
+        Mockito.verify(contatoService, Mockito.never()).findAll();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Deve exportar os contatos em NDJSON ao fazer a requisição GET de exportação")
+    void exportar() throws Exception {
+        Mockito.when(contatoService.exportar(Mockito.any(), Mockito.eq(FormatoExportacao.NDJSON))).thenReturn(0L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT + "/exportacao"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+                        Matchers.containsString("contatos.ndjson")));
+        Mockito.verify(contatoService).exportar(Mockito.any(), Mockito.eq(FormatoExportacao.NDJSON));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Deve retornar 400 ao exportar em um formato inválido")
+    void exportarFormatoInvalido() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT + "/exportacao").param("formato", "xml"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     @Order(4)
     @DisplayName("Deve retornar um erro ao fazer a requisição informando um e-mail inválido")
@@ -151,11 +313,25 @@ public class ContatoControllerTest {
     }
 
 
+    @Test
+    @Order(6)
+    @DisplayName("Deve retornar 304 ao consultar um contato com o ETag da versão atual")
+    void findByValidEmailNaoModificado() throws Exception {
+        returnContato.setVersao(2);
+        returnContato.setDataAtualizacao(new Date());
+        Mockito.when(contatoService.findById(validEmail)).thenReturn(Optional.of(returnContato));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URI_DEFAULT + "/{email}", validEmail)
+                        .header(HttpHeaders.IF_NONE_MATCH, EtagUtils.etag(returnContato)))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
     @Test
     @Order(7)
     @DisplayName("Deve retornar um erro ao tentar apagar um contato inexistente")
     void deleteNonexistentEmail() throws Exception {
-        Mockito.when(contatoService.delete(nonexistentEmail)).thenReturn(Optional.empty());
+        Mockito.when(contatoService.delete(nonexistentEmail)).thenReturn(false);
 
         mockMvc.perform(MockMvcRequestBuilders.delete(URI_DEFAULT + "/{email}", nonexistentEmail))
                 .andExpect(status().isNotFound())
@@ -166,7 +342,7 @@ public class ContatoControllerTest {
     @Order(8)
     @DisplayName("Deve retornar um erro ao tentar apagar um contato com e-mail inválido")
     void deleteInvalidEmail() throws Exception {
-        Mockito.when(contatoService.delete(invalidEmail)).thenReturn(Optional.empty());
+        Mockito.when(contatoService.delete(invalidEmail)).thenReturn(false);
 
         mockMvc.perform(MockMvcRequestBuilders.delete(URI_DEFAULT + "/{email}", invalidEmail))
                 .andExpect(status().isNotFound())
@@ -177,7 +353,7 @@ public class ContatoControllerTest {
     @Order(8)
     @DisplayName("Deve apagar um contato que contenha o e-mail informado ao fazer a requisição DELETE")
     void delete() throws Exception {
-        Mockito.when(contatoService.delete(validEmail)).thenReturn(Optional.of(returnContato));
+        Mockito.when(contatoService.delete(validEmail)).thenReturn(true);
 
         mockMvc.perform(MockMvcRequestBuilders.delete(URI_DEFAULT + "/{email}", validEmail))
                 .andExpect(status().isOk())
@@ -186,6 +362,22 @@ public class ContatoControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @Order(8)
+    @DisplayName("Deve apagar em lote os contatos dos e-mails informados na requisição DELETE")
+    void deleteLote() throws Exception {
+        Mockito.when(contatoService.deleteAll(Arrays.asList(validEmail, nonexistentEmail)))
+                .thenReturn(new ResultadoExclusao(2, 1));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(URI_DEFAULT + "/lote")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("[\"" + validEmail + "\", \"" + nonexistentEmail + "\"]"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.solicitados").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.excluidos").value(1))
+                .andDo(print());
+    }
+
     @Test
     @Order(9)
     @DisplayName("Deve retornar um erro ao tentar atualizar um contato que não existe na requisição PUT")
@@ -245,6 +437,26 @@ public class ContatoControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @Order(10)
+    @DisplayName("Deve retornar 412 ao atualizar um contato com um If-Match desatualizado")
+    void updatePutVersaoDesatualizada() throws Exception {
+        Contato contatoUpdate = Contato.builder()
+                .nome("Eduardo Leite Ranzzani")
+                .telefone("(67) 999246-6935")
+                .cep("79081200")
+                .build();
+
+        Mockito.when(contatoService.update(validEmail, contatoUpdate, "\"1-0\""))
+                .thenThrow(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED));
+
+        mockMvc.perform(put(URI_DEFAULT + "/{email}", validEmail)
+                        .header(HttpHeaders.IF_MATCH, "\"1-0\"")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapToJson(contatoUpdate)))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
     @Test
     @Order(11)
     @DisplayName("Deve retornar um erro ao tentar atualizar um contato que não existe na requisição PATCH")
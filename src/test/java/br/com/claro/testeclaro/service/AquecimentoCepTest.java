@@ -0,0 +1,211 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "viacep.warmup.enabled=true")
+@ActiveProfiles("development")
+@ExtendWith(OutputCaptureExtension.class)
+@DisplayName("Testando o aquecimento do cache de CEPs na inicialização")
+class AquecimentoCepTest {
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco("79002000", "Rua 14 de Julho", "Centro", "Campo Grande", "MS")
+            .endereco("01001000", "Praça da Sé", "Sé", "São Paulo", "SP")
+            .endereco("20040020", "Avenida Rio Branco", "Centro", "Rio de Janeiro", "RJ")
+            .endereco("30130010", "Praça Sete de Setembro", "Centro", "Belo Horizonte", "MG");
+
+    @Autowired
+    private AquecimentoCepService aquecimentoCepService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private ViaCepProperties properties;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        ViaCepProperties.Warmup warmup = properties.getWarmup();
+        warmup.setMaxCeps(1_000);
+        warmup.setConcurrency(10);
+        warmup.setTimeout(Duration.ofSeconds(30));
+        warmup.setProgressEvery(100);
+        warmup.setProgressInterval(Duration.ofSeconds(10));
+        repository.deleteAll();
+        cepCache.invalidateAll();
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("A aplicação deve ser informada como pronta após o aquecimento da inicialização")
+    void prontaAposAquecimento() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertNotNull(meterRegistry.find("viacep.warmup").tag("outcome", "completed").timer());
+    }
+
+    @Test
+    @DisplayName("Os CEPs mais frequentes dos contatos devem ser consultados até o limite configurado")
+    void consultaCepsMaisFrequentes() {
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            contatos.add(contato("sp" + i + "@teste.com", "01001000"));
+        }
+        for (int i = 0; i < 2; i++) {
+            contatos.add(contato("ms" + i + "@teste.com", "79002000"));
+            contatos.add(contato("inexistente" + i + "@teste.com", "79002999"));
+        }
+        contatos.add(contato("rj@teste.com", "20040020"));
+        repository.saveAll(contatos);
+        properties.getWarmup().setMaxCeps(3);
+        double encontrados = consultas("found");
+        double naoEncontrados = consultas("not_found");
+
+        assertTrue(aquecimentoCepService.aquecer());
+
+        assertEquals(1, viaCep.chamadas("01001000"));
+        assertEquals(1, viaCep.chamadas("79002000"));
+        assertEquals(1, viaCep.chamadas("79002999"));
+        assertEquals(0, viaCep.chamadas("20040020"));
+        assertTrue(cepCache.getIfPresent("01001000").isPresent());
+        assertTrue(cepCache.getIfPresent("79002000").isPresent());
+        assertEquals(Optional.empty(), cepCache.getIfPresent("79002999"));
+        assertEquals(encontrados + 2, consultas("found"));
+        assertEquals(naoEncontrados + 1, consultas("not_found"));
+        assertEquals(3, meterRegistry.get("viacep.warmup.ceps").gauge().value());
+    }
+
+    @Test
+    @DisplayName("O aquecimento deve respeitar o limite de consultas simultâneas e terminar no tempo máximo")
+    void limiteDeConsultasETempoMaximo() throws InterruptedException {
+        String[] ceps = {"79002000", "01001000", "20040020", "30130010"};
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < ceps.length; i++) {
+            contatos.add(contato("contato" + i + "@teste.com", ceps[i]));
+            viaCep.bloquear(ceps[i]);
+        }
+        repository.saveAll(contatos);
+        properties.getWarmup().setConcurrency(2);
+        properties.getWarmup().setTimeout(Duration.ofMillis(300));
+
+        long inicio = System.nanoTime();
+        assertFalse(aquecimentoCepService.aquecer());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 5_000);
+        assertEquals(2, viaCep.chamadas());
+        assertEquals(1, meterRegistry.get("viacep.warmup").tag("outcome", "timeout").timer().count());
+
+        // as consultas restantes continuam em segundo plano
+        for (String cep : ceps) {
+            viaCep.liberar(cep);
+        }
+        aguardar(() -> cepCache.estimatedSize() == ceps.length);
+        assertEquals(ceps.length, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Os CEPs gravados com e sem máscara devem ser contados juntos na escolha dos mais frequentes")
+    void consultaCepsComESemMascara() {
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            contatos.add(contato("ms" + i + "@teste.com", "79002000"));
+            contatos.add(contato("mascara" + i + "@teste.com", "79002-000"));
+        }
+        for (int i = 0; i < 3; i++) {
+            contatos.add(contato("sp" + i + "@teste.com", "01001000"));
+        }
+        repository.saveAll(contatos);
+        properties.getWarmup().setMaxCeps(1);
+
+        assertTrue(aquecimentoCepService.aquecer());
+
+        assertEquals(1, viaCep.chamadas("79002000"));
+        assertEquals(0, viaCep.chamadas("01001000"));
+        assertEquals(1, meterRegistry.get("viacep.warmup.ceps").gauge().value());
+    }
+
+    @Test
+    @DisplayName("O progresso do aquecimento deve ser registrado no log a cada intervalo de CEPs e de tempo")
+    void registraProgresso(CapturedOutput saida) throws InterruptedException {
+        String[] ceps = {"79002000", "01001000", "20040020"};
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < ceps.length; i++) {
+            contatos.add(contato("contato" + i + "@teste.com", ceps[i]));
+            contatos.add(contato("outro" + i + "@teste.com", ceps[i]));
+        }
+        // o CEP menos frequente é o último consultado e fica pendente
+        contatos.add(contato("bh@teste.com", "30130010"));
+        repository.saveAll(contatos);
+        viaCep.bloquear("30130010");
+        properties.getWarmup().setConcurrency(1);
+        properties.getWarmup().setTimeout(Duration.ofMillis(300));
+        properties.getWarmup().setProgressEvery(2);
+        properties.getWarmup().setProgressInterval(Duration.ofMillis(100));
+
+        assertFalse(aquecimentoCepService.aquecer());
+
+        // o progresso continua sendo registrado depois do tempo máximo
+        aguardar(() -> saida.getOut().contains("2 de 4 CEPs consultados (2 aquecidos e 0 falhas)"));
+        aguardar(() -> saida.getOut().contains("3 de 4 CEPs consultados (3 aquecidos e 0 falhas)"));
+        viaCep.liberar("30130010");
+        aguardar(() -> cepCache.estimatedSize() == ceps.length + 1);
+    }
+
+    private double consultas(String resultado) {
+        return meterRegistry.get("viacep.warmup.lookups").tag("outcome", resultado).counter().count();
+    }
+
+    private static Contato contato(String email, String cep) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep(cep)
+                .build();
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(condicao.getAsBoolean());
+    }
+
+}
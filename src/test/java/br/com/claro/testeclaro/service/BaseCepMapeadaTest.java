@@ -0,0 +1,110 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.config.CepLocalProperties;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.impl.BaseCepMapeada;
+import br.com.claro.testeclaro.service.impl.BaseCepMemoria;
+import br.com.claro.testeclaro.service.impl.EnderecoLocalServiceImpl;
+import br.com.claro.testeclaro.service.impl.GeradorIndiceCep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testando o índice binário da base local de CEPs")
+class BaseCepMapeadaTest {
+    private static final String BASE = "cep,logradouro,bairro,localidade,uf\n"
+            + "79002-000,Rua 14 de Julho,Centro,Campo Grande,MS\n"
+            + "01001000,\"Praça da Sé, lado ímpar\",Sé,São Paulo,SP\n"
+            + "79002001,,Centro,Campo Grande,MS\n";
+
+    @TempDir
+    Path diretorio;
+
+    private Path csv;
+    private Path indice;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csv = Files.write(diretorio.resolve("ceps.csv"), BASE.getBytes(StandardCharsets.UTF_8));
+        indice = diretorio.resolve("ceps.idx");
+    }
+
+    @Test
+    @DisplayName("O índice deve devolver os mesmos endereços da base carregada do CSV")
+    void mesmosEnderecosDoCsv() throws IOException {
+        BaseCepMemoria memoria = BaseCepMemoria.carregar(csv);
+        GeradorIndiceCep.gravar(memoria, indice, 20210901);
+
+        BaseCepMapeada mapeada = BaseCepMapeada.abrir(indice);
+
+        assertEquals(3, mapeada.tamanho());
+        assertEquals(20210901, mapeada.getVersao());
+        for (String cep : new String[]{"79002000", "01001000", "79002001"}) {
+            Endereco endereco = mapeada.buscar(cep).get();
+            assertEquals(memoria.buscar(cep).get(), endereco);
+        }
+        assertEquals("Praça da Sé, lado ímpar", mapeada.buscar("01001000").get().getLogradouro());
+        assertEquals("", mapeada.buscar("79002001").get().getLogradouro());
+        assertFalse(mapeada.buscar("79002002").isPresent());
+        assertFalse(mapeada.buscar("00000000").isPresent());
+        assertFalse(mapeada.buscar("99999999").isPresent());
+    }
+
+    @Test
+    @DisplayName("Um índice alterado após a geração deve ser recusado pelo checksum")
+    void indiceCorrompido() throws IOException {
+        GeradorIndiceCep.gravar(BaseCepMemoria.carregar(csv), indice, 1);
+        try (RandomAccessFile arquivo = new RandomAccessFile(indice.toFile(), "rw")) {
+            arquivo.seek(arquivo.length() - 1);
+            int ultimo = arquivo.read();
+            arquivo.seek(arquivo.length() - 1);
+            arquivo.write(ultimo ^ 1);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> BaseCepMapeada.abrir(indice));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    @DisplayName("Um arquivo incompleto ou que não seja um índice de CEPs deve ser recusado")
+    void arquivoInvalido() throws IOException {
+        GeradorIndiceCep.gravar(BaseCepMemoria.carregar(csv), indice, 1);
+        byte[] bytes = Files.readAllBytes(indice);
+        Path incompleto = Files.write(diretorio.resolve("incompleto.idx"), Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> BaseCepMapeada.abrir(incompleto));
+        IOException e = assertThrows(IOException.class, () -> BaseCepMapeada.abrir(csv));
+        assertTrue(e.getMessage().contains("não é um índice de CEPs"));
+    }
+
+    @Test
+    @DisplayName("Com cep.local.format=index o serviço deve consultar o índice e carregar a nova versão gerada")
+    void servicoComIndice() throws IOException {
+        GeradorIndiceCep.gravar(BaseCepMemoria.carregar(csv), indice, 1);
+        CepLocalProperties properties = new CepLocalProperties();
+        properties.setFile(indice.toString());
+        properties.setFormat(CepLocalProperties.Format.INDEX);
+        EnderecoLocalServiceImpl servico = new EnderecoLocalServiceImpl(null, properties, new SimpleMeterRegistry());
+
+        assertEquals("Campo Grande", servico.findByCEP("79002-000").getLocalidade());
+
+        Files.write(csv, "20040-020,Avenida Rio Branco,Centro,Rio de Janeiro,RJ\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        GeradorIndiceCep.gravar(BaseCepMemoria.carregar(csv), indice, 2);
+        assertEquals(4, servico.recarregar());
+
+        assertEquals(2, ((BaseCepMapeada) servico.getBase()).getVersao());
+        assertEquals("RJ", servico.findByCEP("20040020").getUf());
+    }
+
+}
@@ -0,0 +1,144 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.FiltroContatos;
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando a busca de contatos por nome, cidade, UF e CEP")
+class ContatoBuscaTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        repository.insertAll(Arrays.asList(
+                contato("ana@teste.com", "Ana Souza", "79002000", "Campo Grande", "MS"),
+                contato("anabela@teste.com", "Anabela Lima", "79050190", "Campo Grande", "MS"),
+                contato("andre@teste.com", "André Silva", "01310100", "São Paulo", "SP"),
+                contato("bruno@teste.com", "Bruno Anastácio", "79002000", "Campo Grande", "MS"),
+                contato("carla@teste.com", "carla_100% real", "01310100", "São Paulo", "SP")));
+    }
+
+    @Test
+    @DisplayName("A busca pelo nome deve considerar o início do nome, sem diferenciar maiúsculas e minúsculas")
+    void buscaPorPrefixoDoNome() {
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima", "André Silva"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome("AN").build(), null, null)));
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome(" ana").build(), null, null)));
+    }
+
+    @Test
+    @DisplayName("Os caracteres curinga do LIKE devem ser tratados como texto no nome")
+    void buscaPorNomeComCuringas() {
+        assertEquals(Collections.singletonList("carla_100% real"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome("carla_100%").build(), null, null)));
+        assertTrue(contatoService.buscar(FiltroContatos.builder().nome("%").build(), null, null)
+                .getConteudo().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Os filtros informados devem ser combinados")
+    void buscaCombinada() {
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima", "Bruno Anastácio"),
+                nomes(contatoService.buscar(FiltroContatos.builder().cidade("Campo Grande").build(), null, null)));
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome("an").uf("ms").build(), null, null)));
+        assertEquals(Collections.singletonList("Ana Souza"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome("an").cep("79002000").build(), null, null)));
+    }
+
+    @Test
+    @DisplayName("A busca pelo CEP deve encontrar contatos gravados com ou sem máscara")
+    void buscaPorCep() {
+        Contato comMascara = contato("daniel@teste.com", "Daniel Rocha", "79002-000", "Campo Grande", "MS");
+        repository.insertAll(Collections.singletonList(comMascara));
+
+        assertEquals(Arrays.asList("Ana Souza", "Bruno Anastácio", "Daniel Rocha"),
+                nomes(contatoService.buscar(FiltroContatos.builder().cep("79002-000").build(), null, null)));
+        assertEquals(3, contatoService.buscar(FiltroContatos.builder().cep("79002000").build(), null, null)
+                .getConteudo().size());
+    }
+
+    @Test
+    @DisplayName("As páginas seguintes devem ser obtidas pelo cursor, sem repetir ou omitir contatos")
+    void paginacaoPorCursor() {
+        List<String> nomes = new ArrayList<>();
+        FiltroContatos filtro = FiltroContatos.builder().nome("a").build();
+        Pagina<Contato> pagina = contatoService.buscar(filtro, null, 1);
+        nomes.addAll(nomes(pagina));
+        while (pagina.getProximoCursor() != null) {
+            pagina = contatoService.buscar(filtro, pagina.getProximoCursor(), 1);
+            nomes.addAll(nomes(pagina));
+        }
+
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima", "André Silva"), nomes);
+    }
+
+    @Test
+    @DisplayName("A busca deve considerar o nome alterado por PATCH")
+    void buscaAposPatch() {
+        contatoService.patchUpdate("bruno@teste.com", Collections.singletonMap("nome", "Antônio Bruno"));
+
+        assertEquals(Arrays.asList("Ana Souza", "Anabela Lima", "André Silva", "Antônio Bruno"),
+                nomes(contatoService.buscar(FiltroContatos.builder().nome("an").build(), null, null)));
+    }
+
+    @Test
+    @DisplayName("A busca sem filtros, com CEP inválido ou com cursor de outra ordenação deve ser recusada")
+    void buscaInvalida() {
+        assertBadRequest(() -> contatoService.buscar(new FiltroContatos(), null, null));
+        assertBadRequest(() -> contatoService.buscar(FiltroContatos.builder().nome(" ").build(), null, null));
+        assertBadRequest(() -> contatoService.buscar(FiltroContatos.builder().cep("7900").build(), null, null));
+        assertBadRequest(() -> contatoService.buscar(FiltroContatos.builder().uf("MS").build(), null, 0));
+
+        String cursor = contatoService.buscar(FiltroContatos.builder().uf("MS").build(), null, 1).getProximoCursor();
+        assertNotNull(cursor);
+        assertBadRequest(() -> contatoService.buscar(FiltroContatos.builder().nome("an").build(), cursor, 1));
+    }
+
+    private static void assertBadRequest(Executable executavel) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, executavel);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+    }
+
+    private static List<String> nomes(Pagina<Contato> pagina) {
+        return pagina.getConteudo().stream().map(Contato::getNome).collect(Collectors.toList());
+    }
+
+    private static Contato contato(String email, String nome, String cep, String cidade, String uf) {
+        return Contato.builder()
+                .email(email)
+                .nome(nome)
+                .telefone("(67) 99999-9999")
+                .cep(cep)
+                .endereco("Rua 14 de Julho, Centro")
+                .cidade(cidade)
+                .uf(uf)
+                .dataCadastro(new Date())
+                .build();
+    }
+
+}
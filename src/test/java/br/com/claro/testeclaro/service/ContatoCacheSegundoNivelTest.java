@@ -0,0 +1,86 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest(properties = {
+        "contatos.cache.enabled=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("development")
+@DisplayName("Testando o cache de segundo nível do Hibernate como alternativa ao cache de contatos")
+class ContatoCacheSegundoNivelTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    // um contato excluído e cadastrado novamente com o mesmo e-mail só volta ao
+    // cache de segundo nível após o timeout do bloqueio, então cada teste usa um
+    // e-mail diferente
+    private final String email = "segundo.nivel" + System.nanoTime() + "@teste.com";
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua 14 de Julho");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP(anyString())).thenReturn(endereco);
+        contatoService.save(Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    @DisplayName("Consultas repetidas devem ser atendidas pelo cache de segundo nível")
+    void consultaRepetidaUsaCache() {
+        contatoService.findById(email);
+        estatisticas.clear();
+        contatoService.findById(email);
+        contatoService.findById(email);
+
+        assertEquals(2, estatisticas.getSecondLevelCacheHitCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("A consulta após o PATCH e o DELETE deve refletir as alterações")
+    void consultaAposAlteracoes() {
+        contatoService.findById(email);
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Contato Parcial"));
+        assertEquals("Contato Parcial", contatoService.findById(email).get().getNome());
+
+        contatoService.delete(email);
+        assertFalse(contatoService.findById(email).isPresent());
+    }
+
+}
@@ -0,0 +1,139 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.impl.ContatoServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando o cache de contatos do ContatoService")
+class ContatoCacheTest {
+    @Autowired
+    private ContatoServiceImpl contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Contato> contatoCache;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    private final String email = "cache@teste.com";
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        contatoCache.invalidateAll();
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua 14 de Julho");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP(anyString())).thenReturn(endereco);
+        contatoService.save(Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Consultas repetidas devem ser atendidas pelo cache")
+    void consultaRepetidaUsaCache() {
+        contatoCache.invalidateAll();
+        long acertos = contatoService.getCacheStats().hitCount();
+
+        assertTrue(contatoService.findById(email).isPresent());
+        repository.deleteAll();
+        Optional<Contato> emCache = contatoService.findById(email);
+
+        assertTrue(emCache.isPresent());
+        assertEquals("Contato Teste", emCache.get().getNome());
+        assertEquals(acertos + 1, contatoService.getCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("E-mails que diferem só nas maiúsculas devem ter o mesmo resultado da base de dados, com ou sem cache")
+    void emailsComMaiusculas() {
+        contatoService.save(Contato.builder()
+                .email("Cache@Teste.com")
+                .nome("Contato Maiúsculas")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+        contatoCache.invalidateAll();
+
+        for (int consulta = 0; consulta < 2; consulta++) {
+            assertEquals("Contato Teste", contatoService.findById(email).get().getNome());
+            assertEquals("Contato Maiúsculas", contatoService.findById("Cache@Teste.com").get().getNome());
+            // o H2 diferencia maiúsculas e minúsculas na chave
+            assertFalse(contatoService.findById("CACHE@teste.com").isPresent());
+        }
+
+        // as duas grafias ocupam a mesma chave, removida sem percorrer o cache
+        assertNotNull(contatoCache.getIfPresent("cache@teste.com"));
+        assertTrue(contatoService.delete("Cache@Teste.com"));
+        assertNull(contatoCache.getIfPresent("cache@teste.com"));
+        assertFalse(contatoService.findById("Cache@Teste.com").isPresent());
+        assertEquals("Contato Teste", contatoService.findById(email).get().getNome());
+    }
+
+    @Test
+    @DisplayName("Alterações no contato retornado não devem alterar o contato em cache")
+    void retornaCopia() {
+        contatoService.findById(email).get().setNome("Alterado sem salvar");
+
+        assertEquals("Contato Teste", contatoService.findById(email).get().getNome());
+    }
+
+    @Test
+    @DisplayName("A consulta após o PUT deve retornar os dados atualizados")
+    void consultaAposUpdate() {
+        contatoService.findById(email);
+        contatoService.update(email, Contato.builder()
+                .nome("Contato Atualizado")
+                .telefone("(67) 98888-8888")
+                .cep("79002-000")
+                .build());
+
+        Contato contato = contatoService.findById(email).get();
+        assertEquals("Contato Atualizado", contato.getNome());
+        assertEquals("(67) 98888-8888", contato.getTelefone());
+        assertEquals("Campo Grande", contato.getCidade());
+    }
+
+    @Test
+    @DisplayName("A consulta após o PATCH deve retornar os dados atualizados")
+    void consultaAposPatch() {
+        contatoService.findById(email);
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Contato Parcial"));
+
+        Contato contato = contatoService.findById(email).get();
+        assertEquals("Contato Parcial", contato.getNome());
+        assertEquals("(67) 99999-9999", contato.getTelefone());
+    }
+
+    @Test
+    @DisplayName("A consulta após o DELETE não deve encontrar o contato")
+    void consultaAposDelete() {
+        contatoService.findById(email);
+        assertTrue(contatoService.delete(email));
+
+        assertFalse(contatoService.findById(email).isPresent());
+    }
+
+}
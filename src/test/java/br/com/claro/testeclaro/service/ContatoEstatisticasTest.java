@@ -0,0 +1,174 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.config.StatisticsProperties;
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.ContagemCidade;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.EstatisticasContatos;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.impl.EstatisticasContatosServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest(properties = {
+        "contatos.statistics.incremental=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("development")
+@DisplayName("Testando as estatísticas de contatos por UF, cidade e dia de cadastro")
+class ContatoEstatisticasTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EstatisticasContatosService estatisticasService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    /**
+     * Estatísticas agrupadas pela base de dados, usadas como referência para as
+     * estatísticas em memória.
+     */
+    private EstatisticasContatosService banco;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        estatisticasService.reconciliar();
+        banco = new EstatisticasContatosServiceImpl(repository, new StatisticsProperties());
+        Mockito.when(enderecoService.findByCEP(anyString())).thenAnswer(invocation -> endereco(invocation.getArgument(0)));
+        Mockito.when(enderecoService.findByCEPAsync(anyString()))
+                .thenAnswer(invocation -> Mono.just(endereco(invocation.getArgument(0))));
+    }
+
+    @Test
+    @DisplayName("As estatísticas em memória devem acompanhar as inclusões, alterações e exclusões")
+    void estatisticasIncrementais() throws Exception {
+        contatoService.save(contato("a@teste.com", "79002-000"));
+        contatoService.save(contato("b@teste.com", "79002-000"));
+        contatoService.save(contato("c@teste.com", "01310-100"));
+        assertEstatisticasDoBanco();
+
+        contatoService.update("a@teste.com", contato("a@teste.com", "01310-100"));
+        assertEstatisticasDoBanco();
+
+        contatoService.patchUpdate("b@teste.com", Collections.singletonMap("dataCadastro", "01/02/2021 10:00:00"));
+        contatoService.patchUpdate("c@teste.com", Collections.singletonMap("cep", "79002-000"));
+        contatoService.save(contato("c@teste.com", "01310-100"));
+        assertEstatisticasDoBanco();
+
+        contatoService.importar(new ByteArrayInputStream(
+                "{\"email\":\"d@teste.com\",\"nome\":\"D\",\"telefone\":\"(67) 99999-9999\",\"cep\":\"79002-000\"}"
+                        .getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, FormatoImportacao.NDJSON);
+        assertEstatisticasDoBanco();
+
+        contatoService.delete("a@teste.com");
+        contatoService.deleteAll(Arrays.asList("b@teste.com", "inexistente@teste.com"));
+        assertEstatisticasDoBanco();
+        assertEquals(2, estatisticasService.consultar().getTotal());
+    }
+
+    @Test
+    @DisplayName("A consulta das estatísticas em memória não deve acessar a base de dados")
+    void consultaSemBancoDeDados() {
+        contatoService.save(contato("a@teste.com", "79002-000"));
+        contatoService.save(contato("b@teste.com", "79002-000"));
+        contatoService.save(contato("c@teste.com", "01310-100"));
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        EstatisticasContatos resultado = contatoService.estatisticas();
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertEquals(3, resultado.getTotal());
+        Map<String, Long> porUf = new HashMap<>();
+        porUf.put("MS", 2L);
+        porUf.put("SP", 1L);
+        assertEquals(porUf, resultado.getPorUf());
+        assertEquals(Arrays.asList(new ContagemCidade("MS", "Campo Grande", 2), new ContagemCidade("SP", "São Paulo", 1)),
+                resultado.getPorCidade());
+        assertEquals(Collections.singletonMap(LocalDate.now(), 3L), resultado.getCadastrosPorDia());
+    }
+
+    @Test
+    @DisplayName("Os contatos sem endereço devem entrar somente no total e em semEndereco")
+    void contatosSemEndereco() {
+        Mockito.when(enderecoService.findByCEP("01310-100")).thenThrow(new EnderecoIndisponivelException(null));
+        contatoService.save(contato("a@teste.com", "79002-000"));
+        contatoService.save(contato("b@teste.com", "01310-100"));
+
+        EstatisticasContatos resultado = estatisticasService.consultar();
+
+        assertEquals(2, resultado.getTotal());
+        assertEquals(1, resultado.getSemEndereco());
+        assertEquals(Collections.singletonMap("MS", 1L), resultado.getPorUf());
+        assertEquals(banco.consultar(), resultado);
+    }
+
+    @Test
+    @DisplayName("O recálculo deve incluir os contatos gravados diretamente na base de dados")
+    void reconciliacao() {
+        contatoService.save(contato("a@teste.com", "79002-000"));
+        Contato direto = contato("b@teste.com", "79002-000");
+        direto.setCidade("Dourados");
+        direto.setUf("MS");
+        direto.setDataCadastro(new Date());
+        repository.insertAll(Collections.singletonList(direto));
+        assertEquals(1, estatisticasService.consultar().getTotal());
+
+        estatisticasService.reconciliar();
+
+        assertEstatisticasDoBanco();
+        assertEquals(Collections.singletonMap("MS", 2L), estatisticasService.consultar().getPorUf());
+    }
+
+    private void assertEstatisticasDoBanco() {
+        assertEquals(banco.consultar(), estatisticasService.consultar());
+    }
+
+    private static Endereco endereco(String cep) {
+        boolean saoPaulo = cep.startsWith("01");
+        Endereco endereco = new Endereco();
+        endereco.setCep(cep);
+        endereco.setLogradouro(saoPaulo ? "Avenida Paulista" : "Rua 14 de Julho");
+        endereco.setBairro(saoPaulo ? "Bela Vista" : "Centro");
+        endereco.setLocalidade(saoPaulo ? "São Paulo" : "Campo Grande");
+        endereco.setUf(saoPaulo ? "SP" : "MS");
+        return endereco;
+    }
+
+    private static Contato contato(String email, String cep) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep(cep)
+                .build();
+    }
+
+}
@@ -0,0 +1,102 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.ResultadoExclusao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("development")
+@DisplayName("Testando a exclusão de contatos com um único DELETE")
+class ContatoExclusaoTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        repository.saveAll(Arrays.asList(
+                contato("exclusao1@teste.com"),
+                contato("exclusao2@teste.com"),
+                contato("exclusao3@teste.com")));
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    @DisplayName("A exclusão de um contato deve executar apenas o DELETE, sem carregar o contato")
+    void deleteSemConsulta() {
+        assertTrue(contatoService.delete("exclusao1@teste.com"));
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+        assertFalse(repository.existsById("exclusao1@teste.com"));
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    @DisplayName("A exclusão de um contato inexistente deve retornar false")
+    void deleteInexistente() {
+        assertFalse(contatoService.delete("inexistente@teste.com"));
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(3, repository.count());
+    }
+
+    @Test
+    @DisplayName("A exclusão em lote deve executar um único DELETE e ignorar e-mails repetidos, em branco ou inexistentes")
+    void deleteEmLote() {
+        ResultadoExclusao resultado = contatoService.deleteAll(Arrays.asList(
+                "exclusao1@teste.com", "exclusao2@teste.com", "inexistente@teste.com", "exclusao1@teste.com", " "));
+
+        assertEquals(3, resultado.getSolicitados());
+        assertEquals(2, resultado.getExcluidos());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(1, repository.count());
+        assertTrue(repository.existsById("exclusao3@teste.com"));
+    }
+
+    @Test
+    @DisplayName("A consulta após a exclusão, individual ou em lote, não deve encontrar o contato em cache")
+    void consultaAposExclusao() {
+        assertTrue(contatoService.findById("exclusao1@teste.com").isPresent());
+        assertTrue(contatoService.findById("exclusao2@teste.com").isPresent());
+
+        contatoService.delete("exclusao1@teste.com");
+        contatoService.deleteAll(Arrays.asList("exclusao2@teste.com"));
+
+        assertFalse(contatoService.findById("exclusao1@teste.com").isPresent());
+        assertFalse(contatoService.findById("exclusao2@teste.com").isPresent());
+    }
+
+    private static Contato contato(String email) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002000")
+                .endereco("Rua 14 de Julho, Centro")
+                .cidade("Campo Grande")
+                .uf("MS")
+                .dataCadastro(new Date())
+                .build();
+    }
+
+}
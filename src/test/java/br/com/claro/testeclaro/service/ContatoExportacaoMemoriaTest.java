@@ -0,0 +1,112 @@
+package br.com.claro.testeclaro.service;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exporta uma base H2 em arquivo com muito mais contatos do que caberiam no
+ * heap. Executado pelo surefire em uma JVM separada, com {@code -Xmx} reduzido
+ * (execução {@code memoria} do pom.xml); sem a leitura por cursor e a escrita
+ * contínua da resposta, a exportação falharia com OutOfMemoryError.
+ */
+@Tag("memoria")
+@ActiveProfiles("development")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/exportacao;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@DisplayName("Testando o uso de memória da exportação de contatos")
+class ContatoExportacaoMemoriaTest {
+    private static final int CONTATOS = 300_000;
+    private static final int LOTE = 50_000;
+    private static final long HEAP_MAXIMO = 256L * 1024 * 1024;
+
+    private static boolean carregado;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        assumeHeapReduzido();
+        if (carregado) {
+            return;
+        }
+        jdbcTemplate.update("delete from contato");
+        for (int inicio = 0; inicio < CONTATOS; inicio += LOTE) {
+            jdbcTemplate.update("insert into contato (email, nome, telefone, cep, endereco, cidade, uf, data_cadastro,"
+                            + " endereco_pendente, tentativas_endereco, versao)"
+                            + " select 'contato' || lpad(x, 7, '0') || '@teste.com', 'Contato de exportação ' || x,"
+                            + " '(67) 99999-9999', '79002000', 'Rua 14 de Julho, Centro', 'Campo Grande', 'MS',"
+                            + " current_timestamp, false, 0, 0 from system_range(?, ?)",
+                    inicio, Math.min(inicio + LOTE, CONTATOS) - 1);
+        }
+        carregado = true;
+    }
+
+    @Test
+    @DisplayName("Exportação em NDJSON de 300 mil contatos com heap reduzido")
+    void exportarNdjson() throws Exception {
+        HttpURLConnection conexao = abrir("ndjson");
+        long linhas = 0;
+        String anterior = "";
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                assertTrue(linha.compareTo(anterior) > 0);
+                anterior = linha;
+                linhas++;
+            }
+        }
+        assertEquals(CONTATOS, linhas);
+    }
+
+    @Test
+    @DisplayName("Exportação em JSON de 300 mil contatos com heap reduzido")
+    void exportarJson() throws Exception {
+        HttpURLConnection conexao = abrir("json");
+        long contatos = 0;
+        try (JsonParser parser = new JsonFactory().createParser(conexao.getInputStream())) {
+            assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                contatos++;
+            }
+            assertEquals(JsonToken.END_ARRAY, parser.currentToken());
+        }
+        assertEquals(CONTATOS, contatos);
+    }
+
+    private HttpURLConnection abrir(String formato) throws Exception {
+        HttpURLConnection conexao = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/api/contatos/exportacao?formato=" + formato).openConnection();
+        assertEquals(200, conexao.getResponseCode());
+        assertEquals("chunked", conexao.getHeaderField("Transfer-Encoding"));
+        return conexao;
+    }
+
+    private static void assumeHeapReduzido() {
+        Assumptions.assumeTrue(Runtime.getRuntime().maxMemory() <= HEAP_MAXIMO,
+                "executar com -Xmx reduzido (mvn test executa a execução memoria do surefire)");
+    }
+
+}
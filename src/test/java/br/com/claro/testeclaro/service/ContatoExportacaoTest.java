@@ -0,0 +1,95 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.FormatoExportacao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando a exportação de contatos")
+class ContatoExportacaoTest {
+    private static final int CONTATOS = 2_500;
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = CONTATOS - 1; i >= 0; i--) {
+            contatos.add(Contato.builder()
+                    .email(String.format("contato%05d@teste.com", i))
+                    .nome("Contato \"" + i + "\"")
+                    .telefone("(67) 99999-9999")
+                    .cep("79002000")
+                    .endereco("Rua 14 de Julho, Centro")
+                    .cidade("Campo Grande")
+                    .uf("MS")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.saveAll(contatos);
+    }
+
+    @Test
+    @DisplayName("A exportação em NDJSON deve ter um contato por linha, ordenados pelo e-mail")
+    void exportarNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(CONTATOS, contatoService.exportar(out, FormatoExportacao.NDJSON));
+
+        String[] linhas = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(CONTATOS + 1, linhas.length);
+        assertEquals("", linhas[CONTATOS]);
+        for (int i = 0; i < CONTATOS; i++) {
+            Contato contato = objectMapper.readValue(linhas[i], Contato.class);
+            assertEquals(String.format("contato%05d@teste.com", i), contato.getEmail());
+            assertEquals("Contato \"" + i + "\"", contato.getNome());
+        }
+    }
+
+    @Test
+    @DisplayName("A exportação em JSON deve ser um único array com todos os contatos")
+    void exportarJson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(CONTATOS, contatoService.exportar(out, FormatoExportacao.JSON));
+
+        JsonNode contatos = objectMapper.readTree(out.toByteArray());
+        assertTrue(contatos.isArray());
+        assertEquals(CONTATOS, contatos.size());
+        assertEquals("contato00000@teste.com", contatos.get(0).get("email").asText());
+        assertEquals("Campo Grande", contatos.get(CONTATOS - 1).get("cidade").asText());
+    }
+
+    @Test
+    @DisplayName("A exportação de uma base vazia deve ser válida")
+    void exportarVazio() throws Exception {
+        repository.deleteAll();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        assertEquals(0, contatoService.exportar(ndjson, FormatoExportacao.NDJSON));
+        assertEquals(0, contatoService.exportar(json, FormatoExportacao.JSON));
+        assertEquals(0, ndjson.size());
+        assertEquals("[]", json.toString(StandardCharsets.UTF_8.name()));
+    }
+
+}
@@ -0,0 +1,181 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.util.EtagUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("development")
+@DisplayName("Testando os comandos SQL executados na gravação e na alteração de contatos")
+class ContatoGravacaoTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    private final String email = "gravacao@teste.com";
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua 14 de Julho");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP(anyString())).thenReturn(endereco);
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    @DisplayName("O cadastro de um novo contato deve executar apenas o INSERT")
+    void cadastroSemConsulta() {
+        Contato salvo = contatoService.save(contato("Contato Teste")).get();
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getEntityInsertCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+        assertFalse(salvo.isNew());
+        assertTrue(repository.existsById(email));
+    }
+
+    @Test
+    @DisplayName("O PUT deve executar uma consulta e um UPDATE")
+    void updateComUmaConsulta() {
+        contatoService.save(contato("Contato Teste"));
+        estatisticas.clear();
+
+        Contato atualizado = contatoService.update(email, contato("Contato Atualizado")).get();
+
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getEntityLoadCount());
+        assertEquals(1, estatisticas.getEntityUpdateCount());
+        assertEquals(1, atualizado.getVersao());
+        assertEquals("Contato Atualizado", repository.findById(email).get().getNome());
+    }
+
+    @Test
+    @DisplayName("O cadastro de um e-mail já cadastrado deve substituir os dados do contato")
+    void cadastroDeEmailExistente() {
+        contatoService.save(contato("Contato Teste"));
+        contatoService.update(email, contato("Contato Atualizado"));
+
+        Contato salvo = contatoService.save(contato("Contato Cadastrado Novamente")).get();
+
+        assertEquals(2, salvo.getVersao());
+        assertEquals(1, repository.count());
+        assertEquals("Contato Cadastrado Novamente", repository.findById(email).get().getNome());
+    }
+
+    @Test
+    @DisplayName("O PATCH sem alteração do CEP deve executar o UPDATE antes da consulta, sem consultar o CEP")
+    void patchSemConsultaPrevia() {
+        contatoService.save(contato("Contato Teste"));
+        Mockito.clearInvocations(enderecoService);
+        estatisticas.clear();
+
+        Contato atualizado = contatoService.patchUpdate(email, Collections.singletonMap("telefone", "(67) 98888-8888")).get();
+
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getEntityLoadCount());
+        assertEquals("(67) 98888-8888", atualizado.getTelefone());
+        assertEquals("Contato Teste", atualizado.getNome());
+        assertEquals("Campo Grande", atualizado.getCidade());
+        assertEquals(1, atualizado.getVersao());
+        Mockito.verifyNoInteractions(enderecoService);
+    }
+
+    @Test
+    @DisplayName("PATCHes de campos diferentes devem preservar as alterações anteriores")
+    void patchSomenteColunasInformadas() {
+        contatoService.save(contato("Contato Teste"));
+
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Nome Alterado"));
+        contatoService.patchUpdate(email, Collections.singletonMap("telefone", "(67) 98888-8888"));
+
+        Contato salvo = repository.findById(email).get();
+        assertEquals("Nome Alterado", salvo.getNome());
+        assertEquals("(67) 98888-8888", salvo.getTelefone());
+        assertEquals(2, salvo.getVersao());
+    }
+
+    @Test
+    @DisplayName("O PATCH com um novo CEP deve consultar o contato e o CEP antes do UPDATE")
+    void patchComNovoCep() {
+        contatoService.save(contato("Contato Teste"));
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Avenida Afonso Pena");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP("79050-190")).thenReturn(endereco);
+        estatisticas.clear();
+
+        Contato atualizado = contatoService.patchUpdate(email, Collections.singletonMap("cep", "79050-190")).get();
+
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals("Avenida Afonso Pena, Centro", atualizado.getEndereco());
+        assertEquals(1, atualizado.getVersao());
+        Contato salvo = repository.findById(email).get();
+        assertEquals("79050-190", salvo.getCep());
+        assertEquals("Avenida Afonso Pena, Centro", salvo.getEndereco());
+        assertEquals(atualizado.getDataAtualizacao().getTime(), salvo.getDataAtualizacao().getTime());
+    }
+
+    @Test
+    @DisplayName("O PATCH com If-Match deve consultar o contato e executar o UPDATE somente na versão lida")
+    void patchComIfMatch() {
+        Contato salvo = contatoService.save(contato("Contato Teste")).get();
+        String etag = EtagUtils.etag(salvo);
+        estatisticas.clear();
+
+        Contato atualizado = contatoService.patchUpdate(email, Collections.singletonMap("nome", "Nome Alterado"), etag).get();
+
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(1, atualizado.getVersao());
+        assertEquals(EtagUtils.etag(repository.findById(email).get()), EtagUtils.etag(atualizado));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> contatoService.patchUpdate(email, Collections.singletonMap("nome", "Alteração perdida"), etag));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, e.getStatus());
+    }
+
+    @Test
+    @DisplayName("O PATCH de um contato inexistente não deve alterar nenhum contato")
+    void patchInexistente() {
+        assertFalse(contatoService.patchUpdate("inexistente@teste.com",
+                Collections.singletonMap("nome", "Nome Alterado")).isPresent());
+    }
+
+    private Contato contato(String nome) {
+        return Contato.builder()
+                .email(email)
+                .nome(nome)
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build();
+    }
+
+}
@@ -0,0 +1,199 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.FormatoImportacao;
+import br.com.claro.testeclaro.model.ItemImportacao;
+import br.com.claro.testeclaro.model.ResultadoImportacao;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando a importação de contatos em lote")
+class ContatoImportacaoTest {
+    private static final String[] CEPS = {"79002000", "79050190", "01001000"};
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco(CEPS[0], "Rua 14 de Julho", "Centro", "Campo Grande", "MS")
+            .endereco(CEPS[1], "Rua Pernambuco", "Centro", "Campo Grande", "MS")
+            .endereco(CEPS[2], "Praça da Sé", "Sé", "São Paulo", "SP");
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+    @Autowired
+    private CircuitBreaker viaCepCircuitBreaker;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+        viaCepCircuitBreaker.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("Cada CEP deve ser consultado uma única vez em toda a importação")
+    void importarNdjson() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1_200; i++) {
+            ndjson.append(String.format("{\"email\": \"lote%04d@teste.com\", \"nome\": \"Contato %d\","
+                    + " \"telefone\": \"(67) 99999-9999\", \"cep\": \"%s\"}%n", i, i, CEPS[i % CEPS.length]));
+        }
+
+        ResultadoImportacao resultado = importar(ndjson.toString(), FormatoImportacao.NDJSON);
+
+        assertEquals(1_200, resultado.getTotal());
+        assertEquals(1_200, resultado.getImportados());
+        assertEquals(0, resultado.getErros());
+        assertEquals(1_200, repository.count());
+        assertEquals(CEPS.length, viaCep.chamadas());
+        Contato contato = repository.findById("lote0002@teste.com").get();
+        assertEquals("Praça da Sé, Sé", contato.getEndereco());
+        assertEquals("SP", contato.getUf());
+        assertNotNull(contato.getDataCadastro());
+    }
+
+    @Test
+    @DisplayName("Linhas com erro devem ser informadas no resultado sem impedir a importação das demais")
+    void importarJsonComErros() throws Exception {
+        repository.save(Contato.builder()
+                .email("cadastrado@teste.com")
+                .nome("Contato")
+                .telefone("(67) 99999-9999")
+                .cep(CEPS[0])
+                .dataCadastro(new Date())
+                .build());
+        String json = "["
+                + contato("valido@teste.com", CEPS[0]) + ","
+                + contato("invalido", CEPS[0]) + ","
+                + "{\"email\": \"semnome@teste.com\", \"telefone\": \"(67) 99999-9999\", \"cep\": \"79002000\"},"
+                + contato("cepinvalido@teste.com", "7900") + ","
+                + contato("cepinexistente@teste.com", "99999999") + ","
+                + contato("valido@teste.com", CEPS[1]) + ","
+                + contato("cadastrado@teste.com", CEPS[1]) + ","
+                + "{\"email\": \"tipo@teste.com\", \"nome\": {\"primeiro\": \"Contato\"}},"
+                + "\"texto\""
+                + "]";
+
+        ResultadoImportacao resultado = importar(json, FormatoImportacao.JSON);
+
+        assertEquals(9, resultado.getTotal());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(8, resultado.getErros());
+        assertTrue(resultado.getItens().get(0).isImportado());
+        assertEquals(1, resultado.getItens().get(0).getLinha());
+        assertErro(resultado.getItens().get(1), "Campo e-mail está em um formato inválido");
+        assertErro(resultado.getItens().get(2), "Campo nome obrigatório!");
+        assertErro(resultado.getItens().get(3), "Erro ao buscar endereço, CEP Inválido");
+        assertFalse(resultado.getItens().get(4).isImportado());
+        assertErro(resultado.getItens().get(5), "Contato repetido no arquivo");
+        assertErro(resultado.getItens().get(6), "Contato já cadastrado");
+        assertErro(resultado.getItens().get(7), "Campo nome em formato inválido");
+        assertErro(resultado.getItens().get(8), "Contato em formato inválido");
+        assertEquals(9, resultado.getItens().get(8).getLinha());
+        assertEquals(2, repository.count());
+        assertEquals(CEPS[0], repository.findById("valido@teste.com").get().getCep());
+    }
+
+    @Test
+    @DisplayName("A importação em CSV deve aceitar campos entre aspas e colunas em qualquer ordem")
+    void importarCsv() throws Exception {
+        String csv = "\uFEFFnome,email,cep,telefone\r\n"
+                + "\"Silva, João\",joao@teste.com,79002-000,(67) 99999-9999\r\n"
+                + "\r\n"
+                + "\"Maria \"\"Mary\"\"\",maria@teste.com,01001000,(11) 99999-9999\r\n"
+                + "Incompleto,incompleto@teste.com\r\n";
+
+        ResultadoImportacao resultado = importar(csv, FormatoImportacao.CSV);
+
+        assertEquals(3, resultado.getTotal());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(2, resultado.getItens().get(0).getLinha());
+        assertEquals(4, resultado.getItens().get(1).getLinha());
+        assertErro(resultado.getItens().get(2), "Linha do CSV deve ter 4 campos");
+        assertEquals("Silva, João", repository.findById("joao@teste.com").get().getNome());
+        assertEquals("Maria \"Mary\"", repository.findById("maria@teste.com").get().getNome());
+        assertEquals("São Paulo", repository.findById("maria@teste.com").get().getCidade());
+    }
+
+    @Test
+    @DisplayName("Arquivos fora do formato informado devem ser recusados")
+    void arquivoInvalido() {
+        ResponseStatusException csv = assertThrows(ResponseStatusException.class,
+                () -> importar("email,nome,idade\n", FormatoImportacao.CSV));
+        ResponseStatusException json = assertThrows(ResponseStatusException.class,
+                () -> importar(contato("objeto@teste.com", CEPS[0]), FormatoImportacao.JSON));
+
+        assertEquals(HttpStatus.BAD_REQUEST, csv.getStatus());
+        assertEquals("Erro ao importar contatos, coluna desconhecida no CSV: idade", csv.getReason());
+        assertEquals(HttpStatus.BAD_REQUEST, json.getStatus());
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    @DisplayName("Com o ViaCEP indisponível, os contatos devem ser importados com o endereço pendente")
+    void importarViaCepIndisponivel() throws Exception {
+        viaCep.falhar(500);
+
+        ResultadoImportacao resultado = importar(contato("pendente@teste.com", CEPS[0]) + "\n"
+                + contato("pendente2@teste.com", CEPS[0]), FormatoImportacao.NDJSON);
+
+        assertEquals(2, resultado.getImportados());
+        assertTrue(resultado.getItens().get(0).isEnderecoPendente());
+        assertTrue(repository.findById("pendente@teste.com").get().isEnderecoPendente());
+    }
+
+    private ResultadoImportacao importar(String conteudo, FormatoImportacao formato) throws Exception {
+        return contatoService.importar(new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, formato);
+    }
+
+    private static String contato(String email, String cep) {
+        return String.format("{\"email\": \"%s\", \"nome\": \"Contato\", \"telefone\": \"(67) 99999-9999\","
+                + " \"cep\": \"%s\"}", email, cep);
+    }
+
+    private static void assertErro(ItemImportacao item, String erro) {
+        assertFalse(item.isImportado());
+        assertEquals(Collections.singletonList(erro), item.getErros());
+    }
+
+}
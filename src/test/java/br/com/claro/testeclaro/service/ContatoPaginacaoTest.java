@@ -0,0 +1,125 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Pagina;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando a listagem paginada de contatos")
+class ContatoPaginacaoTest {
+    private static final int CONTATOS = 53;
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+
+    private List<Contato> salvos;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < CONTATOS; i++) {
+            contatos.add(Contato.builder()
+                    .email(String.format("contato%02d@teste.com", (i * 7) % CONTATOS))
+                    .nome("Contato " + (i % 5))
+                    .telefone("(67) 99999-9999")
+                    .cep("79002000")
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        salvos = repository.saveAll(contatos);
+    }
+
+    @Test
+    @DisplayName("Percorrer as páginas pelo cursor deve retornar todos os contatos ordenados pelo e-mail")
+    void percorrerPorCursor() {
+        List<String> emails = new ArrayList<>();
+        Pagina<Contato> pagina = contatoService.findAll(null, null, 10, null);
+        emails.addAll(emails(pagina));
+        int paginas = 1;
+        while (pagina.getProximoCursor() != null) {
+            pagina = contatoService.findAll(null, pagina.getProximoCursor(), 10, null);
+            emails.addAll(emails(pagina));
+            paginas++;
+        }
+
+        assertEquals(6, paginas);
+        assertEquals(salvos.stream().map(Contato::getEmail).sorted().collect(Collectors.toList()), emails);
+    }
+
+    @Test
+    @DisplayName("O cursor deve manter a ordenação por nome, desempatando pelo e-mail")
+    void percorrerPorCursorOrdenandoPorNome() {
+        List<String> emails = new ArrayList<>();
+        Pagina<Contato> pagina = contatoService.findAll(null, null, 7, "nome,desc");
+        emails.addAll(emails(pagina));
+        while (pagina.getProximoCursor() != null) {
+            pagina = contatoService.findAll(null, pagina.getProximoCursor(), 7, null);
+            emails.addAll(emails(pagina));
+        }
+
+        List<String> esperado = salvos.stream()
+                .sorted(Comparator.comparing(Contato::getNome).thenComparing(Contato::getEmail).reversed())
+                .map(Contato::getEmail)
+                .collect(Collectors.toList());
+        assertEquals(esperado, emails);
+    }
+
+    @Test
+    @DisplayName("A paginação por número de página deve retornar a mesma página que a paginação por cursor")
+    void paginaPorOffset() {
+        Pagina<Contato> primeira = contatoService.findAll(null, null, 10, "nome");
+        Pagina<Contato> segundaPorCursor = contatoService.findAll(null, primeira.getProximoCursor(), 10, null);
+        Pagina<Contato> segundaPorOffset = contatoService.findAll(1, null, 10, "nome");
+
+        assertEquals(Integer.valueOf(1), segundaPorOffset.getPagina());
+        assertEquals(emails(segundaPorCursor), emails(segundaPorOffset));
+        assertEquals(segundaPorCursor.getProximoCursor(), segundaPorOffset.getProximoCursor());
+
+        Pagina<Contato> ultima = contatoService.findAll(5, null, 10, "nome");
+        assertEquals(3, ultima.getConteudo().size());
+        assertNull(ultima.getProximoCursor());
+    }
+
+    @Test
+    @DisplayName("Parâmetros de paginação inválidos devem ser recusados")
+    void parametrosInvalidos() {
+        assertBadRequest(() -> contatoService.findAll(null, null, 0, null));
+        assertBadRequest(() -> contatoService.findAll(null, null, 101, null));
+        assertBadRequest(() -> contatoService.findAll(-1, null, 10, null));
+        assertBadRequest(() -> contatoService.findAll(null, null, 10, "telefone"));
+        assertBadRequest(() -> contatoService.findAll(null, null, 10, "nome,baixo"));
+        assertBadRequest(() -> contatoService.findAll(null, "nao-e-um-cursor", 10, null));
+
+        Pagina<Contato> primeira = contatoService.findAll(null, null, 10, null);
+        assertBadRequest(() -> contatoService.findAll(1, primeira.getProximoCursor(), 10, null));
+    }
+
+    private static List<String> emails(Pagina<Contato> pagina) {
+        return pagina.getConteudo().stream().map(Contato::getEmail).collect(Collectors.toList());
+    }
+
+    private static void assertBadRequest(Executable executable) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, executable);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+    }
+
+}
@@ -0,0 +1,106 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando os campos aceitos no PATCH")
+class ContatoPatchTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    private final String email = "patch@teste.com";
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua 14 de Julho");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP(anyString())).thenReturn(endereco);
+        contatoService.save(Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+    }
+
+    @Test
+    @DisplayName("A data de cadastro deve ser convertida no mesmo formato do JSON")
+    void patchDataCadastro() {
+        Optional<Contato> atualizado = contatoService.patchUpdate(email, campos("dataCadastro", "25/12/2020 10:30:00"));
+
+        assertTrue(atualizado.isPresent());
+        assertEquals(Date.from(LocalDateTime.of(2020, 12, 25, 10, 30).toInstant(ZoneOffset.UTC)),
+                repository.findById(email).get().getDataCadastro());
+    }
+
+    @Test
+    @DisplayName("Valores numéricos devem ser aceitos nos campos de texto")
+    void patchTelefoneNumerico() {
+        contatoService.patchUpdate(email, campos("telefone", 67999999999L));
+
+        assertEquals("67999999999", repository.findById(email).get().getTelefone());
+    }
+
+    @Test
+    @DisplayName("Campos desconhecidos ou que não podem ser alterados devem ser recusados")
+    void patchCampoNaoPermitido() {
+        assertRecusado(campos("idade", 30), "Erro ao atualizar contato, campo não permitido: idade");
+        assertRecusado(campos("email", "outro@teste.com"), "Erro ao atualizar contato, campo não permitido: email");
+        assertRecusado(campos("cidade", "São Paulo"), "Erro ao atualizar contato, campo não permitido: cidade");
+    }
+
+    @Test
+    @DisplayName("Valores em formato inválido devem ser recusados sem alterar o contato")
+    void patchValorInvalido() {
+        Map<Object, Object> campos = campos("nome", "Nome atualizado");
+        campos.put("dataCadastro", "2020-12-25");
+        assertRecusado(campos, "Erro ao atualizar contato, campo dataCadastro em formato inválido");
+        assertRecusado(campos("nome", new HashMap<>()), "Erro ao atualizar contato, campo nome em formato inválido");
+        assertRecusado(campos("nome", ""), "Campo nome obrigatório!");
+
+        assertEquals("Contato Teste", repository.findById(email).get().getNome());
+    }
+
+    private void assertRecusado(Map<Object, Object> campos, String mensagem) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> contatoService.patchUpdate(email, campos));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals(mensagem, e.getReason());
+    }
+
+    private static Map<Object, Object> campos(String campo, Object valor) {
+        Map<Object, Object> campos = new HashMap<>();
+        campos.put(campo, valor);
+        return campos;
+    }
+
+}
@@ -0,0 +1,140 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando consultas de endereço do ContatoService")
+class ContatoServiceEnderecoTest {
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    private final String email = "endereco@teste.com";
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        Mockito.when(enderecoService.findByCEP(anyString())).thenAnswer(invocation -> {
+            Endereco endereco = new Endereco();
+            endereco.setCep(invocation.getArgument(0));
+            endereco.setLogradouro("Rua " + invocation.getArgument(0));
+            endereco.setBairro("Centro");
+            endereco.setLocalidade("Campo Grande");
+            endereco.setUf("MS");
+            return endereco;
+        });
+        contatoService.save(Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+        Mockito.clearInvocations(enderecoService);
+    }
+
+    @Test
+    @DisplayName("POST deve consultar o endereço")
+    void saveConsultaEndereco() {
+        contatoService.save(Contato.builder()
+                .email("novo@teste.com")
+                .nome("Novo")
+                .telefone("(67) 99999-9999")
+                .cep("79050-190")
+                .build());
+        verify(enderecoService, times(1)).findByCEP(anyString());
+    }
+
+    @Test
+    @DisplayName("PUT com o mesmo CEP não deve consultar o endereço")
+    void updateMesmoCep() {
+        Optional<Contato> atualizado = contatoService.update(email, Contato.builder()
+                .nome("Nome atualizado")
+                .telefone("(67) 98888-8888")
+                .cep("79002000")
+                .build());
+        assertTrue(atualizado.isPresent());
+        assertEquals("Campo Grande", atualizado.get().getCidade());
+        assertEquals("Rua 79002-000, Centro", atualizado.get().getEndereco());
+        verify(enderecoService, times(0)).findByCEP(anyString());
+    }
+
+    @Test
+    @DisplayName("PUT com CEP alterado deve consultar o endereço")
+    void updateCepAlterado() {
+        Optional<Contato> atualizado = contatoService.update(email, Contato.builder()
+                .nome("Nome atualizado")
+                .telefone("(67) 98888-8888")
+                .cep("79050-190")
+                .build());
+        assertTrue(atualizado.isPresent());
+        assertEquals("Rua 79050-190, Centro", atualizado.get().getEndereco());
+        verify(enderecoService, times(1)).findByCEP("79050-190");
+    }
+
+    @Test
+    @DisplayName("PATCH somente do telefone não deve consultar o endereço")
+    void patchTelefone() {
+        Map<Object, Object> campos = new HashMap<>();
+        campos.put("telefone", "(67) 97777-7777");
+
+        Optional<Contato> atualizado = contatoService.patchUpdate(email, campos);
+        assertTrue(atualizado.isPresent());
+        assertEquals("(67) 97777-7777", atualizado.get().getTelefone());
+        assertEquals("Campo Grande", atualizado.get().getCidade());
+        verify(enderecoService, times(0)).findByCEP(anyString());
+    }
+
+    @Test
+    @DisplayName("PATCH com CEP alterado deve consultar o endereço")
+    void patchCepAlterado() {
+        Map<Object, Object> campos = new HashMap<>();
+        campos.put("cep", "79050-190");
+
+        Optional<Contato> atualizado = contatoService.patchUpdate(email, campos);
+        assertTrue(atualizado.isPresent());
+        assertEquals("Rua 79050-190, Centro", atualizado.get().getEndereco());
+        verify(enderecoService, times(1)).findByCEP("79050-190");
+    }
+
+    @Test
+    @DisplayName("PATCH com endereço não preenchido deve consultar o endereço")
+    void patchEnderecoNaoPreenchido() {
+        repository.save(Contato.builder()
+                .email("sem.endereco@teste.com")
+                .nome("Sem endereço")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .dataCadastro(new Date())
+                .build());
+        Map<Object, Object> campos = new HashMap<>();
+        campos.put("nome", "Com endereço");
+
+        Optional<Contato> atualizado = contatoService.patchUpdate("sem.endereco@teste.com", campos);
+        assertTrue(atualizado.isPresent());
+        assertEquals("MS", atualizado.get().getUf());
+        verify(enderecoService, times(1)).findByCEP("79002-000");
+    }
+
+}
@@ -0,0 +1,152 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("development")
+@DisplayName("Testando o ETag e a verificação de versão dos contatos")
+class ContatoVersaoTest {
+    private static final String URI = "/api/contatos";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Contato> contatoCache;
+    @MockBean
+    private EnderecoService enderecoService;
+
+    private final String email = "versao@teste.com";
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        contatoCache.invalidateAll();
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua 14 de Julho");
+        endereco.setBairro("Centro");
+        endereco.setLocalidade("Campo Grande");
+        endereco.setUf("MS");
+        Mockito.when(enderecoService.findByCEP(anyString())).thenReturn(endereco);
+        contatoService.save(Contato.builder()
+                .email(email)
+                .nome("Contato Teste")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+    }
+
+    @Test
+    @DisplayName("O ETag do contato deve mudar a cada alteração")
+    void etagDoContato() throws Exception {
+        String etag = etag(URI + "/" + email);
+        mockMvc.perform(get(URI + "/{email}", email).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Contato Alterado"));
+
+        mockMvc.perform(get(URI + "/{email}", email).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("O ETag da listagem deve mudar a cada inclusão, alteração ou exclusão")
+    void etagDaListagem() throws Exception {
+        String etag = etag(URI);
+        mockMvc.perform(get(URI).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        contatoService.patchUpdate(email, Collections.singletonMap("telefone", "(67) 98888-8888"));
+        String alterado = etag(URI);
+        assertNotEquals(etag, alterado);
+
+        contatoService.save(Contato.builder()
+                .email("outro@teste.com")
+                .nome("Outro Contato")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build());
+        String incluido = etag(URI);
+        assertNotEquals(alterado, incluido);
+
+        mockMvc.perform(delete(URI + "/{email}", "outro@teste.com")).andExpect(status().isOk());
+        mockMvc.perform(get(URI).header(HttpHeaders.IF_NONE_MATCH, incluido))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("O PATCH com o If-Match de uma versão anterior deve ser recusado com 412")
+    void ifMatchDesatualizado() throws Exception {
+        String etag = etag(URI + "/" + email);
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Alterado por outra requisição"));
+
+        mockMvc.perform(patch(URI + "/{email}", email)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"nome\": \"Alteração perdida\"}"))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("Alterado por outra requisição", repository.findById(email).get().getNome());
+
+        String atual = etag(URI + "/" + email);
+        mockMvc.perform(patch(URI + "/{email}", email)
+                        .header(HttpHeaders.IF_MATCH, atual)
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"nome\": \"Alteração aceita\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(atual)));
+        assertEquals("Alteração aceita", repository.findById(email).get().getNome());
+    }
+
+    @Test
+    @DisplayName("A gravação de um contato lido antes de outra alteração deve ser recusada com 409")
+    void gravacaoConcorrente() {
+        Contato lido = repository.findById(email).get();
+        contatoService.patchUpdate(email, Collections.singletonMap("nome", "Alterado por outra requisição"));
+
+        lido.setNome("Alteração perdida");
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> contatoService.save(lido));
+        assertEquals(HttpStatus.CONFLICT, e.getStatus());
+        assertEquals("Alterado por outra requisição", repository.findById(email).get().getNome());
+    }
+
+    private String etag(String uri) throws Exception {
+        String etag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+}
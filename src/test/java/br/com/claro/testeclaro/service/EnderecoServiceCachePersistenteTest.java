@@ -0,0 +1,143 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.CepCache;
+import br.com.claro.testeclaro.repository.CepCacheRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "viacep.persistent-cache.enabled=true")
+@ActiveProfiles("development")
+@DisplayName("Testando a tabela cep_cache como segundo nível do cache de CEPs")
+class EnderecoServiceCachePersistenteTest {
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco("79002000", "Rua 14 de Julho", "Centro", "Campo Grande", "MS")
+            .endereco("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private CepCacheRepository cepCacheRepository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        cepCacheRepository.deleteAll();
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("Um CEP consultado no ViaCEP deve ser gravado na tabela cep_cache")
+    void gravaConsultaDoViaCep() {
+        enderecoService.findByCEP("79002-000");
+
+        assertEquals(1, viaCep.chamadas("79002000"));
+        CepCache gravado = cepCacheRepository.findById("79002000").get();
+        assertEquals("Rua 14 de Julho", gravado.getLogradouro());
+        assertEquals("Campo Grande", gravado.getLocalidade());
+        assertEquals("MS", gravado.getUf());
+        assertNotNull(gravado.getDataConsulta());
+    }
+
+    @Test
+    @DisplayName("Sem o CEP no cache em memória, o endereço gravado deve ser usado sem consultar o ViaCEP")
+    void consultaTabelaAntesDoViaCep() throws InterruptedException {
+        enderecoService.findByCEPAsync("01001000").block();
+        aguardar(() -> cepCacheRepository.existsById("01001000"));
+        enderecoService.findByCEP("79002000");
+        assertEquals(2, viaCep.chamadas());
+
+        // outra instância, ou esta após reiniciar, começa com o cache em memória vazio
+        cepCache.invalidateAll();
+
+        Endereco endereco = enderecoService.findByCEP("79002000");
+        assertEquals("79002-000", endereco.getCep());
+        assertEquals("Rua 14 de Julho", endereco.getLogradouro());
+        assertEquals("Centro", endereco.getBairro());
+        Endereco async = enderecoService.findByCEPAsync("01001-000").block();
+        assertNotNull(async);
+        assertEquals("01001-000", async.getCep());
+        assertEquals("São Paulo", async.getLocalidade());
+
+        assertEquals(2, viaCep.chamadas());
+        assertNotNull(cepCache.getIfPresent("79002000"));
+        assertNotNull(cepCache.getIfPresent("01001000"));
+    }
+
+    @Test
+    @DisplayName("Um endereço gravado há mais de refresh-after deve ser devolvido e atualizado em segundo plano")
+    void atualizaEnderecoAntigo() throws InterruptedException {
+        Date antiga = new Date(System.currentTimeMillis() - Duration.ofDays(31).toMillis());
+        Endereco anterior = new Endereco();
+        anterior.setLogradouro("Rua Antiga");
+        anterior.setBairro("Centro");
+        anterior.setLocalidade("Campo Grande");
+        anterior.setUf("MS");
+        cepCacheRepository.save(CepCache.de("79002000", anterior, antiga));
+        viaCep.bloquear("79002000");
+
+        // a resposta não espera o ViaCEP, retido pelo stub
+        Endereco endereco = enderecoService.findByCEP("79002000");
+        assertEquals("Rua Antiga", endereco.getLogradouro());
+        assertEquals("Rua Antiga", enderecoService.findByCEP("79002000").getLogradouro());
+
+        viaCep.liberar("79002000");
+        aguardar(() -> "Rua 14 de Julho".equals(cepCacheRepository.findById("79002000").get().getLogradouro()));
+        assertTrue(cepCacheRepository.findById("79002000").get().getDataConsulta().after(antiga));
+        assertEquals("Rua 14 de Julho", enderecoService.findByCEP("79002000").getLogradouro());
+        assertEquals(1, viaCep.chamadas("79002000"));
+    }
+
+    @Test
+    @DisplayName("Um CEP gravado que o ViaCEP passou a informar como inexistente deve ser removido da tabela")
+    void removeCepInexistente() throws InterruptedException {
+        Endereco anterior = new Endereco();
+        anterior.setLogradouro("Rua Extinta");
+        anterior.setLocalidade("Campo Grande");
+        anterior.setUf("MS");
+        cepCacheRepository.save(CepCache.de("79002999", anterior,
+                new Date(System.currentTimeMillis() - Duration.ofDays(31).toMillis())));
+
+        assertEquals("Rua Extinta", enderecoService.findByCEP("79002-999").getLogradouro());
+
+        aguardar(() -> !cepCacheRepository.existsById("79002999"));
+        aguardar(() -> Optional.empty().equals(cepCache.getIfPresent("79002999")));
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("79002999"));
+        assertEquals(1, viaCep.chamadas("79002999"));
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(condicao.getAsBoolean());
+    }
+
+}
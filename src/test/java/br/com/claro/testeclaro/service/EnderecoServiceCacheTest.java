@@ -0,0 +1,115 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.service.impl.EnderecoServiceImpl;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando o cache de CEPs do EnderecoService")
+class EnderecoServiceCacheTest {
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco("79002000", "Rua 14 de Julho", "Centro", "Campo Grande", "MS");
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private EnderecoServiceImpl enderecoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("Salvamentos repetidos com o mesmo CEP devem consultar o ViaCEP uma única vez")
+    void saveRepetidoConsultaUmaVez() {
+        for (int i = 0; i < 10; i++) {
+            Contato contato = Contato.builder()
+                    .email("contato" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep(i % 2 == 0 ? "79002-000" : "79002000")
+                    .build();
+            Optional<Contato> salvo = contatoService.save(contato);
+            assertTrue(salvo.isPresent());
+            assertEquals("Campo Grande", salvo.get().getCidade());
+        }
+
+        assertEquals(1, viaCep.chamadas());
+        CacheStats stats = enderecoService.getCacheStats();
+        assertTrue(stats.hitCount() >= 9);
+    }
+
+    @Test
+    @DisplayName("Consultas não bloqueantes devem compartilhar o cache com as consultas bloqueantes")
+    void saveAsyncUsaCache() {
+        Contato contato = Contato.builder()
+                .email("async@teste.com")
+                .nome("Contato async")
+                .telefone("(67) 99999-9999")
+                .cep("79002-000")
+                .build();
+        Contato salvo = contatoService.saveAsync(contato).block();
+        assertNotNull(salvo);
+        assertEquals("MS", salvo.getUf());
+
+        assertEquals("Campo Grande", enderecoService.findByCEP("79002000").getLocalidade());
+        assertEquals(1, viaCep.chamadas());
+
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEPAsync("00000000").block());
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("00000-000"));
+        assertEquals(1, viaCep.chamadas("00000000"));
+    }
+
+    @Test
+    @DisplayName("CEP inexistente deve ficar em cache negativo")
+    void cepInexistenteEmCacheNegativo() {
+        for (int i = 0; i < 5; i++) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> enderecoService.findByCEP("00000-000"));
+            assertEquals("BAD_REQUEST", e.getStatus().name());
+        }
+        assertEquals(1, viaCep.chamadas("00000000"));
+    }
+
+    @Test
+    @DisplayName("CEP em formato inválido não deve ser consultado no ViaCEP")
+    void cepMalformadoNaoConsultaViaCep() {
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("7900-20"));
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("abcdefgh"));
+        assertEquals(0, viaCep.chamadas());
+    }
+
+}
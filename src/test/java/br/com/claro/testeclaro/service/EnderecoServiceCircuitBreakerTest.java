@@ -0,0 +1,282 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.config.ViaCepProperties;
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando o circuit breaker e o bulkhead das consultas ao ViaCEP")
+class EnderecoServiceCircuitBreakerTest {
+    private static final int JANELA = 4;
+    private static final long ESPERA_CIRCUITO_ABERTO = 300;
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar().qualquerCep();
+
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+    @Autowired
+    private CircuitBreaker viaCepCircuitBreaker;
+    @Autowired
+    private ViaCepProperties viaCepProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int proximoCep = 10_000_000;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+        registry.add("viacep.http.deadline", () -> "30s");
+        registry.add("viacep.http.read-timeout", () -> "30s");
+        registry.add("viacep.circuit-breaker.sliding-window-size", () -> JANELA);
+        registry.add("viacep.circuit-breaker.minimum-number-of-calls", () -> JANELA);
+        registry.add("viacep.circuit-breaker.slow-call-duration", () -> "200ms");
+        registry.add("viacep.circuit-breaker.wait-duration-in-open-state", () -> ESPERA_CIRCUITO_ABERTO + "ms");
+        registry.add("viacep.circuit-breaker.permitted-calls-in-half-open-state", () -> 2);
+        registry.add("viacep.bulkhead.max-concurrent-calls", () -> 2);
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+        viaCep.atraso(0);
+        viaCepCircuitBreaker.reset();
+        viaCepProperties.setDegradedMode(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        viaCep.reset();
+        viaCep.atraso(0);
+    }
+
+    @Test
+    @DisplayName("Falhas do ViaCEP devem abrir o circuito e as consultas seguintes não devem chamar a API")
+    void falhasAbremCircuito() {
+        viaCep.falhar(500);
+        for (int i = 0; i < JANELA; i++) {
+            EnderecoIndisponivelException e = assertThrows(EnderecoIndisponivelException.class,
+                    () -> enderecoService.findByCEP(novoCep()));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, viaCepCircuitBreaker.getState());
+
+        EnderecoIndisponivelException e = assertThrows(EnderecoIndisponivelException.class,
+                () -> enderecoService.findByCEP(novoCep()));
+        assertTrue(e.getCause() instanceof CallNotPermittedException);
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEPAsync(novoCep()).block());
+        assertEquals(JANELA, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Consultas lentas devem abrir o circuito")
+    void lentidaoAbreCircuito() {
+        viaCep.atraso(300);
+        for (int i = 0; i < JANELA; i++) {
+            assertNotNull(enderecoService.findByCEP(novoCep()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, viaCepCircuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Respostas 400 do ViaCEP devem ser tratadas como CEP inválido sem abrir o circuito")
+    void erroDoClienteNaoAbreCircuito() {
+        viaCep.falhar(400);
+        for (int i = 0; i < JANELA; i++) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> enderecoService.findByCEP(novoCep()));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enderecoService.findByCEPAsync(novoCep()).block());
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals(CircuitBreaker.State.CLOSED, viaCepCircuitBreaker.getState());
+        assertEquals(0, viaCepCircuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Limite de requisições do ViaCEP (429) deve ser tratado como falha e abrir o circuito")
+    void limiteDeRequisicoesAbreCircuito() {
+        viaCep.falhar(429);
+        for (int i = 0; i < JANELA - 1; i++) {
+            EnderecoIndisponivelException e = assertThrows(EnderecoIndisponivelException.class,
+                    () -> enderecoService.findByCEP(novoCep()));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        }
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEPAsync(novoCep()).block());
+        assertEquals(JANELA, viaCepCircuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.OPEN, viaCepCircuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("O circuito deve fechar novamente quando o ViaCEP se recuperar")
+    void recuperacaoFechaCircuito() throws Exception {
+        viaCep.falhar(500);
+        for (int i = 0; i < JANELA; i++) {
+            assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEP(novoCep()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, viaCepCircuitBreaker.getState());
+
+        viaCep.falhar(0);
+        Thread.sleep(ESPERA_CIRCUITO_ABERTO + 100);
+        assertNotNull(enderecoService.findByCEP(novoCep()));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, viaCepCircuitBreaker.getState());
+        assertNotNull(enderecoService.findByCEPAsync(novoCep()).block());
+        assertEquals(CircuitBreaker.State.CLOSED, viaCepCircuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Transições do circuito devem ser expostas como métricas")
+    void metricasDeTransicao() {
+        double abertos = transicoes("closed", "open");
+        viaCep.falhar(500);
+        for (int i = 0; i < JANELA; i++) {
+            assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEP(novoCep()));
+        }
+
+        assertEquals(abertos + 1, transicoes("closed", "open"));
+        assertEquals(1, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", "viacep").tag("state", "open").gauge().value());
+        assertNotNull(meterRegistry.get("resilience4j.bulkhead.available.concurrent.calls")
+                .tag("name", "viacep").gauge());
+    }
+
+    @Test
+    @DisplayName("Consultas acima do limite do bulkhead devem ser recusadas sem contar como falha")
+    void bulkheadLimitaConsultasSimultaneas() throws Exception {
+        String primeiro = novoCep();
+        String segundo = novoCep();
+        viaCep.bloquear(primeiro).bloquear(segundo);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Endereco> consulta1 = executor.submit(() -> enderecoService.findByCEP(primeiro));
+            Future<Endereco> consulta2 = executor.submit(() -> enderecoService.findByCEP(segundo));
+            aguardarChamadas(2);
+
+            EnderecoIndisponivelException e = assertThrows(EnderecoIndisponivelException.class,
+                    () -> enderecoService.findByCEP(novoCep()));
+            assertTrue(e.getCause() instanceof BulkheadFullException);
+
+            viaCep.liberar(primeiro).liberar(segundo);
+            assertNotNull(consulta1.get(30, TimeUnit.SECONDS));
+            assertNotNull(consulta2.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, viaCep.chamadas());
+        assertEquals(0, viaCepCircuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Com o circuito aberto, o contato deve ser salvo com o endereço pendente")
+    void modoDegradadoSalvaEnderecoPendente() {
+        viaCepCircuitBreaker.transitionToOpenState();
+
+        Optional<Contato> salvo = contatoService.save(contato("degradado@teste.com", "79002-000"));
+        assertTrue(salvo.isPresent());
+        assertTrue(salvo.get().isEnderecoPendente());
+        assertEquals("79002-000", salvo.get().getCep());
+        assertNull(salvo.get().getCidade());
+
+        Contato salvoAsync = contatoService.saveAsync(contato("degradado.async@teste.com", "79002000")).block();
+        assertNotNull(salvoAsync);
+        assertTrue(salvoAsync.isEnderecoPendente());
+        assertNotNull(salvoAsync.getDataCadastro());
+
+        assertEquals(2, repository.count());
+        assertEquals(0, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("O endereço pendente deve ser preenchido na próxima atualização com o ViaCEP disponível")
+    void atualizacaoPreencheEnderecoPendente() {
+        viaCepCircuitBreaker.transitionToOpenState();
+        contatoService.save(contato("pendente@teste.com", "79002000"));
+
+        viaCepCircuitBreaker.transitionToClosedState();
+        Optional<Contato> atualizado = contatoService.update("pendente@teste.com", contato(null, "79002000"));
+        assertTrue(atualizado.isPresent());
+        assertFalse(atualizado.get().isEnderecoPendente());
+        assertEquals("Campo Grande", atualizado.get().getCidade());
+    }
+
+    @Test
+    @DisplayName("Com o modo degradado desabilitado, o cadastro deve falhar com o circuito aberto")
+    void modoDegradadoDesabilitado() {
+        viaCepProperties.setDegradedMode(false);
+        viaCepCircuitBreaker.transitionToOpenState();
+
+        assertThrows(EnderecoIndisponivelException.class,
+                () -> contatoService.save(contato("recusado@teste.com", "79002000")));
+        assertThrows(EnderecoIndisponivelException.class,
+                () -> contatoService.saveAsync(contato("recusado.async@teste.com", "79002000")).block());
+        assertEquals(0, repository.count());
+    }
+
+    private String novoCep() {
+        return String.valueOf(proximoCep++);
+    }
+
+    private double transicoes(String de, String para) {
+        Counter counter = meterRegistry.find("viacep.circuitbreaker.transitions")
+                .tag("from", de).tag("to", para).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Contato contato(String email, String cep) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato")
+                .telefone("(67) 99999-9999")
+                .cep(cep)
+                .build();
+    }
+
+    private static void aguardarChamadas(int quantidade) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (viaCep.chamadas() < quantidade && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(quantidade, viaCep.chamadas());
+    }
+
+}
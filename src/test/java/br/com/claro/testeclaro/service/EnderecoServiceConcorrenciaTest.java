@@ -0,0 +1,165 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("development")
+@DisplayName("Testando consultas simultâneas de CEP no EnderecoService")
+class EnderecoServiceConcorrenciaTest {
+    private static final String CEP = "79002000";
+    private static final String OUTRO_CEP = "79050190";
+    private static final int CHAMADAS = 100;
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco(CEP, "Rua 14 de Julho", "Centro", "Campo Grande", "MS")
+            .endereco(OUTRO_CEP, "Rua Jornalista Leite Neto", "Jardim dos Estados", "Campo Grande", "MS");
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+
+    private ExecutorService executor;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+        registry.add("viacep.http.max-connections-per-host", () -> CHAMADAS);
+        registry.add("viacep.http.deadline", () -> "30s");
+        registry.add("viacep.http.read-timeout", () -> "30s");
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+        executor = Executors.newFixedThreadPool(CHAMADAS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        viaCep.reset();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("100 cadastros simultâneos com o mesmo CEP devem consultar o ViaCEP uma única vez")
+    void saveSimultaneoConsultaUmaVez() throws Exception {
+        viaCep.bloquear(CEP);
+        List<Future<Optional<Contato>>> cadastros = new ArrayList<>();
+        for (int i = 0; i < CHAMADAS; i++) {
+            Contato contato = Contato.builder()
+                    .email("simultaneo" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep(i % 2 == 0 ? "79002-000" : CEP)
+                    .build();
+            cadastros.add(executor.submit(() -> contatoService.save(contato)));
+        }
+
+        aguardarChamada(CEP);
+        Thread.sleep(300);
+        viaCep.liberar(CEP);
+
+        for (Future<Optional<Contato>> cadastro : cadastros) {
+            Optional<Contato> salvo = cadastro.get(30, TimeUnit.SECONDS);
+            assertTrue(salvo.isPresent());
+            assertEquals("Campo Grande", salvo.get().getCidade());
+        }
+        assertEquals(1, viaCep.chamadas());
+        assertEquals(CHAMADAS, repository.count());
+    }
+
+    @Test
+    @DisplayName("Consultas simultâneas devem receber o mesmo erro da consulta compartilhada")
+    void erroCompartilhado() throws Exception {
+        viaCep.bloquear(CEP).falhar(500);
+        List<Future<Endereco>> consultas = new ArrayList<>();
+        for (int i = 0; i < CHAMADAS; i++) {
+            consultas.add(executor.submit(() -> enderecoService.findByCEP(CEP)));
+        }
+
+        aguardarChamada(CEP);
+        Thread.sleep(300);
+        viaCep.liberar(CEP);
+
+        for (Future<Endereco> consulta : consultas) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> consulta.get(30, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof EnderecoIndisponivelException);
+            assertTrue(e.getCause().getCause() instanceof HttpServerErrorException);
+        }
+        assertEquals(1, viaCep.chamadas());
+        assertNull(cepCache.getIfPresent(CEP));
+    }
+
+    @Test
+    @DisplayName("Consultas não bloqueantes simultâneas devem consultar o ViaCEP uma única vez")
+    void findByCEPAsyncSimultaneo() throws Exception {
+        viaCep.bloquear(CEP);
+        CompletableFuture<List<Endereco>> consultas = Flux.range(0, CHAMADAS)
+                .flatMap(i -> enderecoService.findByCEPAsync(CEP), CHAMADAS)
+                .collectList()
+                .toFuture();
+
+        aguardarChamada(CEP);
+        viaCep.liberar(CEP);
+
+        List<Endereco> enderecos = consultas.get(30, TimeUnit.SECONDS);
+        assertEquals(CHAMADAS, enderecos.size());
+        assertEquals(1, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Consulta de um CEP não deve aguardar a consulta em andamento de outro CEP")
+    void cepsDiferentesNaoConcorrem() throws Exception {
+        viaCep.bloquear(CEP);
+        Future<Endereco> bloqueada = executor.submit(() -> enderecoService.findByCEP(CEP));
+        aguardarChamada(CEP);
+
+        Endereco outro = enderecoService.findByCEP(OUTRO_CEP);
+        assertNotNull(outro);
+        assertFalse(bloqueada.isDone());
+
+        viaCep.liberar(CEP);
+        assertNotNull(bloqueada.get(30, TimeUnit.SECONDS));
+    }
+
+    private static void aguardarChamada(String cep) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (viaCep.chamadas(cep) == 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, viaCep.chamadas(cep));
+    }
+
+}
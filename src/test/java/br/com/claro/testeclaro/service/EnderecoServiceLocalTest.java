@@ -0,0 +1,137 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.service.impl.EnderecoLocalServiceImpl;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "cep.local.enabled=true")
+@ActiveProfiles("development")
+@DisplayName("Testando a consulta de CEPs na base local antes do ViaCEP")
+class EnderecoServiceLocalTest {
+    private static final String BASE = "cep,logradouro,bairro,localidade,uf\n"
+            + "79002-000,Rua 14 de Julho,Centro,Campo Grande,MS\n"
+            + "01001000,\"Praça da Sé, lado ímpar\",Sé,São Paulo,SP\n"
+            + "79002000,Rua 14 de Julho,Centro,Campo Grande,MS\n";
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco("20040020", "Avenida Rio Branco", "Centro", "Rio de Janeiro", "RJ");
+    private static final Path arquivo = criarArquivo();
+
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private EnderecoLocalServiceImpl enderecoLocalService;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+        registry.add("cep.local.file", arquivo::toString);
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        viaCep.parar();
+        Files.deleteIfExists(arquivo);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(arquivo, BASE.getBytes(StandardCharsets.UTF_8));
+        enderecoLocalService.recarregar();
+        cepCache.invalidateAll();
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("CEPs da base local devem ser encontrados sem consultar o ViaCEP")
+    void cepDaBaseLocal() {
+        assertSame(enderecoLocalService, enderecoService);
+        assertEquals(2, enderecoLocalService.getBase().tamanho());
+
+        Endereco endereco = enderecoService.findByCEP("79002-000");
+        assertEquals("79002-000", endereco.getCep());
+        assertEquals("Rua 14 de Julho", endereco.getLogradouro());
+        assertEquals("Centro", endereco.getBairro());
+        assertEquals("Campo Grande", endereco.getLocalidade());
+        assertEquals("MS", endereco.getUf());
+
+        Endereco async = enderecoService.findByCEPAsync("01001000").block();
+        assertNotNull(async);
+        assertEquals("Praça da Sé, lado ímpar", async.getLogradouro());
+        assertEquals("SP", async.getUf());
+        assertEquals(0, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("CEPs fora da base local devem ser consultados no ViaCEP, com cache")
+    void cepForaDaBaseLocal() {
+        assertEquals("Rio de Janeiro", enderecoService.findByCEP("20040-020").getLocalidade());
+        assertEquals("RJ", enderecoService.findByCEPAsync("20040020").block().getUf());
+        assertEquals(1, viaCep.chamadas("20040020"));
+
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("7900-20"));
+        assertEquals(1, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("O endereço devolvido pela base local não deve ser compartilhado entre as consultas")
+    void enderecoNaoCompartilhado() {
+        enderecoService.findByCEP("79002000").setLogradouro("Alterado");
+
+        assertEquals("Rua 14 de Julho", enderecoService.findByCEP("79002000").getLogradouro());
+    }
+
+    @Test
+    @DisplayName("A base local deve ser carregada novamente sem reiniciar a aplicação")
+    void recarregarBase() throws IOException {
+        Files.write(arquivo, (BASE + "20040-020,Avenida Rio Branco,Centro,Rio de Janeiro,RJ\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, enderecoLocalService.recarregar());
+
+        assertEquals("Avenida Rio Branco", enderecoService.findByCEP("20040020").getLogradouro());
+        assertEquals(0, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Um arquivo inválido não deve substituir a base carregada")
+    void arquivoInvalidoMantemBase() throws IOException {
+        Files.write(arquivo, (BASE + "123,Rua sem CEP,Centro,Campo Grande,MS\n").getBytes(StandardCharsets.UTF_8));
+
+        IOException e = assertThrows(IOException.class, () -> enderecoLocalService.recarregar());
+        assertTrue(e.getMessage().contains("linha 5"));
+
+        assertEquals(2, enderecoLocalService.getBase().tamanho());
+        assertEquals("Campo Grande", enderecoService.findByCEP("79002000").getLocalidade());
+        assertEquals(0, viaCep.chamadas());
+    }
+
+    private static Path criarArquivo() {
+        try {
+            Path arquivo = Files.createTempFile("ceps", ".csv");
+            return Files.write(arquivo, BASE.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.exception.EnderecoIndisponivelException;
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("development")
+@DisplayName("Testando as métricas das consultas ao ViaCEP e do serviço de contatos")
+class EnderecoServiceMetricasTest {
+    private static final String CEP = "79002000";
+    private static final String CEP_INEXISTENTE = "99999999";
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco(CEP, "Rua 14 de Julho", "Centro", "Campo Grande", "MS");
+
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+    @Autowired
+    private CircuitBreaker viaCepCircuitBreaker;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void viaCepProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+        registry.add("viacep.http.deadline", () -> "30s");
+        registry.add("viacep.http.read-timeout", () -> "30s");
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+        viaCepCircuitBreaker.reset();
+    }
+
+    @Test
+    @DisplayName("As consultas devem ser contadas pelo resultado e as chamadas ao ViaCEP somente sem cache")
+    void consultasPorResultado() {
+        long encontrados = contagem("viacep.lookups", "found");
+        long naoEncontrados = contagem("viacep.lookups", "not_found");
+        long invalidos = contagem("viacep.lookups", "invalid_cep");
+        long requisicoes = contagem("viacep.requests", "found");
+
+        enderecoService.findByCEP(CEP);
+        enderecoService.findByCEP("79002-000");
+        enderecoService.findByCEPAsync(CEP).block();
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP(CEP_INEXISTENTE));
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEP("7900"));
+        assertThrows(ResponseStatusException.class, () -> enderecoService.findByCEPAsync("7900").block());
+
+        assertEquals(encontrados + 3, contagem("viacep.lookups", "found"));
+        assertEquals(naoEncontrados + 1, contagem("viacep.lookups", "not_found"));
+        assertEquals(invalidos + 2, contagem("viacep.lookups", "invalid_cep"));
+        assertEquals(requisicoes + 1, contagem("viacep.requests", "found"));
+    }
+
+    @Test
+    @DisplayName("Falhas do ViaCEP devem ser contadas separadamente das demais consultas")
+    void falhasDoViaCep() {
+        long consultas = contagem("viacep.lookups", "upstream_error");
+        long requisicoes = contagem("viacep.requests", "upstream_error");
+        viaCep.falhar(500);
+
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEP(CEP));
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEPAsync("79002001").block());
+
+        assertEquals(consultas + 2, contagem("viacep.lookups", "upstream_error"));
+        assertEquals(requisicoes + 2, contagem("viacep.requests", "upstream_error"));
+    }
+
+    @Test
+    @DisplayName("O limite de requisições do ViaCEP (429) deve ser contado como falha, não como CEP inválido")
+    void limiteDeRequisicoesDoViaCep() {
+        long falhas = contagem("viacep.lookups", "upstream_error");
+        long invalidos = contagem("viacep.lookups", "invalid_cep");
+        viaCep.falhar(429);
+
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEP("79002002"));
+        assertThrows(EnderecoIndisponivelException.class, () -> enderecoService.findByCEPAsync("79002003").block());
+
+        assertEquals(falhas + 2, contagem("viacep.lookups", "upstream_error"));
+        assertEquals(invalidos, contagem("viacep.lookups", "invalid_cep"));
+    }
+
+    @Test
+    @DisplayName("O tempo dos métodos do serviço de contatos deve ser registrado, inclusive no cadastro assíncrono")
+    void metodosDoServico() {
+        contatoService.save(contato("metricas@teste.com"));
+        contatoService.saveAsync(contato("metricas.async@teste.com")).block();
+        contatoService.findById("metricas@teste.com");
+
+        assertTrue(contagemServico("save") > 0);
+        assertTrue(contagemServico("saveAsync") > 0);
+        assertTrue(contagemServico("findById") > 0);
+    }
+
+    @Test
+    @DisplayName("O endpoint do Prometheus deve expor as métricas do ViaCEP, do pool de conexões e dos executores")
+    void endpointPrometheus() throws Exception {
+        enderecoService.findByCEP(CEP);
+        contatoService.saveAsync(contato("prometheus@teste.com")).block();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("viacep_lookups_seconds_bucket")))
+                .andExpect(content().string(containsString("viacep_requests_seconds_count")))
+                .andExpect(content().string(containsString("contatos_service_seconds_count")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("executor_queued_tasks{")))
+                .andExpect(content().string(containsString("name=\"jdbc\"")));
+    }
+
+    private long contagem(String metrica, String resultado) {
+        Timer timer = meterRegistry.find(metrica).tag("outcome", resultado).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long contagemServico(String metodo) {
+        return meterRegistry.find("contatos.service").tag("method", metodo).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private static Contato contato(String email) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato")
+                .telefone("(67) 99999-9999")
+                .cep(CEP)
+                .build();
+    }
+
+}
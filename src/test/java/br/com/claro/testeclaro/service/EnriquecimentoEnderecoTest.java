@@ -0,0 +1,272 @@
+package br.com.claro.testeclaro.service;
+
+import br.com.claro.testeclaro.model.Endereco;
+import br.com.claro.testeclaro.model.entity.Contato;
+import br.com.claro.testeclaro.repository.ContatoRepository;
+import br.com.claro.testeclaro.support.ViaCepStub;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// os workers do preenchimento continuariam varrendo a base H2, compartilhada
+// com os demais contextos, e gravando os contatos pendentes de outros testes
+@SpringBootTest
+@DirtiesContext
+@ActiveProfiles("development")
+@DisplayName("Testando o preenchimento do endereço em segundo plano")
+class EnriquecimentoEnderecoTest {
+    private static final String CEP = "79002000";
+
+    private static final ViaCepStub viaCep = ViaCepStub.iniciar()
+            .endereco(CEP, "Rua 14 de Julho", "Centro", "Campo Grande", "MS");
+
+    @Autowired
+    private ContatoService contatoService;
+    @Autowired
+    private EnriquecimentoEnderecoService enriquecimentoEnderecoService;
+    @Autowired
+    private ContatoRepository repository;
+    @Autowired
+    private Cache<String, Optional<Endereco>> cepCache;
+    @Autowired
+    private CircuitBreaker viaCepCircuitBreaker;
+
+    @DynamicPropertySource
+    static void enrichmentProperties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.url", viaCep::url);
+        registry.add("viacep.http.deadline", () -> "30s");
+        registry.add("viacep.http.read-timeout", () -> "30s");
+        registry.add("contatos.enrichment.enabled", () -> true);
+        registry.add("contatos.enrichment.workers", () -> 2);
+        registry.add("contatos.enrichment.batch-size", () -> 10);
+        registry.add("contatos.enrichment.initial-backoff", () -> "200ms");
+        registry.add("contatos.enrichment.max-backoff", () -> "200ms");
+        registry.add("contatos.enrichment.sweep-interval", () -> "100ms");
+    }
+
+    @AfterAll
+    static void pararStub() {
+        viaCep.parar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cepCache.invalidateAll();
+        repository.deleteAll();
+        viaCep.reset();
+        viaCepCircuitBreaker.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        viaCep.reset();
+    }
+
+    @Test
+    @DisplayName("O cadastro deve ser concluído sem aguardar a resposta do ViaCEP")
+    void saveNaoAguardaViaCep() throws Exception {
+        viaCep.bloquear(CEP);
+
+        long inicio = System.currentTimeMillis();
+        Optional<Contato> salvo = contatoService.save(contato("rapido@teste.com", "79002-000"));
+        Contato salvoAsync = contatoService.saveAsync(contato("rapido.async@teste.com", CEP)).block();
+        assertTrue(System.currentTimeMillis() - inicio < 2_000);
+
+        assertTrue(salvo.isPresent());
+        assertTrue(salvo.get().isEnderecoPendente());
+        assertNull(salvo.get().getCidade());
+        assertNotNull(salvoAsync);
+        assertTrue(salvoAsync.isEnderecoPendente());
+
+        viaCep.liberar(CEP);
+        aguardar(() -> repository.findAll().stream().noneMatch(Contato::isEnderecoPendente));
+        for (Contato contato : repository.findAll()) {
+            assertEquals("Rua 14 de Julho, Centro", contato.getEndereco());
+            assertEquals("Campo Grande", contato.getCidade());
+            assertEquals("MS", contato.getUf());
+        }
+    }
+
+    @Test
+    @DisplayName("Vários contatos com o mesmo CEP devem ser preenchidos com uma única consulta")
+    void preencheEmLote() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            contatoService.save(contato("lote" + i + "@teste.com", CEP));
+        }
+
+        aguardar(() -> repository.findAll().stream().noneMatch(Contato::isEnderecoPendente));
+        assertEquals(30, repository.count());
+        assertEquals(1, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("CEP em formato inválido deve continuar sendo recusado no cadastro")
+    void cepInvalidoRecusado() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> contatoService.save(contato("invalido@teste.com", "7900")));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    @DisplayName("Falhas do ViaCEP devem ser registradas e o preenchimento tentado novamente após a espera")
+    void falhaTentaNovamente() throws Exception {
+        viaCep.falhar(500);
+        contatoService.save(contato("falha@teste.com", CEP));
+
+        aguardar(() -> repository.findById("falha@teste.com").get().getTentativasEndereco() > 0);
+        Contato pendente = repository.findById("falha@teste.com").get();
+        assertTrue(pendente.isEnderecoPendente());
+        assertNotNull(pendente.getProximaTentativaEndereco());
+
+        viaCep.falhar(0);
+        aguardar(() -> !repository.findById("falha@teste.com").get().isEnderecoPendente());
+        Contato preenchido = repository.findById("falha@teste.com").get();
+        assertEquals("Campo Grande", preenchido.getCidade());
+        assertEquals(0, preenchido.getTentativasEndereco());
+        assertNull(preenchido.getProximaTentativaEndereco());
+    }
+
+    @Test
+    @DisplayName("Contatos pendentes gravados antes de uma reinicialização devem ser recuperados da base de dados")
+    void recuperaPendentesDaBase() throws Exception {
+        List<Contato> pendentes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pendentes.add(Contato.builder()
+                    .email("reinicio" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep(CEP)
+                    .dataCadastro(new Date())
+                    .enderecoPendente(true)
+                    .tentativasEndereco(3)
+                    .proximaTentativaEndereco(new Date(System.currentTimeMillis() - 1_000))
+                    .build());
+        }
+        repository.saveAll(pendentes);
+
+        aguardar(() -> repository.findAll().stream().noneMatch(Contato::isEnderecoPendente));
+        assertEquals(1, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Um contato alterado durante o preenchimento não deve ser sobrescrito nem impedir os demais do lote")
+    void contatoAlteradoDuranteOPreenchimento() throws Exception {
+        viaCep.bloquear(CEP);
+        List<Contato> pendentes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pendentes.add(Contato.builder()
+                    .email("alterado" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep(CEP)
+                    .dataCadastro(new Date())
+                    .enderecoPendente(true)
+                    .proximaTentativaEndereco(new Date(System.currentTimeMillis() - 1_000))
+                    .build());
+        }
+        repository.saveAll(pendentes);
+        aguardar(() -> viaCep.chamadas(CEP) == 1);
+
+        // o contato já foi lido pelo preenchimento, que aguarda o ViaCEP
+        assertEquals(1, repository.update("alterado0@teste.com",
+                Collections.singletonMap("telefone", "(67) 98888-8888"), null));
+        viaCep.liberar(CEP);
+
+        aguardar(() -> repository.findAll().stream().noneMatch(Contato::isEnderecoPendente));
+        Contato alterado = repository.findById("alterado0@teste.com").get();
+        assertEquals("(67) 98888-8888", alterado.getTelefone());
+        assertEquals("Campo Grande", alterado.getCidade());
+        assertEquals(1, viaCep.chamadas());
+    }
+
+    @Test
+    @DisplayName("Os endereços de um lote devem ser gravados juntos, ignorando somente os contatos alterados")
+    void gravaEnderecosEmLote() {
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            contatos.add(Contato.builder()
+                    .email("gravacao" + i + "@teste.com")
+                    .nome("Contato " + i)
+                    .telefone("(67) 99999-9999")
+                    .cep(CEP)
+                    .dataCadastro(new Date())
+                    .build());
+        }
+        repository.saveAll(contatos);
+        List<Contato> lidos = repository.findAllById(Arrays.asList(
+                "gravacao0@teste.com", "gravacao1@teste.com", "gravacao2@teste.com"));
+        lidos.sort(Comparator.comparing(Contato::getEmail));
+        repository.update("gravacao1@teste.com", Collections.singletonMap("telefone", "(67) 98888-8888"), null);
+        for (Contato contato : lidos) {
+            contato.setEndereco("Rua 14 de Julho, Centro");
+            contato.setCidade("Campo Grande");
+            contato.setUf("MS");
+        }
+
+        assertArrayEquals(new int[]{1, 0, 1}, repository.updateEnderecos(lidos));
+
+        assertEquals("Campo Grande", repository.findById("gravacao0@teste.com").get().getCidade());
+        assertEquals("Campo Grande", repository.findById("gravacao2@teste.com").get().getCidade());
+        assertEquals(lidos.get(0).getVersao() + 1, repository.findById("gravacao0@teste.com").get().getVersao());
+        Contato alterado = repository.findById("gravacao1@teste.com").get();
+        assertNull(alterado.getCidade());
+        assertEquals("(67) 98888-8888", alterado.getTelefone());
+    }
+
+    @Test
+    @DisplayName("Contatos sem nova tentativa prevista não devem ser consultados")
+    void semNovaTentativa() throws Exception {
+        repository.save(Contato.builder()
+                .email("esgotado@teste.com")
+                .nome("Contato")
+                .telefone("(67) 99999-9999")
+                .cep(CEP)
+                .dataCadastro(new Date())
+                .enderecoPendente(true)
+                .tentativasEndereco(10)
+                .build());
+
+        assertEquals(0, enriquecimentoEnderecoService.agendarPendentes());
+        Thread.sleep(300);
+        assertEquals(0, viaCep.chamadas());
+        assertTrue(repository.findById("esgotado@teste.com").get().isEnderecoPendente());
+    }
+
+    private static Contato contato(String email, String cep) {
+        return Contato.builder()
+                .email(email)
+                .nome("Contato")
+                .telefone("(67) 99999-9999")
+                .cep(cep)
+                .build();
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(condicao.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,147 @@
+package br.com.claro.testeclaro.support;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executa uma operação repetidas vezes, em paralelo, registrando a latência de
+ * cada execução para o cálculo de vazão e percentis nos testes de desempenho.
+ */
+public final class Medidor {
+
+    private final String nome;
+    private final long[] latencias;
+    private final long duracaoNanos;
+    private final int erros;
+
+    private Medidor(String nome, long[] latencias, long duracaoNanos, int erros) {
+        this.nome = nome;
+        this.latencias = latencias;
+        this.duracaoNanos = duracaoNanos;
+        this.erros = erros;
+    }
+
+    /**
+     * Executa {@code operacao} {@code execucoes} vezes distribuídas entre
+     * {@code threads} threads.
+     */
+    public static Medidor medir(String nome, int threads, int execucoes, Operacao operacao) throws Exception {
+        AtomicLongArray latencias = new AtomicLongArray(execucoes);
+        AtomicInteger proxima = new AtomicInteger();
+        AtomicInteger erros = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long inicio = System.nanoTime();
+        try {
+            Future<?>[] tarefas = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                tarefas[t] = executor.submit(() -> {
+                    int i;
+                    while ((i = proxima.getAndIncrement()) < execucoes) {
+                        long antes = System.nanoTime();
+                        try {
+                            operacao.executar(i);
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                        }
+                        latencias.set(i, System.nanoTime() - antes);
+                    }
+                });
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        long[] ordenadas = new long[execucoes];
+        for (int i = 0; i < execucoes; i++) {
+            ordenadas[i] = latencias.get(i);
+        }
+        Arrays.sort(ordenadas);
+        return new Medidor(nome, ordenadas, duracao, erros.get());
+    }
+
+    /**
+     * Dispara {@code operacao} {@code execucoes} vezes a uma taxa fixa de
+     * {@code porSegundo} execuções por segundo, sem aguardar as respostas
+     * anteriores, com até {@code threads} execuções simultâneas. A latência é
+     * contada a partir do momento previsto para o disparo, então a espera por
+     * uma thread livre, quando o sistema não acompanha a taxa, também entra nos
+     * percentis.
+     */
+    public static Medidor medirTaxa(String nome, int porSegundo, int threads, int execucoes, Operacao operacao)
+            throws Exception {
+        AtomicLongArray latencias = new AtomicLongArray(execucoes);
+        AtomicInteger erros = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long intervalo = 1_000_000_000L / porSegundo;
+        long inicio = System.nanoTime();
+        try {
+            for (int i = 0; i < execucoes; i++) {
+                long previsto = inicio + i * intervalo;
+                long espera;
+                while ((espera = previsto - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                int indice = i;
+                executor.execute(() -> {
+                    try {
+                        operacao.executar(indice);
+                    } catch (Exception e) {
+                        erros.incrementAndGet();
+                    }
+                    latencias.set(indice, System.nanoTime() - previsto);
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        long[] ordenadas = new long[execucoes];
+        for (int i = 0; i < execucoes; i++) {
+            ordenadas[i] = latencias.get(i);
+        }
+        Arrays.sort(ordenadas);
+        return new Medidor(nome, ordenadas, duracao, erros.get());
+    }
+
+    public double vazao() {
+        return latencias.length / (duracaoNanos / 1_000_000_000d);
+    }
+
+    public double percentilMillis(double percentil) {
+        int indice = (int) Math.ceil(percentil / 100d * latencias.length) - 1;
+        return latencias[Math.max(0, indice)] / 1_000_000d;
+    }
+
+    public int erros() {
+        return erros;
+    }
+
+    public long duracaoMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(duracaoNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %8d execuções %10.1f op/s  p50=%8.3f ms  p99=%8.3f ms  máx=%8.3f ms  erros=%d",
+                nome, latencias.length, vazao(), percentilMillis(50), percentilMillis(99), percentilMillis(100), erros);
+    }
+
+    @FunctionalInterface
+    public interface Operacao {
+        void executar(int indice) throws Exception;
+    }
+
+}
@@ -0,0 +1,178 @@
+package br.com.claro.testeclaro.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP local que simula a API ViaCEP nos testes, respondendo em
+ * {@code /ws/{cep}/json} e contando quantas consultas foram recebidas.
+ */
+public class ViaCepStub {
+
+    private static final String CEP_INEXISTENTE = "{\"erro\": true}";
+
+    private final HttpServer server;
+    private final Map<String, String> enderecos = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> chamadasPorCep = new ConcurrentHashMap<>();
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private volatile long atrasoMillis;
+    private final Map<String, CountDownLatch> travas = new ConcurrentHashMap<>();
+    private volatile boolean qualquerCep;
+    private volatile int statusErro;
+
+    private ViaCepStub(HttpServer server) {
+        this.server = server;
+    }
+
+    public static ViaCepStub iniciar() {
+        // evita o atraso de ~40 ms do algoritmo de Nagle combinado com o ACK atrasado
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+            ViaCepStub stub = new ViaCepStub(server);
+            server.createContext("/ws/", stub::responder);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return URL no formato esperado pela propriedade {@code viacep.url}
+     */
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/ws/{cep}/json";
+    }
+
+    public ViaCepStub endereco(String cep, String logradouro, String bairro, String localidade, String uf) {
+        String json = String.format("{\"cep\": \"%s-%s\", \"logradouro\": \"%s\", \"bairro\": \"%s\","
+                        + " \"localidade\": \"%s\", \"uf\": \"%s\"}",
+                cep.substring(0, 5), cep.substring(5), logradouro, bairro, localidade, uf);
+        enderecos.put(cep, json);
+        return this;
+    }
+
+    /**
+     * Faz o stub responder com um endereço genérico para qualquer CEP que não
+     * tenha sido cadastrado em {@link #endereco}.
+     */
+    public ViaCepStub qualquerCep() {
+        this.qualquerCep = true;
+        return this;
+    }
+
+    /**
+     * Define um tempo de espera antes de cada resposta, simulando a latência da
+     * API.
+     */
+    public ViaCepStub atraso(long millis) {
+        this.atrasoMillis = millis;
+        return this;
+    }
+
+    /**
+     * Retém as respostas para o CEP informado até que {@link #liberar(String)} seja
+     * chamado.
+     */
+    public ViaCepStub bloquear(String cep) {
+        travas.put(cep, new CountDownLatch(1));
+        return this;
+    }
+
+    public ViaCepStub liberar(String cep) {
+        CountDownLatch trava = travas.remove(cep);
+        if (trava != null) {
+            trava.countDown();
+        }
+        return this;
+    }
+
+    /**
+     * Faz o stub responder todas as consultas com o status HTTP informado, ou
+     * voltar a responder normalmente com {@code 0}.
+     */
+    public ViaCepStub falhar(int status) {
+        this.statusErro = status;
+        return this;
+    }
+
+    public int chamadas() {
+        return chamadas.get();
+    }
+
+    public int chamadas(String cep) {
+        AtomicInteger contador = chamadasPorCep.get(cep);
+        return contador == null ? 0 : contador.get();
+    }
+
+    public void reset() {
+        chamadas.set(0);
+        chamadasPorCep.clear();
+        statusErro = 0;
+        travas.values().forEach(CountDownLatch::countDown);
+        travas.clear();
+    }
+
+    public void parar() {
+        server.stop(0);
+    }
+
+    private void responder(HttpExchange exchange) throws IOException {
+        String[] partes = exchange.getRequestURI().getPath().split("/");
+        String cep = partes.length > 2 ? partes[2] : "";
+        chamadas.incrementAndGet();
+        chamadasPorCep.computeIfAbsent(cep, c -> new AtomicInteger()).incrementAndGet();
+        aguardar(atrasoMillis);
+        CountDownLatch trava = travas.get(cep);
+        if (trava != null) {
+            try {
+                trava.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (statusErro > 0) {
+            exchange.sendResponseHeaders(statusErro, -1);
+            exchange.close();
+            return;
+        }
+
+        String json = enderecos.get(cep);
+        if (json == null) {
+            json = qualquerCep && cep.length() == 8
+                    ? String.format("{\"cep\": \"%s-%s\", \"logradouro\": \"Rua %s\", \"bairro\": \"Centro\","
+                    + " \"localidade\": \"Campo Grande\", \"uf\": \"MS\"}", cep.substring(0, 5), cep.substring(5), cep)
+                    : CEP_INEXISTENTE;
+        }
+        byte[] corpo = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, corpo.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+
+    private static void aguardar(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}